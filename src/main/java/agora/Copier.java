@@ -0,0 +1,86 @@
+package agora;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Copies graphs of copyable things, such as the parts of an object that is cloned.
+ * Everything is copied at most once, by identity: a thing that is reached twice is shared
+ * by the copies that refer to it, just like in the original graph.
+ * The copier does not recurse. The copy of a thing (see Copyable.copy) refers to the originals
+ * of its constituents at first, and asks the copier to replace them by their copies. These are
+ * made from a worklist, so that copying a long chain of frames takes no Java stack.
+ */
+public final class Copier {
+    /**
+     * The copies made so far, by original.
+     */
+    private final Map<Object, Object> copies = new IdentityHashMap<>();
+
+    /**
+     * The constituents still to be copied, with what to do with their copy.
+     */
+    private final ArrayDeque<Pending<?>> pending = new ArrayDeque<>();
+
+    private record Pending<T>(T original, Consumer<? super T> setter) {
+    }
+
+    /**
+     * Keeps a thing out of the copies: wherever it is reached, the copies refer to the thing itself.
+     *
+     * @param thing The thing not to copy.
+     */
+    public void keep(Object thing) {
+        copies.put(thing, thing);
+    }
+
+    /**
+     * Copies a thing and everything it refers to that was not copied or kept yet.
+     *
+     * @param thing The thing to copy.
+     * @return The copy.
+     */
+    public <T> T copy(T thing) {
+        var result = new Object[1];
+        copy(thing, copy -> result[0] = copy);
+        while (!pending.isEmpty()) run(pending.pop());
+        @SuppressWarnings("unchecked")
+        var copy = (T) result[0];
+        return copy;
+    }
+
+    /**
+     * Copies a constituent of a thing that is being copied. This is meant for Copyable.copy,
+     * which cannot copy its constituents itself without recursing.
+     *
+     * @param thing  The constituent.
+     * @param setter Stores the copy of the constituent in the copy of the thing. It is called
+     *               right away if the constituent was copied already, and later otherwise.
+     */
+    public <T> void copy(T thing, Consumer<? super T> setter) {
+        @SuppressWarnings("unchecked")
+        var copy = thing == null ? null : (T) copies.get(thing);
+        if (thing == null || copy != null) setter.accept(copy);
+        else pending.push(new Pending<>(thing, setter));
+    }
+
+    /**
+     * @return The copies made so far, by original, including the things that were kept.
+     */
+    public Map<Object, Object> copies() {
+        return Collections.unmodifiableMap(copies);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void run(Pending<T> next) {
+        var copy = (T) copies.get(next.original());
+        if (copy == null) {
+            copy = next.original() instanceof Copyable copyable ? (T) copyable.copy(this) : next.original();
+            copies.put(next.original(), copy);
+        }
+        next.setter().accept(copy);
+    }
+}
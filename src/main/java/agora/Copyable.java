@@ -1,16 +1,15 @@
 package agora;
 
-import java.util.Map;
-
 public interface Copyable {
     /**
-     * To clone an attribute in a given clone map. The clone map takes care an attribute is copied only
-     * once. Must be overriden.
+     * To clone an attribute with a given copier. The copier takes care an attribute is copied only
+     * once: it calls this method, and the copy hands the constituents of the attribute back to it
+     * (see Copier.copy). Must be overriden.
      *
-     * @param cache A table of already-copied-things such that nothing is copied twice.
-     * @return A cache of the attribute.
+     * @param copier The copier that copies the constituents.
+     * @return A copy of the attribute.
      */
-    default Object copy(Map<Object, Object> cache) {
+    default Object copy(Copier copier) {
         return this;
     }
 }
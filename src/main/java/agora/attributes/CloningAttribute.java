@@ -1,5 +1,6 @@
 package agora.attributes;
 
+import agora.Copier;
 import agora.errors.AgoraError;
 import agora.grammar.Expression;
 import agora.objects.*;
@@ -9,8 +10,6 @@ import agora.runtime.Client;
 import agora.runtime.Context;
 import agora.tools.AgoraGlobals;
 
-import java.util.Hashtable;
-
 /**
  * This is the Agora attribute corresponding to cloning methods.
  *
@@ -41,21 +40,24 @@ public class CloningAttribute extends MethodAttribute {
      */
     public AgoraObject doAttributeValue(Pattern msg, Client client, Context context) throws AgoraError {
         if (Category.contains(context.getCategory(), Category.dontClone))
-            return methodCode.eval(context);
-        var cloningMap = new Hashtable<>(3);
+            return methodCode.evalBody(context);
+        var copier = new Copier();
         // Prevent root from being cloned
-        cloningMap.put(AgoraGlobals.glob.rootParent, AgoraGlobals.glob.rootParent);
-        cloningMap.put(AgoraGlobals.glob.rootPrivate, AgoraGlobals.glob.rootPrivate);
-        cloningMap.put(AgoraGlobals.glob.rootIdentity, AgoraGlobals.glob.rootIdentity);
+        copier.keep(AgoraGlobals.current().rootParent);
+        copier.keep(AgoraGlobals.current().rootPrivate);
+        copier.keep(AgoraGlobals.current().rootIdentity);
+        copier.keep(AgoraGlobals.current().rootIdentity.getMe());
         // clone object and temporary scopes (may be added to the object in the method body)
-        var clone = (IdentityGenerator) context.getSelf().copy(cloningMap);
-        var privclone = context.getPrivate().copy(cloningMap);
-        var pubclone = (MethodsGenerator) context.getPub().copy(cloningMap);
-        var superclone = (Generator) context.getParent().copy(cloningMap);
+        var clone = copier.copy(context.getSelf());
+        var privclone = copier.copy(context.getPrivate());
+        var pubclone = copier.copy(context.getPub());
+        var superclone = copier.copy(context.getParent());
+        // the copies share method tables and variables with the originals until they are written
+        CopyOnWrite.share(copier.copies());
         // actual parameters binding
-        privclone = bind(client.getActuals(), privclone);
+        privclone = bind(client, privclone);
         // evaluate cloning method
-        methodCode.eval(context.setMultiple(clone,
+        methodCode.evalBody(context.setMultiple(clone,
                 privclone,
                 pubclone,
                 Category.dontClone,
@@ -0,0 +1,221 @@
+package agora.attributes;
+
+import agora.runtime.Client;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.reflect.Modifier.isAbstract;
+import static java.lang.reflect.Modifier.isStatic;
+
+/**
+ * The invocation of a Java method, constructor or field by a primitive attribute. Rather than
+ * going through core reflection for every invocation, the member is turned into a method handle
+ * once, adapted to take its receiver and its arguments as objects. The invoker checks its
+ * arguments and reports failures just like Method.invoke does: an argument that does not fit
+ * gives an IllegalArgumentException, and anything thrown by the member itself is wrapped in an
+ * InvocationTargetException. That way, the attributes report errors exactly as they used to.
+ * Invokers are not serialized: attributes make them again when they are first used after an
+ * image was loaded.
+ */
+final class Invoker {
+    private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+    /**
+     * The primitive types of the wrapper classes.
+     */
+    private static final Map<Class<?>, Class<?>> primitives = Map.of(
+            Boolean.class, boolean.class,
+            Character.class, char.class,
+            Byte.class, byte.class,
+            Short.class, short.class,
+            Integer.class, int.class,
+            Long.class, long.class,
+            Float.class, float.class,
+            Double.class, double.class
+    );
+
+    /**
+     * The numeric primitive types, each one widening to the ones after it.
+     */
+    private static final List<Class<?>> widenings = List.of(
+            byte.class, short.class, int.class, long.class, float.class, double.class
+    );
+
+    /**
+     * The type of the receiver, or null if the member ignores its receiver.
+     */
+    private final Class<?> receiver;
+
+    /**
+     * True if the receiver is the target of an instance member, which cannot be null.
+     */
+    private final boolean target;
+
+    private final Class<?>[] parameters;
+
+    /**
+     * The handle, taking the receiver and then the arguments one by one.
+     */
+    private final MethodHandle exact;
+
+    /**
+     * The handle, taking the receiver and then an array with the arguments.
+     */
+    private final MethodHandle spread;
+
+    private Invoker(MethodHandle direct, boolean hasReceiver, boolean target) {
+        direct = direct.asFixedArity();
+        if (!hasReceiver) direct = MethodHandles.dropArguments(direct, 0, Object.class);
+        var type = direct.type();
+        this.receiver = hasReceiver ? type.parameterType(0) : null;
+        this.target = target;
+        this.parameters = type.dropParameterTypes(0, 1).parameterArray();
+        this.exact = direct.asType(MethodType.genericMethodType(type.parameterCount()));
+        this.spread = exact.asSpreader(Object[].class, parameters.length);
+    }
+
+    /**
+     * Makes the invoker of a method. The receiver of an instance method is its target,
+     * a static method ignores its receiver.
+     *
+     * @throws IllegalAccessException When the method is not accessible.
+     */
+    static Invoker of(Method method) throws IllegalAccessException {
+        var instance = !isStatic(method.getModifiers());
+        return new Invoker(lookup.unreflect(method), instance, instance);
+    }
+
+    /**
+     * Makes the invoker of a static method that takes the receiver as its first argument.
+     *
+     * @throws IllegalAccessException When the method is not accessible.
+     */
+    static Invoker function(Method method) throws IllegalAccessException {
+        return new Invoker(lookup.unreflect(method), true, false);
+    }
+
+    /**
+     * Makes the invoker of a constructor, which ignores its receiver.
+     *
+     * @throws IllegalAccessException When the constructor is not accessible.
+     * @throws InstantiationException When the class of the constructor is abstract.
+     */
+    static Invoker of(Constructor<?> constructor) throws IllegalAccessException, InstantiationException {
+        if (isAbstract(constructor.getDeclaringClass().getModifiers()))
+            throw new InstantiationException(constructor.getDeclaringClass().getName());
+        return new Invoker(lookup.unreflectConstructor(constructor), false, false);
+    }
+
+    /**
+     * Makes the invoker reading a field.
+     *
+     * @throws IllegalAccessException When the field is not accessible.
+     */
+    static Invoker getter(Field field) throws IllegalAccessException {
+        var instance = !isStatic(field.getModifiers());
+        return new Invoker(lookup.unreflectGetter(field), instance, instance);
+    }
+
+    /**
+     * Makes the invoker writing a field. It takes the new value as its argument.
+     *
+     * @throws IllegalAccessException When the field is not accessible or final.
+     */
+    static Invoker setter(Field field) throws IllegalAccessException {
+        var instance = !isStatic(field.getModifiers());
+        return new Invoker(lookup.unreflectSetter(field), instance, instance);
+    }
+
+    /**
+     * Invokes the member.
+     *
+     * @param self      The receiver.
+     * @param arguments The arguments, which may be null if there are none.
+     * @return The result of the member, null if it has none.
+     * @throws InvocationTargetException Wraps whatever the member throws.
+     */
+    Object invoke(Object self, Object[] arguments) throws InvocationTargetException {
+        checkReceiver(self);
+        var count = arguments == null ? 0 : arguments.length;
+        if (count != parameters.length) throw new IllegalArgumentException("wrong number of arguments");
+        for (var i = 0; i < count; i++) checkArgument(parameters[i], arguments[i]);
+        try {
+            return (Object) spread.invokeExact(self, arguments);
+        } catch (Throwable e) {
+            throw new InvocationTargetException(e);
+        }
+    }
+
+    /**
+     * Invokes a member with one argument, without putting the argument in an array.
+     *
+     * @see #invoke(Object, Object[])
+     */
+    Object invoke(Object self, Object argument) throws InvocationTargetException {
+        if (parameters.length != 1) return invoke(self, new Object[]{argument});
+        checkReceiver(self);
+        checkArgument(parameters[0], argument);
+        try {
+            return (Object) exact.invokeExact(self, argument);
+        } catch (Throwable e) {
+            throw new InvocationTargetException(e);
+        }
+    }
+
+    /**
+     * Invokes the member with the native arguments of a client (see Client.makeNativeArguments).
+     * Up to three arguments are passed without putting them in an array.
+     *
+     * @see #invoke(Object, Object[])
+     */
+    Object invoke(Object self, Client client) throws InvocationTargetException {
+        var count = client.nativeSize();
+        if (count != parameters.length || count > 3) return invoke(self, client.makeNativeArguments());
+        checkReceiver(self);
+        var first = count > 0 ? client.nativeArgument(0) : null;
+        var second = count > 1 ? client.nativeArgument(1) : null;
+        var third = count > 2 ? client.nativeArgument(2) : null;
+        for (var i = 0; i < count; i++) checkArgument(parameters[i], i == 0 ? first : i == 1 ? second : third);
+        try {
+            return switch (count) {
+                case 0 -> (Object) exact.invokeExact(self);
+                case 1 -> (Object) exact.invokeExact(self, first);
+                case 2 -> (Object) exact.invokeExact(self, first, second);
+                default -> (Object) exact.invokeExact(self, first, second, third);
+            };
+        } catch (Throwable e) {
+            throw new InvocationTargetException(e);
+        }
+    }
+
+    private void checkReceiver(Object self) {
+        if (receiver == null) return;
+        if (target && self == null) throw new NullPointerException();
+        if (!fits(receiver, self)) throw new IllegalArgumentException("object is not an instance of declaring class");
+    }
+
+    private static void checkArgument(Class<?> type, Object argument) {
+        if (!fits(type, argument)) throw new IllegalArgumentException("argument type mismatch");
+    }
+
+    /**
+     * @return True if reflection would pass the value for a parameter of the type: references
+     * must be instances of the type (or null), primitives are unboxed and possibly widened.
+     */
+    private static boolean fits(Class<?> type, Object value) {
+        if (!type.isPrimitive()) return value == null || type.isInstance(value);
+        var from = value == null ? null : primitives.get(value.getClass());
+        if (from == null) return false;
+        if (from == type) return true;
+        var to = widenings.indexOf(type);
+        return from == char.class ? to >= widenings.indexOf(int.class) : widenings.indexOf(from) >= 0 && to > widenings.indexOf(from);
+    }
+}
@@ -1,13 +1,26 @@
 package agora.attributes;
 
 import agora.errors.AgoraError;
+import agora.grammar.Block;
 import agora.grammar.Expression;
+import agora.grammar.ReifierMessage;
+import agora.grammar.UserUnaryPattern;
 import agora.objects.AgoraObject;
+import agora.objects.FrameLayout;
 import agora.objects.InternalGenerator;
+import agora.objects.SlotFrame;
+import agora.patterns.KeywordReifierPattern;
 import agora.patterns.Pattern;
-import agora.patterns.UnaryPattern;
+import agora.patterns.UnaryReifierPattern;
+import agora.runtime.CallStack;
 import agora.runtime.Client;
 import agora.runtime.Context;
+import agora.runtime.TailCall;
+import agora.tools.AgoraGlobals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 
 /**
  * A method attribute represents an ordinary Agora method. Subclasses of this class
@@ -18,10 +31,26 @@ import agora.runtime.Context;
  * Last change:  E    16 Nov 97    1:34 am
  */
 public class MethodAttribute implements Attribute {
+    /**
+     * The reifiers declaring a variable.
+     */
+    private static final Set<Pattern> declarations = Set.of(
+            UnaryReifierPattern.of("VARIABLE"),
+            UnaryReifierPattern.of("VAR"),
+            KeywordReifierPattern.of(List.of("VARIABLE:"))
+    );
+
     protected Expression methodCode;
 
     protected String[] formals;
 
+    /**
+     * The layout of the activation frames of the method. It is computed the first
+     * time the method is invoked, when the sends in tail position of the method code
+     * are marked as well.
+     */
+    private transient FrameLayout layout;
+
     /**
      * Creates a new Agora method with the array of strings as formal arguments
      * and the given expression as method body.
@@ -38,6 +67,13 @@ public class MethodAttribute implements Attribute {
      * Executing a new method consists of making a local view on the local and private
      * (being a new frame for lexical scoping) and evaluating the method code in the
      * context of this frame. The original context is not touched.
+     * The sends in tail position of the method code leave themselves to this invocation, which
+     * performs them one after the other until one of them yields a value (see TailCall). When
+     * the method is itself invoked by performing such a send, it leaves its own tail send to
+     * the invocation that performed it instead, so that a chain of tail sends runs in constant
+     * Java stack, whatever methods it goes through.
+     * In the heap stack mode, the invocation is an activation on the call stack of the
+     * evaluation (see CallStack).
      *
      * @param msg     The message whose delegation gave rise to the invocation.
      * @param client  The client object containing the actual arguments.
@@ -45,42 +81,58 @@ public class MethodAttribute implements Attribute {
      * @throws agora.errors.AgoraError When something goes wrong during evaluation.
      */
     public AgoraObject doAttributeValue(Pattern msg, Client client, Context context) throws AgoraError {
-        var localPriv = bind(client.getActuals(), context.getPrivate());
-        var localPub = context.getPub().funcAddLayer("Calling Frame of:" + msg.toString());
-        localPub.setPrivate(localPriv);
-        return this.methodCode.eval(context.setMultiple(context.getSelf(),
-                localPriv,
-                localPub,
-                context.getCategory(),
-                context.getParent()));
+        if (AgoraGlobals.current().options.heapStack) return CallStack.run(() -> invoke(msg, client, context));
+        return invoke(msg, client, context);
+    }
+
+    private AgoraObject invoke(Pattern msg, Client client, Context context) throws AgoraError {
+        var localPriv = bind(client, context.getPrivate());
+        var body = context.setMethodFrame(localPriv, msg);
+        var caller = client.getTailCall();
+        if (caller != null) return this.methodCode.evalBody(body.allowTailCalls(caller));
+        var result = this.methodCode.evalBody(body.allowTailCalls(null));
+        if (result != TailCall.pending) return result;
+        var tailCall = body.tailCall();
+        do result = tailCall.perform(); while (result == TailCall.pending);
+        return result;
     }
 
     /**
-     * This method is called from within 'doAttributeValue'. It takes a private part and an array
-     * of actual parameters. It adds a local frame to make the formals-actuals bindings and returns
-     * this one.
+     * This method is called from within 'doAttributeValue'. It takes a private part and a client
+     * with the actual parameters. It adds a local frame to make the formals-actuals bindings and returns
+     * this one. The frame keeps the formals, and the local variables the body declares, in slots.
      *
-     * @param actuals  The list of actual parameters of type Object: can be evaluated or not.
+     * @param actuals  The client with the actual parameters of type Object: can be evaluated or not.
      * @param privPart The private part to which the new frame must be attached.
      * @return A new frame linked to the private part. It contains the bindings.
      * @throws agora.errors.AgoraError Something can always go wrong (Murphy!).
      */
-    protected InternalGenerator bind(Object[] actuals, InternalGenerator privPart) throws AgoraError {
-        var size = actuals.length;
-        var bindingsPriv = privPart.funcAddLayer("Formals Actuals Frame");
-        bindingsPriv.setPrivate(bindingsPriv);
-        for (var i = 0; i < size; i++) {
-            var var = new VariableContainer((AgoraObject) actuals[i]);
-
-            var readatt = new VariableGetAttribute(var);
-            var readpat = new UnaryPattern(formals[i]);
-            bindingsPriv.installPattern(readpat, readatt);
+    protected SlotFrame bind(Client actuals, InternalGenerator privPart) throws AgoraError {
+        if (layout == null) {
+            var names = new ArrayList<>(List.of(formals));
+            declaredLocals(methodCode, names);
+            methodCode.markTailSends();
+            layout = new FrameLayout(names);
+        }
+        return new SlotFrame(layout, actuals, privPart);
+    }
 
-            var writeatt = new VariableSetAttribute(var);
-            var writepat = readpat.makeWritePattern();
-            bindingsPriv.installPattern(writepat, writeatt);
+    /**
+     * Collects the names of the local variables a method body declares with
+     * LOCAL VARIABLE or LOCAL VARIABLE:, such that they get a slot in the frames of the method.
+     * Only declarations evaluated in the frame itself are considered; variables declared in
+     * some other way are installed in the frame as ordinary attributes.
+     */
+    private static void declaredLocals(Expression code, List<String> names) {
+        if (code instanceof Block block) {
+            for (var i = 0; i < block.size(); i++) declaredLocals(block.at(i), names);
+        } else if (code instanceof ReifierMessage declaration &&
+                declarations.contains(declaration.pattern().makePattern(null)) &&
+                declaration.receiver() instanceof ReifierMessage local &&
+                local.pattern().makePattern(null).equals(UnaryReifierPattern.of("LOCAL")) &&
+                local.receiver() instanceof UserUnaryPattern variable) {
+            names.add(variable.getUnary());
         }
-        return bindingsPriv;
     }
 
     /**
@@ -3,6 +3,7 @@ package agora.attributes;
 import agora.errors.AgoraError;
 import agora.grammar.Expression;
 import agora.objects.AgoraObject;
+import agora.objects.InternalGenerator;
 import agora.patterns.Pattern;
 import agora.runtime.Client;
 import agora.runtime.Context;
@@ -37,13 +38,13 @@ public class MixinAttribute extends MethodAttribute {
      * @throws agora.errors.AgoraError When something goes wrong during evaluation.
      */
     public AgoraObject doAttributeValue(Pattern msg, Client client, Context context) throws AgoraError {
-        var mixinPriv = this.bind(client.getActuals(), context.getPrivate());
+        InternalGenerator mixinPriv = this.bind(client, context.getPrivate());
         mixinPriv = mixinPriv.funcAddLayer("Local part of mixin " + msg.toString());
         mixinPriv.setPrivate(mixinPriv);
         var mixinPub = context.getSelf().getMe().funcAddLayer("Public part of mixin " + msg);
         context.getSelf().Change(mixinPub);
         mixinPub.setPrivate(mixinPriv);
-        methodCode.eval(
+        methodCode.evalBody(
                 context.setMultiple(context.getSelf(),
                         mixinPriv,
                         mixinPub,
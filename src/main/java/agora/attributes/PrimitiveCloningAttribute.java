@@ -26,6 +26,11 @@ public class PrimitiveCloningAttribute extends PrimitiveAttribute {
 
     private Constructor<?> c;
 
+    /**
+     * The invoker of the constructor, made the first time the constructor is invoked.
+     */
+    private transient Invoker invoker;
+
     @Serial
     private void writeObject(ObjectOutputStream stream) throws IOException {
         stream.writeObject(c.getDeclaringClass().getName());
@@ -82,7 +87,7 @@ public class PrimitiveCloningAttribute extends PrimitiveAttribute {
      */
     public AgoraObject doAttributeValue(Pattern msg, Client client, Context context) throws AgoraError {
         try {
-            return AgoraGlobals.glob.up.up(c.newInstance(client.makeNativeArguments()));
+            return AgoraGlobals.current().up.up(invoker().invoke(null, client));
         } catch (IllegalAccessException e) {
             throw new ProgramError("Illegal Access Exception when invoking constructor");
         } catch (InvocationTargetException e) {
@@ -93,6 +98,17 @@ public class PrimitiveCloningAttribute extends PrimitiveAttribute {
         }
     }
 
+    /**
+     * Returns the invoker, making it the first time.
+     *
+     * @throws IllegalAccessException When the member is not accessible.
+     * @throws InstantiationException When the class is abstract.
+     */
+    private Invoker invoker() throws IllegalAccessException, InstantiationException {
+        if (invoker == null) invoker = Invoker.of(c);
+        return invoker;
+    }
+
     /**
      * Converts the attribute into a string.
      */
@@ -31,6 +31,13 @@ public class PrimitiveFunctionAttribute extends PrimitiveMethodAttribute {
         super(method);
     }
 
+    /**
+     * The receiver is passed to the function as its first argument.
+     */
+    Invoker resolve() throws IllegalAccessException {
+        return Invoker.function(method);
+    }
+
     /**
      * Executing an attribute like this consists of invoking the Java static method
      * with null as receiver, and the downed Agora receiver as first argument.
@@ -48,12 +55,17 @@ public class PrimitiveFunctionAttribute extends PrimitiveMethodAttribute {
             Context context
     ) throws AgoraError {
         try {
-            var realActuals = client.getActuals();
-            var fakedActuals = new Object[realActuals.length + 1];
-            fakedActuals[0] = context.getSelf().down();
-            for (var j = 0; j < realActuals.length; j++)
-                fakedActuals[j + 1] = ((AgoraObject) realActuals[j]).down();
-            return AgoraGlobals.glob.up.up(method.invoke(null, fakedActuals));
+            var self = context.getSelf().down();
+            return AgoraGlobals.current().up.up(switch (client.size()) {
+                case 0 -> invoker().invoke(self, (Object[]) null);
+                case 1 -> invoker().invoke(self, client.downedActual(0));
+                default -> {
+                    var downedActuals = new Object[client.size()];
+                    for (var j = 0; j < downedActuals.length; j++)
+                        downedActuals[j] = client.downedActual(j);
+                    yield invoker().invoke(self, downedActuals);
+                }
+            });
         } catch (IllegalArgumentException e) {
             throw new ProgramError("Illegal Argument for " + pattern);
         } catch (IllegalAccessException e) {
@@ -23,6 +23,11 @@ import java.lang.reflect.Method;
 public class PrimitiveMethodAttribute extends PrimitiveAttribute {
     protected Method method;
 
+    /**
+     * The invoker of the method, made the first time the method is invoked.
+     */
+    private transient Invoker invoker;
+
     @Serial
     private void writeObject(ObjectOutputStream stream) throws IOException {
         stream.writeObject(method.getDeclaringClass());
@@ -54,6 +59,34 @@ public class PrimitiveMethodAttribute extends PrimitiveAttribute {
         this.method = javaMethod;
     }
 
+    /**
+     * Returns the Java method to which this attribute is associated.
+     *
+     * @return The Java method invoked by this attribute.
+     */
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * Returns the invoker of the method, making it the first time.
+     *
+     * @throws IllegalAccessException When the method is not accessible.
+     */
+    Invoker invoker() throws IllegalAccessException {
+        if (invoker == null) invoker = resolve();
+        return invoker;
+    }
+
+    /**
+     * Makes the invoker of the method.
+     *
+     * @throws IllegalAccessException When the method is not accessible.
+     */
+    Invoker resolve() throws IllegalAccessException {
+        return Invoker.of(method);
+    }
+
     /**
      * Executing a PrimMethAttribute consists of invoking the corresponding java method
      * on the downed version of the receiver. The arguments are the downed versions of the actual
@@ -66,7 +99,7 @@ public class PrimitiveMethodAttribute extends PrimitiveAttribute {
      */
     public AgoraObject doAttributeValue(Pattern msg, Client client, Context context) throws AgoraError {
         try {
-            return AgoraGlobals.glob.up.up(method.invoke(context.getSelf().down(), client.makeNativeArguments()));
+            return AgoraGlobals.current().up.up(invoker().invoke(context.getSelf().down(), client));
         } catch (IllegalAccessException e) {
             throw new ProgramError("Illegal Access Exception while accessing a primitive method");
         } catch (InvocationTargetException e) {
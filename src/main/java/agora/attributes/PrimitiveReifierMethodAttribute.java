@@ -25,6 +25,11 @@ import java.util.Objects;
 public class PrimitiveReifierMethodAttribute extends PrimitiveAttribute {
     protected Method method;
 
+    /**
+     * The invoker of the method, made the first time the method is invoked.
+     */
+    private transient Invoker invoker;
+
     @Serial
     private void writeObject(ObjectOutputStream stream) throws IOException {
         stream.writeObject(method.getDeclaringClass());
@@ -70,7 +75,7 @@ public class PrimitiveReifierMethodAttribute extends PrimitiveAttribute {
      */
     public AgoraObject doAttributeValue(Pattern msg, Client client, Context context) throws AgoraError {
         try {
-            return AgoraGlobals.glob.up.up(method.invoke(context, client.makeNativeArguments()));
+            return AgoraGlobals.current().up.up(invoker().invoke(context, client));
         } catch (IllegalAccessException e) {
             throw new ProgramError("Illegal Access Exception while accessing a primitive method");
         } catch (InvocationTargetException e) {
@@ -79,6 +84,16 @@ public class PrimitiveReifierMethodAttribute extends PrimitiveAttribute {
         }
     }
 
+    /**
+     * Returns the invoker, making it the first time.
+     *
+     * @throws IllegalAccessException When the member is not accessible.
+     */
+    private Invoker invoker() throws IllegalAccessException {
+        if (invoker == null) invoker = Invoker.of(method);
+        return invoker;
+    }
+
     /**
      * Converts the attribute into a string.
      */
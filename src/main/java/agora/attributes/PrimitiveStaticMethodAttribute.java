@@ -45,7 +45,7 @@ public class PrimitiveStaticMethodAttribute extends PrimitiveMethodAttribute {
             Context context
     ) throws AgoraError {
         try {
-            return AgoraGlobals.glob.up.up(method.invoke(null, client.makeNativeArguments()));
+            return AgoraGlobals.current().up.up(invoker().invoke(null, client));
         } catch (IllegalAccessException e) {
             throw new ProgramError("IllegalAccessException while accessing a primitive static method");
         } catch (InvocationTargetException e) {
@@ -1,6 +1,7 @@
 package agora.attributes;
 
 import agora.errors.AgoraError;
+import agora.errors.PrimitiveException;
 import agora.errors.ProgramError;
 import agora.objects.AgoraObject;
 import agora.patterns.Pattern;
@@ -13,6 +14,7 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serial;
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 
 /**
  * A PrimVarGetAttribute is an 'Agorification' of a corresponding Java Field.
@@ -22,6 +24,11 @@ public class PrimitiveVarGetAttribute extends PrimitiveAttribute {
 
     protected Field f;
 
+    /**
+     * The invoker reading the field, made the first time the field is read.
+     */
+    private transient Invoker invoker;
+
     @Serial
     private void writeObject(ObjectOutputStream stream) throws IOException {
         stream.writeObject(f.getDeclaringClass());
@@ -62,12 +69,25 @@ public class PrimitiveVarGetAttribute extends PrimitiveAttribute {
      */
     public AgoraObject doAttributeValue(Pattern msg, Client client, Context context) throws AgoraError {
         try {
-            return AgoraGlobals.glob.up.up(f.get(context.getSelf().down()));
+            return AgoraGlobals.current().up.up(invoker().invoke(context.getSelf().down(), (Object[]) null));
         } catch (IllegalAccessException e) {
             throw new ProgramError("Illegal Access Exception while accessing a primitive variable");
+        } catch (InvocationTargetException e) {
+            if (e.getTargetException() instanceof AgoraError a) throw a;
+            throw new PrimitiveException(e.getTargetException(), "PrimVarGetAttribute::doAttributeValue");
         }
     }
 
+    /**
+     * Returns the invoker, making it the first time.
+     *
+     * @throws IllegalAccessException When the member is not accessible.
+     */
+    private Invoker invoker() throws IllegalAccessException {
+        if (invoker == null) invoker = Invoker.getter(f);
+        return invoker;
+    }
+
     /**
      * Converts the attribute to a string.
      */
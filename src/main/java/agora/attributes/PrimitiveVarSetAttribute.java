@@ -1,6 +1,7 @@
 package agora.attributes;
 
 import agora.errors.AgoraError;
+import agora.errors.PrimitiveException;
 import agora.errors.ProgramError;
 import agora.objects.AgoraObject;
 import agora.patterns.Pattern;
@@ -13,6 +14,7 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serial;
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 
 /**
  * A PrimVarSetAttribute is a reading method associated to an implementation level
@@ -23,6 +25,11 @@ public class PrimitiveVarSetAttribute extends PrimitiveAttribute {
 
     protected Field f;
 
+    /**
+     * The invoker writing the field, made the first time the field is written.
+     */
+    private transient Invoker invoker;
+
     @Serial
     private void writeObject(ObjectOutputStream stream) throws IOException {
         stream.writeObject(f.getDeclaringClass());
@@ -68,13 +75,26 @@ public class PrimitiveVarSetAttribute extends PrimitiveAttribute {
             Context context
     ) throws AgoraError {
         try {
-            f.set(context.getSelf().down(), ((AgoraObject) client.getActuals()[0]).down());
-            return AgoraGlobals.glob.up.up(null);
+            invoker().invoke(context.getSelf().down(), client.nativeArgument(0));
+            return AgoraGlobals.current().up.up(null);
         } catch (IllegalAccessException e) {
             throw new ProgramError("Illegal Access Exception while accessing a primitive assignment");
+        } catch (InvocationTargetException e) {
+            if (e.getTargetException() instanceof AgoraError a) throw a;
+            throw new PrimitiveException(e.getTargetException(), "PrimVarSetAttribute::doAttributeValue");
         }
     }
 
+    /**
+     * Returns the invoker, making it the first time.
+     *
+     * @throws IllegalAccessException When the member is not accessible.
+     */
+    private Invoker invoker() throws IllegalAccessException {
+        if (invoker == null) invoker = Invoker.setter(f);
+        return invoker;
+    }
+
     /**
      * Converts the attribute to a string.
      */
@@ -45,14 +45,14 @@ public class ReifierMethodAttribute extends MethodAttribute {
      * @throws agora.errors.AgoraError When something goes wrong during evaluation.
      */
     public AgoraObject doAttributeValue(Pattern msg, Client client, Context context) throws AgoraError {
-        var localPriv = bind(client.getActuals(), context.getPrivate());
+        var localPriv = bind(client, context.getPrivate());
         var localPub = context.getPub().funcAddLayer("Formals-Actuals Frame");
         localPub.setPrivate(localPriv);
         localPriv.installPattern(contextPattern,
-                new VariableGetAttribute(new VariableContainer(AgoraGlobals.glob.up.up(client.newContext()))));
+                new VariableGetAttribute(new VariableContainer(AgoraGlobals.current().up.up(client.newContext()))));
         // We ask the client for a context. Because this is a reifier method, the client
         // is a reifier client, and thus client.newContext() is the context of invocation
-        var result = methodCode.eval(context.setMultiple(context.getSelf(),
+        var result = methodCode.evalBody(context.setMultiple(context.getSelf(),
                 localPriv,
                 localPub,
                 context.getCategory(),
@@ -1,10 +1,10 @@
 package agora.attributes;
 
+import agora.Copier;
 import agora.Copyable;
 import agora.objects.AgoraObject;
 
 import java.io.Serializable;
-import java.util.Hashtable;
 
 /**
  * When a variable is declared, a read and write slot are created. These two attributes must point to
@@ -12,7 +12,10 @@ import java.util.Hashtable;
  * Last change:  E    16 Nov 97    1:57 am
  */
 public class VariableContainer implements Serializable, Copyable {
-    protected AgoraObject value;
+    /**
+     * The value is volatile: evaluations on other threads see a write as soon as it is done.
+     */
+    protected volatile AgoraObject value;
 
     /**
      * Create a new container with the argument as initial value. This value must always be a valid
@@ -43,17 +46,13 @@ public class VariableContainer implements Serializable, Copyable {
     }
 
     /**
-     * Copying the variable container consists of looking it up in the cloning map.
-     * If it is not there, it is really copied. Otherwise, the copy is returned.
+     * Copying the variable container makes a new container with the same value. The copier
+     * makes sure the container is copied only once.
      *
-     * @param cache A table of already-copied-things such that nothing gets copied twice.
+     * @param copier The copier that copies the container.
      * @return A copy of this attribute.
      */
-    public VariableContainer copy(Hashtable<Object, Object> cache) {
-        var exist = (VariableContainer) cache.get(this);
-        if (exist != null) return exist;
-        var result = new VariableContainer(value);
-        cache.put(this, result);
-        return result;
+    public VariableContainer copy(Copier copier) {
+        return new VariableContainer(value);
     }
 }
@@ -1,13 +1,12 @@
 package agora.attributes;
 
+import agora.Copier;
 import agora.errors.AgoraError;
 import agora.objects.AgoraObject;
 import agora.patterns.Pattern;
 import agora.runtime.Client;
 import agora.runtime.Context;
 
-import java.util.Hashtable;
-
 /**
  * An Agora variable gives rise to two slots: a VariableSetAttribute and a VariableGetAttribute.
  * Both point to the same VariableContainer such that they stay consistent.
@@ -41,6 +40,22 @@ public class VariableGetAttribute implements Attribute {
         return this.theContents.read();
     }
 
+    /**
+     * Reads the variable directly, without going through the delegation of a message.
+     *
+     * @return The current value of the variable.
+     */
+    public AgoraObject read() {
+        return this.theContents.read();
+    }
+
+    /**
+     * @return The container this attribute reads, which it shares with the other attribute of the variable.
+     */
+    public VariableContainer getContents() {
+        return this.theContents;
+    }
+
     /**
      * Converts the attribute to a string.
      */
@@ -62,15 +77,12 @@ public class VariableGetAttribute implements Attribute {
     /**
      * Makes a copy of the attribute and its associated variable container.
      *
-     * @param cache A table of already-copied-things such that nothing is copied twice.
+     * @param copier The copier that copies the variable container.
      * @return A clone of this attribute.
      */
-    public VariableGetAttribute copy(Hashtable<Object, Object> cache) {
-        var exist = cache.get(this);
-        if (exist != null) return (VariableGetAttribute) exist;
+    public VariableGetAttribute copy(Copier copier) {
         var result = new VariableGetAttribute(null);
-        cache.put(this, result);
-        result.theContents = theContents.copy(cache);
+        copier.copy(theContents, copy -> result.theContents = copy);
         return result;
     }
 }
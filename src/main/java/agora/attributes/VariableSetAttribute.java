@@ -1,14 +1,12 @@
 package agora.attributes;
 
+import agora.Copier;
 import agora.errors.AgoraError;
 import agora.objects.AgoraObject;
 import agora.patterns.Pattern;
 import agora.runtime.Client;
 import agora.runtime.Context;
 
-import java.util.Hashtable;
-
-
 /**
  * An Agora variable gives rise to two slots: a VariableSetAttribute and a VariableGetAttribute.
  * Both point to the same VariableContainer such that they stay consistent.
@@ -43,23 +41,27 @@ public class VariableSetAttribute implements Attribute {
     public AgoraObject doAttributeValue(Pattern msg,
                                         Client client,
                                         Context context) throws AgoraError {
-        var parameter = (AgoraObject) (client.getActuals()[0]);
+        var parameter = (AgoraObject) client.actual(0);
         this.theContents.write(parameter);
         return parameter;
     }
 
+    /**
+     * @return The container this attribute writes, which it shares with the other attribute of the variable.
+     */
+    public VariableContainer getContents() {
+        return this.theContents;
+    }
+
     /**
      * Clones the attribute.
      *
-     * @param cache A table of already-copied-things such that nothing is copied twice.
+     * @param copier The copier that copies the variable container.
      * @return A copy of this attribute.
      */
-    public VariableSetAttribute copy(Hashtable<Object, Object> cache) {
-        var existing = cache.get(this);
-        if (existing != null) return (VariableSetAttribute) existing;
+    public VariableSetAttribute copy(Copier copier) {
         var result = new VariableSetAttribute(null);
-        cache.put(this, result);
-        result.theContents = theContents.copy(cache);
+        copier.copy(theContents, copy -> result.theContents = copy);
         return result;
     }
 
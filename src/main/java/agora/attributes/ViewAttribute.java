@@ -3,6 +3,7 @@ package agora.attributes;
 import agora.errors.AgoraError;
 import agora.grammar.Expression;
 import agora.objects.AgoraObject;
+import agora.objects.InternalGenerator;
 import agora.patterns.Pattern;
 import agora.runtime.Client;
 import agora.runtime.Context;
@@ -40,13 +41,13 @@ public class ViewAttribute extends MethodAttribute {
     public AgoraObject doAttributeValue(Pattern msg,
                                         Client client,
                                         Context context) throws AgoraError {
-        var viewPriv = bind(client.getActuals(), context.getPrivate());
+        InternalGenerator viewPriv = bind(client, context.getPrivate());
         viewPriv = viewPriv.funcAddLayer("Local part of view " + msg.toString());
         viewPriv.setPrivate(viewPriv);
         var viewSelf = context.getSelf().funcAddLayer("Public part of view " + msg);
         var viewPub = viewSelf.getMe();
         viewPub.setPrivate(viewPriv);
-        methodCode.eval(context.setMultiple(viewSelf, viewPriv, viewPub, context.getCategory(), context.getSelf()));
+        methodCode.evalBody(context.setMultiple(viewSelf, viewPriv, viewPub, context.getCategory(), context.getSelf()));
         return viewSelf.wrap();
     }
 
@@ -54,7 +54,7 @@ public class ErrorDialog extends Dialog {
         if (receiver != null) {
             var b2 = new Button("Inspect Receiver");
             b2.addActionListener(e -> {
-                var p1 = new UnaryPattern("inspect");
+                var p1 = UnaryPattern.of("inspect");
                 var c = new Client(new Object[0], null);
                 try {
                     receiver.send(p1, c);
@@ -0,0 +1,308 @@
+package agora.compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A minimal writer for the class files generated by the compiler. A generated class
+ * has a public constructor and one method; its code is straight-line (it contains no
+ * jumps and no exception handlers), so no stack map frames have to be computed.
+ * Constants are loaded with dynamically computed constants taken from the class data
+ * of the hidden class.
+ */
+class ClassAssembler {
+    static final int ACONST_NULL = 0x01;
+    static final int ALOAD_0 = 0x2a;
+    static final int ALOAD_1 = 0x2b;
+    static final int ICONST_0 = 0x03;
+    static final int BIPUSH = 0x10;
+    static final int SIPUSH = 0x11;
+    static final int LDC_W = 0x13;
+    static final int AASTORE = 0x53;
+    static final int POP = 0x57;
+    static final int DUP = 0x59;
+    static final int ARETURN = 0xb0;
+    static final int RETURN = 0xb1;
+    static final int INVOKEVIRTUAL = 0xb6;
+    static final int INVOKESPECIAL = 0xb7;
+    static final int ANEWARRAY = 0xbd;
+
+    /**
+     * Java 17 class files: recent enough for dynamic constants, and without jumps
+     * they need no stack map frames.
+     */
+    private static final int version = 61;
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+    private static final int REF_invokeStatic = 6;
+
+    private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+    private final DataOutputStream pool = new DataOutputStream(poolBytes);
+    private final Map<String, Integer> entries = new HashMap<>();
+    private int poolSize = 1;
+
+    private final ByteArrayOutputStream bootstrapBytes = new ByteArrayOutputStream();
+    private final DataOutputStream bootstraps = new DataOutputStream(bootstrapBytes);
+    private int bootstrapCount;
+
+    private final ByteArrayOutputStream codeBytes = new ByteArrayOutputStream();
+    private final DataOutputStream code = new DataOutputStream(codeBytes);
+    private int stack;
+    private int maxStack;
+
+    /**
+     * Emits an instruction without operands.
+     *
+     * @param opcode The instruction.
+     * @param effect The number of stack slots the instruction pushes (negative if it pops).
+     */
+    void op(int opcode, int effect) {
+        write(() -> code.writeByte(opcode));
+        adjust(effect);
+    }
+
+    /**
+     * Emits an instruction with a two byte operand.
+     */
+    void op(int opcode, int operand, int effect) {
+        write(() -> {
+            code.writeByte(opcode);
+            code.writeShort(operand);
+        });
+        adjust(effect);
+    }
+
+    /**
+     * Emits an invokevirtual instruction.
+     *
+     * @param owner      The internal name of the class declaring the method.
+     * @param name       The name of the method.
+     * @param descriptor The method descriptor.
+     * @param arguments  The number of arguments, not counting the receiver.
+     */
+    void invokeVirtual(String owner, String name, String descriptor, int arguments) {
+        op(INVOKEVIRTUAL, methodRef(owner, name, descriptor), -arguments);
+    }
+
+    /**
+     * Pushes an int.
+     */
+    void pushInt(int value) {
+        if (value >= -1 && value <= 5) {
+            op(ICONST_0 + value, 1);
+            return;
+        }
+        write(() -> {
+            if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                code.writeByte(BIPUSH);
+                code.writeByte(value);
+            } else {
+                code.writeByte(SIPUSH);
+                code.writeShort(value);
+            }
+        });
+        adjust(1);
+    }
+
+    /**
+     * Pushes element 'index' of the class data, which is a list.
+     *
+     * @param index The index of the constant in the class data.
+     * @param type  The internal name of the type of the constant.
+     */
+    void pushClassData(int index, String type) {
+        var bootstrap = methodHandle(
+                REF_invokeStatic,
+                methodRef(
+                        "java/lang/invoke/MethodHandles",
+                        "classDataAt",
+                        "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;I)Ljava/lang/Object;"
+                )
+        );
+        var argument = integer(index);
+        var bootstrapIndex = bootstrapCount++;
+        write(() -> {
+            bootstraps.writeShort(bootstrap);
+            bootstraps.writeShort(1);
+            bootstraps.writeShort(argument);
+        });
+        op(LDC_W, dynamic(bootstrapIndex, "_", "L" + type + ";"), 1);
+    }
+
+    /**
+     * @return The number of bytes of code emitted so far.
+     */
+    int codeSize() {
+        return codeBytes.size();
+    }
+
+    /**
+     * Produces the class file.
+     *
+     * @param name       The internal name of the class.
+     * @param implement  The internal name of the interface the class implements.
+     * @param method     The name of the method whose code was emitted.
+     * @param descriptor The descriptor of that method.
+     * @return The bytes of the class file.
+     */
+    byte[] toClassFile(String name, String implement, String method, String descriptor) {
+        var thisClass = classRef(name);
+        var superClass = classRef("java/lang/Object");
+        var interfaceClass = classRef(implement);
+        var init = utf8("<init>");
+        var initDescriptor = utf8("()V");
+        var superInit = methodRef("java/lang/Object", "<init>", "()V");
+        var methodName = utf8(method);
+        var methodDescriptor = utf8(descriptor);
+        var codeAttribute = utf8("Code");
+        var bootstrapAttribute = utf8("BootstrapMethods");
+        var bytes = new ByteArrayOutputStream();
+        var out = new DataOutputStream(bytes);
+        write(() -> {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(version);
+            out.writeShort(poolSize);
+            poolBytes.writeTo(out);
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(1);
+            out.writeShort(interfaceClass);
+            out.writeShort(0);
+            out.writeShort(2);
+
+            out.writeShort(ACC_PUBLIC);
+            out.writeShort(init);
+            out.writeShort(initDescriptor);
+            out.writeShort(1);
+            out.writeShort(codeAttribute);
+            out.writeInt(12 + 5);
+            out.writeShort(1);
+            out.writeShort(1);
+            out.writeInt(5);
+            out.writeByte(ALOAD_0);
+            out.writeByte(INVOKESPECIAL);
+            out.writeShort(superInit);
+            out.writeByte(RETURN);
+            out.writeShort(0);
+            out.writeShort(0);
+
+            out.writeShort(ACC_PUBLIC | ACC_FINAL);
+            out.writeShort(methodName);
+            out.writeShort(methodDescriptor);
+            out.writeShort(1);
+            out.writeShort(codeAttribute);
+            out.writeInt(12 + codeBytes.size());
+            out.writeShort(maxStack);
+            out.writeShort(2);
+            out.writeInt(codeBytes.size());
+            codeBytes.writeTo(out);
+            out.writeShort(0);
+            out.writeShort(0);
+
+            out.writeShort(1);
+            out.writeShort(bootstrapAttribute);
+            out.writeInt(2 + bootstrapBytes.size());
+            out.writeShort(bootstrapCount);
+            bootstrapBytes.writeTo(out);
+        });
+        return bytes.toByteArray();
+    }
+
+    int classRef(String name) {
+        return entry("Class " + name, () -> {
+            var utf8 = utf8(name);
+            pool.writeByte(7);
+            pool.writeShort(utf8);
+        });
+    }
+
+    private int utf8(String value) {
+        return entry("Utf8 " + value, () -> {
+            pool.writeByte(1);
+            pool.writeUTF(value);
+        });
+    }
+
+    private int integer(int value) {
+        return entry("Integer " + value, () -> {
+            pool.writeByte(3);
+            pool.writeInt(value);
+        });
+    }
+
+    private int nameAndType(String name, String descriptor) {
+        return entry("NameAndType " + name + " " + descriptor, () -> {
+            var nameIndex = utf8(name);
+            var descriptorIndex = utf8(descriptor);
+            pool.writeByte(12);
+            pool.writeShort(nameIndex);
+            pool.writeShort(descriptorIndex);
+        });
+    }
+
+    private int methodRef(String owner, String name, String descriptor) {
+        return entry("Methodref " + owner + " " + name + " " + descriptor, () -> {
+            var ownerIndex = classRef(owner);
+            var nameAndType = nameAndType(name, descriptor);
+            pool.writeByte(10);
+            pool.writeShort(ownerIndex);
+            pool.writeShort(nameAndType);
+        });
+    }
+
+    private int methodHandle(int kind, int reference) {
+        return entry("MethodHandle " + kind + " " + reference, () -> {
+            pool.writeByte(15);
+            pool.writeByte(kind);
+            pool.writeShort(reference);
+        });
+    }
+
+    private int dynamic(int bootstrap, String name, String descriptor) {
+        return entry("Dynamic " + bootstrap + " " + name + " " + descriptor, () -> {
+            var nameAndType = nameAndType(name, descriptor);
+            pool.writeByte(17);
+            pool.writeShort(bootstrap);
+            pool.writeShort(nameAndType);
+        });
+    }
+
+    /**
+     * Returns the index of a constant pool entry, writing the entry if it is not yet there.
+     * Entries referring to other entries write these first, which is why the index is
+     * only taken after writing.
+     */
+    private int entry(String key, Writer writer) {
+        var existing = entries.get(key);
+        if (existing != null) return existing;
+        write(writer);
+        var index = poolSize++;
+        if (index > 0xFFFF) throw new IllegalStateException("Constant pool too large");
+        entries.put(key, index);
+        return index;
+    }
+
+    private void adjust(int effect) {
+        stack += effect;
+        maxStack = Math.max(maxStack, stack);
+    }
+
+    private static void write(Writer writer) {
+        try {
+            writer.write();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private interface Writer {
+        void write() throws IOException;
+    }
+}
@@ -0,0 +1,20 @@
+package agora.compiler;
+
+import agora.errors.AgoraError;
+import agora.objects.AgoraObject;
+import agora.runtime.Context;
+
+/**
+ * The result of compiling an expression: it evaluates exactly as the expression
+ * it was compiled from.
+ */
+public interface CompiledCode {
+    /**
+     * Evaluates the compiled expression in a given context.
+     *
+     * @param context The evaluation context.
+     * @return The value of the expression.
+     * @throws AgoraError Errors occurred during evaluation.
+     */
+    AgoraObject eval(Context context) throws AgoraError;
+}
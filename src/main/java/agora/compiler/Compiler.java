@@ -0,0 +1,148 @@
+package agora.compiler;
+
+import agora.grammar.Block;
+import agora.grammar.Expression;
+import agora.grammar.UserMessage;
+import agora.grammar.UserOperatorPattern;
+import agora.grammar.UserPattern;
+import agora.grammar.UserUnaryPattern;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+
+import static agora.compiler.ClassAssembler.*;
+
+/**
+ * Compiles Agora expressions to JVM bytecode, such that HotSpot can inline and optimise them.
+ * Message sends, receiverless patterns and blocks are compiled; every other expression
+ * (literals, reifier messages, aggregates, ...) is evaluated by the ordinary evaluator from
+ * within the compiled code. So are operator messages and receiverless unary patterns: the
+ * evaluator specialises them to arithmetic in unboxed lanes (see agora.grammar.NumericSend)
+ * and to direct reads of slots and loop counters, which a send site would bypass. Each compiled expression becomes a hidden class whose class
+ * data holds the send sites and expressions the code refers to.
+ * Compiled code does not depend on the state of any object: sends go through the inline
+ * caches of their sites, so compiled code never has to be thrown away.
+ */
+public class Compiler {
+    /**
+     * Bodies compiling to more code than this are left to the evaluator, since
+     * HotSpot does not optimise huge methods anyway.
+     */
+    private static final int maximumCodeSize = 8000;
+
+    private static final String expression = "agora/grammar/Expression";
+    private static final String sendSite = "agora/compiler/SendSite";
+    private static final String context = "Lagora/runtime/Context;";
+    private static final String agoraObject = "Lagora/objects/AgoraObject;";
+    private static final String object = "Ljava/lang/Object;";
+
+    private final ClassAssembler assembler = new ClassAssembler();
+    private final List<Object> constants = new ArrayList<>();
+
+    private Compiler() {
+    }
+
+    /**
+     * Compiles an expression.
+     *
+     * @param code The expression to be compiled.
+     * @return Code that evaluates as the expression does.
+     * @throws IllegalStateException When the expression is too large to be compiled.
+     * @throws ReflectiveOperationException When the generated class cannot be loaded.
+     */
+    public static CompiledCode compile(Expression code) throws ReflectiveOperationException {
+        var compiler = new Compiler();
+        compiler.emit(code);
+        compiler.assembler.op(ARETURN, -1);
+        if (compiler.assembler.codeSize() > maximumCodeSize)
+            throw new IllegalStateException("Expression too large to be compiled");
+        var bytes = compiler.assembler.toClassFile(
+                "agora/compiler/Compiled",
+                "agora/compiler/CompiledCode",
+                "eval",
+                "(" + context + ")" + agoraObject
+        );
+        var lookup = MethodHandles.lookup().defineHiddenClassWithClassData(bytes, List.copyOf(compiler.constants), true);
+        try {
+            return (CompiledCode) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+        } catch (Throwable e) {
+            throw new ReflectiveOperationException(e);
+        }
+    }
+
+    /**
+     * Emits code leaving the value of an expression on the stack.
+     */
+    private void emit(Expression code) {
+        switch (code) {
+            case UserMessage message when !(message.pattern() instanceof UserOperatorPattern) -> {
+                var pattern = (UserPattern) message.pattern();
+                constant(new SendSite(message, pattern.makePattern(null)), sendSite);
+                var arity = pattern.arguments().size();
+                actuals(pattern.arguments());
+                emit(message.receiver());
+                assembler.op(ALOAD_1, 1);
+                assembler.invokeVirtual(sendSite, "send", "(" + actualsDescriptor(arity) + agoraObject + context + ")" + agoraObject, 2 + actualsValues(arity));
+            }
+            case UserPattern pattern when !(pattern instanceof UserUnaryPattern) -> {
+                constant(new SendSite(pattern, pattern.makePattern(null)), sendSite);
+                var arity = pattern.arguments().size();
+                actuals(pattern.arguments());
+                assembler.op(ALOAD_1, 1);
+                assembler.invokeVirtual(sendSite, "delegate", "(" + actualsDescriptor(arity) + context + ")" + agoraObject, 1 + actualsValues(arity));
+            }
+            case Block block when block.size() > 0 -> {
+                for (var i = 0; i < block.size(); i++) {
+                    if (i > 0) assembler.op(POP, -1);
+                    emit(block.at(i));
+                }
+            }
+            default -> {
+                constant(code, expression);
+                assembler.op(ALOAD_1, 1);
+                assembler.invokeVirtual(expression, "eval", "(" + context + ")" + agoraObject, 1);
+            }
+        }
+    }
+
+    /**
+     * Emits code leaving the values of the actual arguments on the stack. Up to three
+     * arguments are left as they are, more are put in an array. The arguments are evaluated
+     * from left to right.
+     */
+    private void actuals(List<Expression> arguments) {
+        if (arguments.size() <= 3) {
+            arguments.forEach(this::emit);
+            return;
+        }
+        assembler.pushInt(arguments.size());
+        assembler.op(ANEWARRAY, assembler.classRef("java/lang/Object"), 0);
+        for (var i = 0; i < arguments.size(); i++) {
+            assembler.op(DUP, 1);
+            assembler.pushInt(i);
+            emit(arguments.get(i));
+            assembler.op(AASTORE, -3);
+        }
+    }
+
+    /**
+     * @return The descriptor of the actual arguments of the send site method for a message of the arity.
+     */
+    private static String actualsDescriptor(int arity) {
+        return arity <= 3 ? object.repeat(arity) : "[" + object;
+    }
+
+    /**
+     * @return The number of values 'actuals' leaves on the stack for a message of the arity.
+     */
+    private static int actualsValues(int arity) {
+        return arity <= 3 ? arity : 1;
+    }
+
+    private void constant(Object value, String type) {
+        assembler.pushClassData(constants.size(), type);
+        constants.add(value);
+    }
+}
@@ -0,0 +1,150 @@
+package agora.compiler;
+
+import agora.errors.AgoraError;
+import agora.grammar.Expression;
+import agora.objects.AgoraObject;
+import agora.objects.InlineCache;
+import agora.patterns.Pattern;
+import agora.runtime.Client;
+import agora.runtime.Context;
+
+/**
+ * A message send in compiled code. Compiled code evaluates the actual arguments and
+ * the receiver itself and then calls the site, which sends the message through its
+ * own inline cache. Errors are annotated with the expression the site was compiled
+ * from, just like the evaluator does. A site compiled from a send in tail position of
+ * a method body leaves the send to the invocation of the method, as the evaluator does.
+ */
+public final class SendSite {
+    private static final Object[] noActuals = new Object[0];
+
+    private final Expression code;
+    private final Pattern pattern;
+    private final InlineCache cache = new InlineCache();
+    private final boolean tail;
+
+    /**
+     * @param code    The UserMessage or UserPattern expression the site was compiled from.
+     * @param pattern The runtime pattern of the message.
+     */
+    public SendSite(Expression code, Pattern pattern) {
+        this.code = code;
+        this.pattern = pattern;
+        this.tail = code.isTailSend();
+    }
+
+    /**
+     * Sends the message to a receiver.
+     *
+     * @param actuals  The evaluated actual arguments, or null if there are none.
+     * @param receiver The evaluated receiver.
+     * @param context  The context in which the message is sent.
+     * @return The result of sending the message.
+     * @throws AgoraError When something goes wrong during the send.
+     */
+    public AgoraObject send(Object[] actuals, AgoraObject receiver, Context context) throws AgoraError {
+        return send(context.newClient(actuals == null ? noActuals : actuals), receiver, context);
+    }
+
+    /**
+     * Sends a message without arguments to a receiver. Messages of up to three arguments
+     * are sent without putting the arguments in an array.
+     *
+     * @see #send(Object[], AgoraObject, Context)
+     */
+    public AgoraObject send(AgoraObject receiver, Context context) throws AgoraError {
+        return send(context.newClient(), receiver, context);
+    }
+
+    /**
+     * @see #send(AgoraObject, Context)
+     */
+    public AgoraObject send(Object first, AgoraObject receiver, Context context) throws AgoraError {
+        return send(context.newClient(first), receiver, context);
+    }
+
+    /**
+     * @see #send(AgoraObject, Context)
+     */
+    public AgoraObject send(Object first, Object second, AgoraObject receiver, Context context) throws AgoraError {
+        return send(context.newClient(first, second), receiver, context);
+    }
+
+    /**
+     * @see #send(AgoraObject, Context)
+     */
+    public AgoraObject send(Object first, Object second, Object third, AgoraObject receiver, Context context) throws AgoraError {
+        return send(context.newClient(first, second, third), receiver, context);
+    }
+
+    private AgoraObject send(Client client, AgoraObject receiver, Context context) throws AgoraError {
+        if (tail && context.allowsTailCalls()) return context.tailCall().send(receiver, pattern, client, cache, code);
+        try {
+            return receiver.send(pattern, client, cache);
+        } catch (AgoraError ex) {
+            ex.setCode(code);
+            throw ex;
+        }
+    }
+
+    /**
+     * Sends the message to the private part of the context, as a receiverless pattern does.
+     *
+     * @param actuals The evaluated actual arguments, or null if there are none.
+     * @param context The context in which the message is sent.
+     * @return The result of sending the message.
+     * @throws AgoraError When something goes wrong during the send.
+     */
+    public AgoraObject delegate(Object[] actuals, Context context) throws AgoraError {
+        return delegate(context.newClient(actuals == null ? noActuals : actuals), context);
+    }
+
+    /**
+     * Sends a message without arguments to the private part of the context. Messages of up to
+     * three arguments are sent without putting the arguments in an array.
+     *
+     * @see #delegate(Object[], Context)
+     */
+    public AgoraObject delegate(Context context) throws AgoraError {
+        return delegate(context.newClient(), context);
+    }
+
+    /**
+     * @see #delegate(Context)
+     */
+    public AgoraObject delegate(Object first, Context context) throws AgoraError {
+        return delegate(context.newClient(first), context);
+    }
+
+    /**
+     * @see #delegate(Context)
+     */
+    public AgoraObject delegate(Object first, Object second, Context context) throws AgoraError {
+        return delegate(context.newClient(first, second), context);
+    }
+
+    /**
+     * @see #delegate(Context)
+     */
+    public AgoraObject delegate(Object first, Object second, Object third, Context context) throws AgoraError {
+        return delegate(context.newClient(first, second, third), context);
+    }
+
+    private AgoraObject delegate(Client client, Context context) throws AgoraError {
+        if (tail && context.allowsTailCalls())
+            return context.tailCall().delegate(context.getPrivate(), pattern, client, cache, context, code);
+        try {
+            return cache.delegate(context.getPrivate(), pattern, client, context);
+        } catch (AgoraError ex) {
+            ex.setCode(code);
+            throw ex;
+        }
+    }
+
+    /**
+     * @return The expression the site was compiled from, unparsed.
+     */
+    public String toString() {
+        return code.unparse(0).strip();
+    }
+}
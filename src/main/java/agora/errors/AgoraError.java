@@ -1,6 +1,7 @@
 package agora.errors;
 
 import agora.grammar.Expression;
+import agora.tools.AgoraGlobals;
 
 // The majority of this dirty code must be rewritten. It was my first experiment
 // with the Java AWT when porting the C++ code of Agora to Java.
@@ -8,6 +9,11 @@ import agora.grammar.Expression;
 
 /**
  * This abstract class is the root of the Agora error hierarchy.
+ * Agora errors are thrown for RAISE and for messages that are not understood, which programs
+ * catch as part of their normal control flow, so they do not record the Java stack where they
+ * were thrown: all that is reported of them is their message and the Agora code they occurred
+ * in, which are only worked out when they are shown. The Java stack is recorded as well when
+ * the errorTraces option is on, e.g. when debugging the evaluator.
  *
  * @author Wolfgang De Meuter (Programming Technology Lab).
  * Last change:  E    16 Nov 97    1:46 am
@@ -36,6 +42,17 @@ public abstract class AgoraError extends RuntimeException {
         super(message, cause);
     }
 
+    /**
+     * Records the Java stack, but only if the errorTraces option is on.
+     *
+     * @return This error.
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        if (AgoraGlobals.current() == null || !AgoraGlobals.current().options.errorTraces) return this;
+        return super.fillInStackTrace();
+    }
+
     /**
      * If an error is thrown, and the evaluator can figure out in which piece
      * of Agora code it occured, it can tell this code to the error and rethrow
@@ -19,15 +19,15 @@ public class AgoraException extends AgoraError {
     /**
      * The expression to be evaluated when the exception is caught.
      */
-    protected Expression toCatch;
+    protected final Expression toCatch;
     /**
      * The pattern that will be used to invoke the catch-code.
      */
-    protected Pattern pattern;
+    protected final Pattern pattern;
     /**
      * The saved client object.
      */
-    protected Client client;
+    protected final Client client;
 
     /**
      * To create a new Agora exception with the given expression.
@@ -36,9 +36,13 @@ public class AgoraException extends AgoraError {
      * @param c The catch-code to be executed when the exception happens.
      */
     public AgoraException(Expression c) {
+        this(c, null, null);
+    }
+
+    private AgoraException(Expression c, Pattern p, Client client) {
         super("Uncaught Agora Exception.\n\n");
-        this.pattern = null;
-        this.client = null;
+        this.pattern = p;
+        this.client = client;
         this.toCatch = c;
     }
 
@@ -70,20 +74,14 @@ public class AgoraException extends AgoraError {
     }
 
     /**
-     * To set the pattern.
+     * Creates the exception that RAISE throws. The exception of the context is not filled
+     * in itself: it may be shared by evaluations on several threads.
      *
      * @param p The pattern to be filled in by raise.
-     */
-    public void setPattern(Pattern p) {
-        pattern = p;
-    }
-
-    /**
-     * To set the client.
-     *
      * @param c The client with the actual arguments as determined by RAISE.
+     * @return A new exception with the same catch-code, the pattern and the client.
      */
-    public void setClient(Client c) {
-        client = c;
+    public AgoraException raised(Pattern p, Client c) {
+        return new AgoraException(toCatch, p, c);
     }
 }
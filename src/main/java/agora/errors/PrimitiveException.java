@@ -9,6 +9,10 @@ package agora.errors;
  * Last change:  E    16 Nov 97    1:36 am
  */
 public class PrimitiveException extends AgoraError {
+    /**
+     * The name of the Java method that threw the primitive exception.
+     */
+    private final String javaMethod;
 
     /**
      * Create a new primitive exception with the given Java exception and the given
@@ -18,6 +22,15 @@ public class PrimitiveException extends AgoraError {
      * @param javaMethod The name of the Java method that threw the primitive exception.
      */
     public PrimitiveException(Throwable exception, String javaMethod) {
-        super("Native Java Exception: " + exception.toString() + "\nIn the method :" + javaMethod, exception);
+        super(null, exception);
+        this.javaMethod = javaMethod;
+    }
+
+    /**
+     * The message is only made when it is asked for.
+     */
+    @Override
+    public String getMessage() {
+        return "Native Java Exception: " + getCause().toString() + "\nIn the method :" + javaMethod;
     }
 }
@@ -50,7 +50,7 @@ public class Aggregate extends Expression {
      * @throws agora.errors.AgoraError When something goes wrong during evaluation.
      */
     public AgoraObject eval(Context context) throws AgoraError {
-        var exnihiloSelf = AgoraGlobals.glob.rootIdentity.funcAddLayer("public of ex nihilo");
+        var exnihiloSelf = AgoraGlobals.current().rootIdentity.funcAddLayer("public of ex nihilo");
         var exnihiloPriv = context.getPrivate().funcAddLayer("private of ex nihilo");
         exnihiloSelf.getMe().setPrivate(exnihiloPriv);
         exnihiloPriv.setPrivate(exnihiloPriv);
@@ -59,7 +59,7 @@ public class Aggregate extends Expression {
                 exnihiloPriv,
                 exnihiloSelf.getMe(),
                 context.getCategory(),
-                AgoraGlobals.glob.rootIdentity
+                AgoraGlobals.current().rootIdentity
         );
         for (var expression : expressions) expression.eval(exnihiloCont);
         return exnihiloSelf.wrap();
@@ -75,7 +75,7 @@ public class Aggregate extends Expression {
      * @return The operator pattern corresponding to this [] or {} expression.
      */
     public Pattern makePattern(Context context) {
-        return new OperatorReifierPattern("[]");
+        return OperatorReifierPattern.of("[]");
     }
 
     /**
@@ -36,6 +36,15 @@ public class Block extends Expression {
         return expressions.get(index);
     }
 
+    /**
+     * To access the number of expressions of the aggregate.
+     *
+     * @return The number of expressions in the aggregate.
+     */
+    public int size() {
+        return expressions.size();
+    }
+
     /**
      * Evaluates the aggregate expression in the given context.
      *
@@ -44,11 +53,16 @@ public class Block extends Expression {
      * @throws agora.errors.AgoraError When something goes wrong during evaluation.
      */
     public AgoraObject eval(Context context) throws AgoraError {
-        var result = AgoraGlobals.glob.up.up(null);
+        if (expressions.size() == 1) return expressions.getFirst().eval(context);
+        var result = AgoraGlobals.current().up.up(null);
         for (var expression : expressions) result = expression.eval(context);
         return result;
     }
 
+    public void markTailSends() {
+        if (!expressions.isEmpty()) expressions.getLast().markTailSends();
+    }
+
     /**
      * Makes a pattern object to send the [] or {} messages. Now,
      * aggregates are evaluated immediately, for efficiency. In previous releases,
@@ -59,7 +73,7 @@ public class Block extends Expression {
      * @return The operator pattern corresponding to this [] or {} expression.
      */
     public Pattern makePattern(Context context) {
-        return new OperatorReifierPattern("{}");
+        return OperatorReifierPattern.of("{}");
     }
 
     /**
@@ -0,0 +1,168 @@
+package agora.grammar;
+
+import agora.attributes.PrimitiveMethodAttribute;
+import agora.errors.AgoraError;
+import agora.errors.PrimitiveException;
+import agora.errors.ProgramError;
+import agora.objects.AgoraObject;
+import agora.objects.Dependent;
+import agora.objects.Generator;
+import agora.patterns.Pattern;
+import agora.reflection.Up;
+import agora.runtime.Context;
+import agora.tools.AgoraGlobals;
+
+/**
+ * A reifier message that is built into every expression, lowered by the parser into a node that
+ * evaluates it directly (see ReifierMessage.of). Sending a reifier ups the receiver expression,
+ * looks the reifier up in the generator of its class and invokes the Java method it finds
+ * reflectively, which a WHILETRUE: loop would otherwise pay for on every iteration.
+ * The lowered node only evaluates the reifier itself as long as sending it would invoke the
+ * method of Expression it stands for. That is checked once by looking the reifier up, and is
+ * remembered until one of the generators on the way changes or until another Up is used.
+ * Whenever the check fails, the reifier is sent as usual, so that it can still be overridden.
+ * The virtual machine translates lowered nodes to instructions of its own, which make the
+ * same check (see agora.vm.Code).
+ */
+public abstract class BuiltinReifierMessage extends ReifierMessage {
+    /**
+     * The name of the method of Expression the node stands for.
+     */
+    private final String builtin;
+
+    private transient Guard guard;
+
+    BuiltinReifierMessage(Expression receiver, ReifPattern pattern, String builtin) {
+        super(receiver, pattern);
+        this.builtin = builtin;
+    }
+
+    /**
+     * @return The name of the method of Expression the node stands for.
+     */
+    String builtin() {
+        return builtin;
+    }
+
+    /**
+     * Evaluates the reifier message, directly if sending it would invoke the built-in method.
+     * A reifier that is sent does not get the context of a method body itself, since that would
+     * let the sends it evaluates in tail position leave themselves to the method. The built-in
+     * method is the exception: it evaluates its branches just like the node does, so tail sends
+     * are left to the method even when expressions are not specialised (see Options.specialise).
+     *
+     * @param context The environment in which the reifier message must be evaluated.
+     * @return The value of the reifier message.
+     * @throws agora.errors.AgoraError When something goes wrong during evaluation.
+     */
+    public AgoraObject eval(Context context) throws AgoraError {
+        if (!lowered())
+            return super.eval(context.allowsTailCalls() && !builtinHolds() ? context.newContext(context) : context);
+        try {
+            return evalBuiltin(context);
+        } catch (AgoraError ex) {
+            ex.setCode(this);
+            throw ex;
+        } catch (RuntimeException ex) {
+            var error = new PrimitiveException(ex, "PrimMethAttribute::doAttributeValue");
+            error.setCode(this);
+            throw error;
+        }
+    }
+
+    /**
+     * Evaluates the reifier the way the built-in method does.
+     *
+     * @param context The context where the reifier was sent.
+     * @return The value of the reifier message.
+     * @throws agora.errors.AgoraError When something goes wrong during evaluation.
+     */
+    abstract AgoraObject evalBuiltin(Context context) throws AgoraError;
+
+    /**
+     * Evaluates an expression that must yield a boolean, as Expression.evalAsBoolean does,
+     * but in the boolean lane: a comparison of numbers gives its outcome without upping it.
+     *
+     * @throws agora.errors.AgoraError When the expression does not evaluate to a boolean.
+     */
+    static boolean condition(Expression expression, Context context) throws AgoraError {
+        try {
+            return expression.evalBoolean(context, null);
+        } catch (UnexpectedValue ex) {
+            if (ex.value().down() instanceof Boolean b) return b;
+            throw new ProgramError("Boolean Expected !");
+        }
+    }
+
+    /**
+     * Evaluates the receiver of the node as a condition, as the node itself does. This is
+     * only meaningful for the nodes whose receiver is a condition (If and While).
+     *
+     * @param context The environment in which the condition must be evaluated.
+     * @return The value of the condition.
+     * @throws agora.errors.AgoraError When the condition does not evaluate to a boolean.
+     */
+    public boolean test(Context context) throws AgoraError {
+        try {
+            return condition(receiver, context);
+        } catch (AgoraError ex) {
+            ex.setCode(this);
+            throw ex;
+        }
+    }
+
+    /**
+     * @return True if the node evaluates the reifier itself rather than sending it, which is
+     * the case if sending it would invoke the built-in method.
+     * @throws agora.errors.AgoraError When the reifier cannot be looked up.
+     */
+    public boolean lowered() throws AgoraError {
+        return AgoraGlobals.current().options.specialise && builtinHolds();
+    }
+
+    /**
+     * @return True if sending the reifier invokes the built-in method, whether the node
+     * evaluates it directly or not.
+     */
+    private boolean builtinHolds() throws AgoraError {
+        if (guard == null || !guard.valid || guard.upper != AgoraGlobals.current().up)
+            guard = new Guard(target(), pattern.makePattern(null));
+        return guard.holds;
+    }
+
+    /**
+     * Looks a reifier up in the generator of an upped expression.
+     *
+     * @param target    The upped expression.
+     * @param msg       The reifier.
+     * @param builtin   The name of a method of Expression.
+     * @param dependent The dependent that registers with the generators on the way.
+     * @return True if sending the reifier would invoke the method of Expression.
+     */
+    static boolean invokes(AgoraObject target, Pattern msg, String builtin, Dependent dependent) {
+        var holder = target.objectID().getMe().lookup(msg, dependent);
+        return holder != null &&
+                holder.getHashTable().get(msg) instanceof PrimitiveMethodAttribute attribute &&
+                attribute.getMethod().getDeclaringClass() == Expression.class &&
+                attribute.getMethod().getName().equals(builtin);
+    }
+
+    /**
+     * The outcome of looking the reifier up in the generator of the receiver expression.
+     * It is a separate object since the message itself is equal to any message that reads
+     * the same, and generators keep their dependents in a set.
+     */
+    private final class Guard implements Dependent {
+        private final Up upper = AgoraGlobals.current().up;
+        private final boolean holds;
+        private boolean valid = true;
+
+        Guard(AgoraObject target, Pattern msg) {
+            holds = invokes(target, msg, builtin, this);
+        }
+
+        public void invalidate(Generator changed) {
+            valid = false;
+        }
+    }
+}
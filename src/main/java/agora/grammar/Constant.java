@@ -0,0 +1,27 @@
+package agora.grammar;
+
+import agora.errors.AgoraError;
+import agora.objects.MethodsGenerator;
+import agora.runtime.Context;
+
+/**
+ * A value that was computed by folding an expression (see Folding). It evaluates like a
+ * literal, and gives numbers and booleans in their lanes without upping them.
+ */
+final class Constant extends Literal<Object> {
+    Constant(Object value) {
+        super(value);
+    }
+
+    int evalInteger(Context context, MethodsGenerator frame) throws AgoraError {
+        return value() instanceof Integer i ? i : super.evalInteger(context, frame);
+    }
+
+    float evalFloat(Context context, MethodsGenerator frame) throws AgoraError {
+        return value() instanceof Float f ? f : super.evalFloat(context, frame);
+    }
+
+    boolean evalBoolean(Context context, MethodsGenerator frame) throws AgoraError {
+        return value() instanceof Boolean b ? b : super.evalBoolean(context, frame);
+    }
+}
@@ -0,0 +1,69 @@
+package agora.grammar;
+
+import agora.errors.AgoraError;
+import agora.errors.ReifierMisused;
+import agora.objects.CountingFrame;
+import agora.objects.FormalsAndPattern;
+import agora.patterns.UnaryPattern;
+import agora.runtime.Category;
+import agora.runtime.Context;
+
+/**
+ * A counting loop (FOR:TO:DO: and friends) while it runs: the frame its loop variable is kept
+ * in, the context its body is evaluated in, and the value the loop variable takes next. The
+ * counting reifiers run their loops through this (see Expression.fortodo), and so does the
+ * virtual machine, which evaluates the body itself (see agora.vm.Code).
+ */
+public final class CountingLoop {
+    private final CountingFrame frame;
+    private final Context context;
+    private final int term;
+    private final int step;
+    private final boolean down;
+    private int next;
+
+    /**
+     * Starts a counting loop. The private part is extended with a CountingFrame for as long
+     * as the loop runs, in which the loop variable is kept as an int.
+     *
+     * @param variable The expression naming the loop variable, which must be a unary pattern.
+     * @param context  The context the reifier occurs in.
+     * @param reifier  The name of the reifier, for error messages.
+     * @param init     The first value of the loop variable.
+     * @param term     The bound of the loop variable.
+     * @param step     The amount added to the loop variable after every iteration.
+     * @param down     True if the loop ends when the loop variable drops below the bound,
+     *                 false if it ends when the loop variable exceeds it.
+     * @throws agora.errors.AgoraError When the expression is not a unary pattern.
+     */
+    CountingLoop(Expression variable, Context context, String reifier, int init, int term, int step, boolean down) throws AgoraError {
+        var leftside = (FormalsAndPattern) variable.eval(context.setCat(Category.flags)).down();
+        if (!(leftside.pattern() instanceof UnaryPattern pattern))
+            throw new ReifierMisused(reifier + " can only be sent to unary patterns");
+        this.frame = new CountingFrame(reifier + " scope", pattern, context.getPrivate());
+        this.context = context.setPrivate(frame);
+        this.term = term;
+        this.step = step;
+        this.down = down;
+        this.next = init;
+    }
+
+    /**
+     * @return The context in which the body of the loop is evaluated.
+     */
+    public Context context() {
+        return context;
+    }
+
+    /**
+     * Assigns the loop variable its next value, unless the loop is done.
+     *
+     * @return True if the body is to be evaluated again, false if the loop is done.
+     */
+    public boolean next() {
+        if (down ? next < term : next > term) return false;
+        frame.count(next);
+        next += step;
+        return true;
+    }
+}
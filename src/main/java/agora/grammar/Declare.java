@@ -0,0 +1,29 @@
+package agora.grammar;
+
+import agora.errors.AgoraError;
+import agora.objects.AgoraObject;
+import agora.runtime.Context;
+
+/**
+ * The lowered form of the declarations VARIABLE, VAR, VARIABLE: and METHOD: (see
+ * Expression.variable, Expression.variableColon and Expression.methodColon). The
+ * receiver is the pattern that is declared.
+ */
+final class Declare extends BuiltinReifierMessage {
+    /**
+     * The initial value of the variable or the body of the method, null for VARIABLE.
+     */
+    private final Expression value;
+    private final boolean method;
+
+    Declare(Expression receiver, ReifPattern pattern, String builtin, Expression value) {
+        super(receiver, pattern, builtin);
+        this.value = value;
+        this.method = builtin.equals("methodColon");
+    }
+
+    AgoraObject evalBuiltin(Context context) throws AgoraError {
+        if (method) return receiver.methodColon(context, value);
+        return value == null ? receiver.variable(context) : receiver.variableColon(context, value);
+    }
+}
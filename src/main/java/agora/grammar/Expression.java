@@ -1,12 +1,16 @@
 package agora.grammar;
 
 import agora.attributes.*;
+import agora.compiler.CompiledCode;
+import agora.compiler.Compiler;
 import agora.errors.AgoraError;
 import agora.errors.AgoraException;
 import agora.errors.ProgramError;
 import agora.errors.ReifierMisused;
 import agora.objects.AgoraObject;
 import agora.objects.FormalsAndPattern;
+import agora.objects.MethodsGenerator;
+import agora.objects.SlotFrame;
 import agora.patterns.KeywordPattern;
 import agora.patterns.Reifier;
 import agora.patterns.UnaryPattern;
@@ -16,6 +20,8 @@ import agora.reflection.Unary;
 import agora.runtime.Category;
 import agora.runtime.Context;
 import agora.tools.AgoraGlobals;
+import agora.tools.Options;
+import agora.vm.Code;
 
 import java.io.Serializable;
 import java.util.List;
@@ -29,6 +35,26 @@ import java.util.Vector;
  * Last change:  E    16 Nov 97    1:58 pm
  */
 abstract public class Expression implements Serializable {
+    /**
+     * The reserved exception pattern with which TRY:CATCH: catches Agora errors.
+     */
+    static final KeywordPattern agoraError = KeywordPattern.of(List.of("agoraError:"));
+
+    /**
+     * The number of times the expression was evaluated as a body by 'evalBody'.
+     */
+    private transient int bodyEvaluations;
+
+    /**
+     * The compiled version of the expression, once it was evaluated often enough as a body.
+     */
+    private transient CompiledCode compiled;
+
+    /**
+     * The bytecode of the expression for the virtual machine, once it was run by the machine.
+     */
+    private transient Code bytecode;
+
     /**
      * To unparse the expression towards a string. The integer parameter denotes the number of spaces
      * that must precede the expression.
@@ -46,6 +72,52 @@ abstract public class Expression implements Serializable {
      */
     public abstract AgoraObject eval(Context context) throws AgoraError;
 
+    /**
+     * To evaluate the expression in the integer lane: its value is expected to be an integer,
+     * which is returned unboxed. Expressions that can compute their value without upping it
+     * override this. This is only used by specialised arithmetic (see NumericSend), so a
+     * frame that is given is always the one the current Up gives to integers.
+     *
+     * @param context The evaluation context.
+     * @param frame   The method frame the value will receive a message in, or null if the value
+     *                is an argument.
+     * @return The value of the expression.
+     * @throws agora.errors.AgoraError Errors occurred during evaluation.
+     * @throws UnexpectedValue         When the value is not an integer (with the given frame).
+     */
+    int evalInteger(Context context, MethodsGenerator frame) throws AgoraError {
+        return integer(eval(context), frame);
+    }
+
+    /**
+     * To evaluate the expression in the float lane (see evalInteger).
+     */
+    float evalFloat(Context context, MethodsGenerator frame) throws AgoraError {
+        return real(eval(context), frame);
+    }
+
+    /**
+     * To evaluate the expression in the boolean lane (see evalInteger).
+     */
+    boolean evalBoolean(Context context, MethodsGenerator frame) throws AgoraError {
+        return test(eval(context), frame);
+    }
+
+    static int integer(AgoraObject value, MethodsGenerator frame) {
+        if (value.down() instanceof Integer i && (frame == null || value.objectID().getMe() == frame)) return i;
+        throw new UnexpectedValue(value);
+    }
+
+    static float real(AgoraObject value, MethodsGenerator frame) {
+        if (value.down() instanceof Float f && (frame == null || value.objectID().getMe() == frame)) return f;
+        throw new UnexpectedValue(value);
+    }
+
+    static boolean test(AgoraObject value, MethodsGenerator frame) {
+        if (value.down() instanceof Boolean b && (frame == null || value.objectID().getMe() == frame)) return b;
+        throw new UnexpectedValue(value);
+    }
+
     /**
      * To evaluate the expression in the root context.
      *
@@ -53,18 +125,78 @@ abstract public class Expression implements Serializable {
      * @throws agora.errors.AgoraError Errors occurring during evaluation.
      */
     public AgoraObject defaultEval() throws AgoraError {
-        return eval(
+        return run(
                 new Context(
-                        AgoraGlobals.glob.rootIdentity,
-                        AgoraGlobals.glob.rootPrivate,
-                        AgoraGlobals.glob.rootIdentity.getMe(),
+                        AgoraGlobals.current().rootIdentity,
+                        AgoraGlobals.current().rootPrivate,
+                        AgoraGlobals.current().rootIdentity.getMe(),
                         Category.emptyCategory,
-                        AgoraGlobals.glob.rootParent,
+                        AgoraGlobals.current().rootParent,
                         new AgoraException(this)
                 )
         );
     }
 
+    /**
+     * To evaluate the expression as the body of a method or a loop. Such bodies are
+     * evaluated over and over again: once this happened more often than the compile
+     * threshold in the options, the expression is compiled and from then on the
+     * compiled code is run instead. Expressions that cannot be compiled keep on
+     * being evaluated. When the virtual machine is the engine, it runs the body instead.
+     *
+     * @param context The evaluation context.
+     * @return The value associated to the expression.
+     * @throws agora.errors.AgoraError Errors occurred during evaluation.
+     */
+    public AgoraObject evalBody(Context context) throws AgoraError {
+        if (Category.contains(context.getCategory(), Category.flags)) return eval(context);
+        if (AgoraGlobals.current().options.engine == Options.Engine.VM) {
+            if (bytecode == null) bytecode = Code.of(this);
+            return bytecode.eval(context);
+        }
+        if (compiled != null) return compiled.eval(context);
+        var threshold = AgoraGlobals.current().options.compileThreshold;
+        if (threshold >= 0 && bodyEvaluations++ >= threshold) {
+            try {
+                compiled = Compiler.compile(this);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                compiled = this::eval;
+            }
+            return compiled.eval(context);
+        }
+        return eval(context);
+    }
+
+    /**
+     * Marks the sends in tail position of the expression, which is the body of a method. The value
+     * of such a send is the value of the method, so the send may be left to the invocation of the
+     * method (see agora.runtime.TailCall). The tail position passes on to the last expression of a
+     * block and to the branches of a lowered IFTRUE:IFFALSE:, and ends anywhere else.
+     */
+    public void markTailSends() {
+    }
+
+    /**
+     * @return True if the expression is a send in tail position of a method body.
+     */
+    public boolean isTailSend() {
+        return false;
+    }
+
+    /**
+     * To evaluate the expression with the engine chosen in the options. The virtual
+     * machine translates the expression to bytecode the first time it runs it.
+     *
+     * @param context The evaluation context.
+     * @return The value associated to the expression.
+     * @throws agora.errors.AgoraError Errors occurred during evaluation.
+     */
+    private AgoraObject run(Context context) throws AgoraError {
+        if (AgoraGlobals.current().options.engine != Options.Engine.VM) return eval(context);
+        if (bytecode == null) bytecode = Code.of(this);
+        return bytecode.eval(context);
+    }
+
     /**
      * Code to evaluate the VARIABLE reifier message in a given context. A new pair of
      * read and write methods will be installed in the self of the context.
@@ -85,7 +217,9 @@ abstract public class Expression implements Serializable {
             throw new ReifierMisused("Illegal Adjectives Used With VARIABLE");
         if (!Category.contains(cat, Category.local) && !Category.contains(cat, Category.publik))
             cat |= Category.publik;
-        var container = new VariableContainer(AgoraGlobals.glob.up.up(0));
+        if (cat == Category.local && context.getPrivate() instanceof SlotFrame frame && frame.declare(getPat, AgoraGlobals.current().up.up(0)))
+            return AgoraGlobals.current().up.up(null);
+        var container = new VariableContainer(AgoraGlobals.current().up.up(0));
         var setter = new VariableSetAttribute(container);
         var getter = new VariableGetAttribute(container);
         if (Category.contains(cat, Category.publik)) {
@@ -96,7 +230,7 @@ abstract public class Expression implements Serializable {
             context.getPrivate().installPattern(getPat.makeWritePattern(), setter);
             context.getPrivate().installPattern(getPat, getter);
         }
-        return AgoraGlobals.glob.up.up(null);
+        return AgoraGlobals.current().up.up(null);
     }
 
     /**
@@ -121,6 +255,8 @@ abstract public class Expression implements Serializable {
         if (!Category.contains(cat, Category.local) && !Category.contains(cat, Category.publik))
             cat |= Category.publik;
         var result = value.eval(context);
+        if (cat == Category.local && context.getPrivate() instanceof SlotFrame frame && frame.declare(getPat, result))
+            return result;
         var container = new VariableContainer(result);
         var setter = new VariableSetAttribute(container);
         var getter = new VariableGetAttribute(container);
@@ -185,7 +321,7 @@ abstract public class Expression implements Serializable {
         var size = evalAsInteger(context);
         var theArray = new Vector<String>(size);
         for (var i = 0; i < size; i++) theArray.add("empty");
-        return AgoraGlobals.glob.up.up(theArray);
+        return AgoraGlobals.current().up.up(theArray);
     }
 
     /**
@@ -202,7 +338,7 @@ abstract public class Expression implements Serializable {
         var size = this.evalAsInteger(context);
         var theArray = new Vector<>(size);
         for (var i = 0; i < size; i++) theArray.add(value.eval(context).down());
-        return AgoraGlobals.glob.up.up(theArray);
+        return AgoraGlobals.current().up.up(theArray);
     }
 
     /**
@@ -235,7 +371,7 @@ abstract public class Expression implements Serializable {
         if (Category.contains(theCat, Category.local)) {
             context.getPrivate().installPattern(thePattern, methAtt);
         }
-        return AgoraGlobals.glob.up.up(null);
+        return AgoraGlobals.current().up.up(null);
     }
 
     /**
@@ -267,7 +403,7 @@ abstract public class Expression implements Serializable {
         if (Category.contains(theCat, Category.local)) {
             context.getPrivate().installPattern(thePattern, methAtt);
         }
-        return AgoraGlobals.glob.up.up(null);
+        return AgoraGlobals.current().up.up(null);
     }
 
     /**
@@ -299,7 +435,7 @@ abstract public class Expression implements Serializable {
         if (Category.contains(theCat, Category.local)) {
             context.getPrivate().installPattern(thePattern, methAtt);
         }
-        return AgoraGlobals.glob.up.up(null);
+        return AgoraGlobals.current().up.up(null);
     }
 
     /**
@@ -332,7 +468,7 @@ abstract public class Expression implements Serializable {
         if (Category.contains(theCat, Category.local)) {
             context.getPrivate().installPattern(thePattern, methAtt);
         }
-        return AgoraGlobals.glob.up.up(null);
+        return AgoraGlobals.current().up.up(null);
     }
 
     /**
@@ -347,7 +483,7 @@ abstract public class Expression implements Serializable {
     public AgoraObject publik(Context context) throws AgoraError {
         var left = (FormalsAndPattern) eval(context).down();
         left = left.withCat(left.cat() | Category.publik);
-        return AgoraGlobals.glob.up.up(left);
+        return AgoraGlobals.current().up.up(left);
     }
 
     /**
@@ -362,7 +498,7 @@ abstract public class Expression implements Serializable {
     public AgoraObject local(Context context) throws AgoraError {
         var left = eval(context).<FormalsAndPattern>down();
         left = left.withCat(left.cat() | Category.local);
-        return AgoraGlobals.glob.up.up(left);
+        return AgoraGlobals.current().up.up(left);
     }
 
     /**
@@ -386,27 +522,7 @@ abstract public class Expression implements Serializable {
     ) throws AgoraError {
         var init = from.evalAsInteger(context);
         var term = to.evalAsInteger(context);
-        // Determine unary receiverless pattern
-        var leftside = (FormalsAndPattern) eval(context.setCat(Category.flags)).down();
-        var thePattern = leftside.pattern();
-        // Validate Pattern
-        if (!(thePattern instanceof UnaryPattern))
-            throw new ReifierMisused("FOR:TO:DO: can only be sent to unary patterns");
-        // Extend Private Temporarily and install variable and initial value in the new private object part
-        var newPriv = context.getPrivate().funcAddLayer("FOR:TO:DO: scope");
-        newPriv.setPrivate(newPriv);
-        var theVarCont = new VariableContainer(AgoraGlobals.glob.up.up(init));
-        var varGetAtt = new VariableGetAttribute(theVarCont);
-        var getPat = new UnaryPattern(((UnaryPattern) thePattern).pattern());
-        newPriv.installPattern(getPat, varGetAtt);
-        // Do the Looping
-        var locCont = context.setPrivate(newPriv);
-        var result = AgoraGlobals.glob.up.up(null);
-        for (var current = init; current <= term; current++) {
-            theVarCont.write(AgoraGlobals.glob.up.up(current));
-            result = doblock.eval(locCont);
-        }
-        return result;
+        return loop(context, "FOR:TO:DO:", init, term, 1, false, doblock);
     }
 
     /**
@@ -423,27 +539,7 @@ abstract public class Expression implements Serializable {
     ) throws AgoraError {
         var init = from.evalAsInteger(context);
         var term = downto.evalAsInteger(context);
-        // Determine unary receiverless pattern
-        var leftside = (FormalsAndPattern) this.eval(context.setCat(Category.flags)).down();
-        var thePattern = leftside.pattern();
-        // Validate Pattern
-        if (!(thePattern instanceof UnaryPattern))
-            throw new ReifierMisused("FOR:DOWNTO:DO: can only be sent to unary patterns");
-        // Extend Private Temporarily and install variable and initial value in the new private object part
-        var newPriv = context.getPrivate().funcAddLayer("FOR:DOWNTO:DO: scope");
-        newPriv.setPrivate(newPriv);
-        var theVarCont = new VariableContainer(AgoraGlobals.glob.up.up(init));
-        var varGetAtt = new VariableGetAttribute(theVarCont);
-        var getPat = new UnaryPattern(((UnaryPattern) thePattern).pattern());
-        newPriv.installPattern(getPat, varGetAtt);
-        // Do the Looping
-        var locCont = context.setPrivate(newPriv);
-        var result = AgoraGlobals.glob.up.up(null);
-        for (var current = init; current >= term; current--) {
-            theVarCont.write(AgoraGlobals.glob.up.up(current));
-            result = doblock.eval(locCont);
-        }
-        return result;
+        return loop(context, "FOR:DOWNTO:DO:", init, term, -1, true, doblock);
     }
 
     /**
@@ -468,27 +564,7 @@ abstract public class Expression implements Serializable {
         var init = from.evalAsInteger(context);
         var term = to.evalAsInteger(context);
         var step = by.evalAsInteger(context);
-        // Determine unary receiverless pattern
-        var leftside = (FormalsAndPattern) this.eval(context.setCat(Category.flags)).down();
-        var thePattern = leftside.pattern();
-        // Validate Pattern
-        if (!(thePattern instanceof UnaryPattern))
-            throw new ReifierMisused("FOR:TO:BY:DO: can only be sent to unary patterns");
-        // Extend Private Temporarily and Install variable and initial value in the new private object part
-        var newPriv = context.getPrivate().funcAddLayer("FOR:TO:BY:DO: scope");
-        newPriv.setPrivate(newPriv);
-        var theVarCont = new VariableContainer(AgoraGlobals.glob.up.up(init));
-        var varGetAtt = new VariableGetAttribute(theVarCont);
-        var getPat = new UnaryPattern(((UnaryPattern) thePattern).pattern());
-        newPriv.installPattern(getPat, varGetAtt);
-        // Do the Looping
-        var locCont = context.setPrivate(newPriv);
-        var result = AgoraGlobals.glob.up.up(null);
-        for (var current = init; current <= term; current = current + step) {
-            theVarCont.write(AgoraGlobals.glob.up.up(current));
-            result = doblock.eval(locCont);
-        }
-        return result;
+        return loop(context, "FOR:TO:BY:DO:", init, term, step, false, doblock);
     }
 
     /**
@@ -507,26 +583,28 @@ abstract public class Expression implements Serializable {
         var init = from.evalAsInteger(context);
         var term = downto.evalAsInteger(context);
         var step = by.evalAsInteger(context);
-        // Determine unary receiverless pattern
-        var leftside = (FormalsAndPattern) this.eval(context.setCat(Category.flags)).down();
-        var thePattern = leftside.pattern();
-        // Validate Pattern
-        if (!(thePattern instanceof UnaryPattern))
-            throw new ReifierMisused("FOR:DOWNTO:BY:DO: can only be sent to unary patterns");
-        // Install variable and initial value in the new private object part
-        var newPriv = context.getPrivate().funcAddLayer("FOR:DOWNTO:BY:DO: scope");
-        newPriv.setPrivate(newPriv);
-        var theVarCont = new VariableContainer(AgoraGlobals.glob.up.up(init));
-        var varGetAtt = new VariableGetAttribute(theVarCont);
-        var getPat = new UnaryPattern(((UnaryPattern) thePattern).pattern());
-        newPriv.installPattern(getPat, varGetAtt);
-        // Do the Looping
-        var locCont = context.setPrivate(newPriv);
-        var result = AgoraGlobals.glob.up.up(null);
-        for (var current = init; current >= term; current = current - step) {
-            theVarCont.write(AgoraGlobals.glob.up.up(current));
-            result = doblock.eval(locCont);
-        }
+        return loop(context, "FOR:DOWNTO:BY:DO:", init, term, -step, true, doblock);
+    }
+
+    /**
+     * Does the looping of the counting reifiers (see fortodo). The receiving expression must be
+     * a unary pattern, which names the loop variable (see CountingLoop).
+     *
+     * @param context The context the reifier occurs in.
+     * @param reifier The name of the reifier, for error messages.
+     * @param init    The first value of the loop variable.
+     * @param term    The bound of the loop variable.
+     * @param step    The amount added to the loop variable after every iteration.
+     * @param down    True if the loop ends when the loop variable drops below the bound,
+     *                false if it ends when the loop variable exceeds it.
+     * @param doblock The expression that will be iterated.
+     * @return The value of the last iteration, or null if there was none.
+     * @throws agora.errors.AgoraError When something goes wrong during evaluation.
+     */
+    private AgoraObject loop(Context context, String reifier, int init, int term, int step, boolean down, Expression doblock) throws AgoraError {
+        var loop = new CountingLoop(this, context, reifier, init, term, step, down);
+        var result = AgoraGlobals.current().up.up(null);
+        while (loop.next()) result = doblock.evalBody(loop.context());
         return result;
     }
 
@@ -542,7 +620,7 @@ abstract public class Expression implements Serializable {
      */
     @Reified
     public AgoraObject ifTrue(Context context, @Keyword("IFTRUE:") Expression thenPart) throws AgoraError {
-        return evalAsBoolean(context) ? thenPart.eval(context) : AgoraGlobals.glob.up.up(null);
+        return evalAsBoolean(context) ? thenPart.eval(context) : AgoraGlobals.current().up.up(null);
     }
 
     /**
@@ -556,7 +634,7 @@ abstract public class Expression implements Serializable {
      */
     @Reified
     public AgoraObject ifFalse(Context context, @Keyword("IFFALSE:") Expression thenPart) throws AgoraError {
-        return evalAsBoolean(context) ? AgoraGlobals.glob.up.up(null) : thenPart.eval(context);
+        return evalAsBoolean(context) ? AgoraGlobals.current().up.up(null) : thenPart.eval(context);
     }
 
     /**
@@ -598,9 +676,9 @@ abstract public class Expression implements Serializable {
      */
     @Reified
     public AgoraObject whileTrue(Context context, @Keyword("WHILETRUE:") Expression body) throws AgoraError {
-        var result = AgoraGlobals.glob.up.up(null);
+        var result = AgoraGlobals.current().up.up(null);
         while (evalAsBoolean(context))
-            result = body.eval(context);
+            result = body.evalBody(context);
         return result;
     }
 
@@ -611,9 +689,9 @@ abstract public class Expression implements Serializable {
      */
     @Reified
     public AgoraObject whileFalse(Context context, @Keyword("WHILEFALSE:") Expression body) throws AgoraError {
-        var result = AgoraGlobals.glob.up.up(null);
+        var result = AgoraGlobals.current().up.up(null);
         while (!evalAsBoolean(context))
-            result = body.eval(context);
+            result = body.evalBody(context);
         return result;
     }
 
@@ -628,9 +706,9 @@ abstract public class Expression implements Serializable {
      */
     @Reified
     public AgoraObject untilTrue(Context context, @Keyword("UNTILTRUE:") Expression testExp) throws AgoraError {
-        var result = AgoraGlobals.glob.up.up(null);
+        var result = AgoraGlobals.current().up.up(null);
         do {
-            result = eval(context);
+            result = evalBody(context);
         } while (!testExp.evalAsBoolean(context));
         return result;
     }
@@ -643,9 +721,9 @@ abstract public class Expression implements Serializable {
     @Reified
     public AgoraObject untilFalse(Context context, @Keyword("UNTILFALSE") Expression testExp) throws AgoraError {
         do {
-            eval(context);
+            evalBody(context);
         } while (testExp.evalAsBoolean(context));
-        return AgoraGlobals.glob.up.up(null);
+        return AgoraGlobals.current().up.up(null);
     }
 
     /**
@@ -657,7 +735,7 @@ abstract public class Expression implements Serializable {
     @Unary("COMMENT")
     @Reified
     public AgoraObject comment(Context context) {
-        return AgoraGlobals.glob.up.up(null);
+        return AgoraGlobals.current().up.up(null);
     }
 
     /**
@@ -691,11 +769,10 @@ abstract public class Expression implements Serializable {
             var attribute = new MethodAttribute(formals, catchcode);
             return attribute.doAttributeValue(actualPattern, actuals, context);
         } catch (AgoraError ex) {
-            var agoraError = new KeywordPattern(List.of("agoraError:"));
             var formalPattern = pat.makePattern(context);
             if (!formalPattern.equals(agoraError)) throw ex;
             var formals = pat.makeFormals(context);
-            var actuals = context.newClient(AgoraGlobals.glob.up.up(ex));
+            var actuals = context.newClient(AgoraGlobals.current().up.up(ex));
             var attribute = new MethodAttribute(formals, catchcode);
             return attribute.doAttributeValue(agoraError, actuals, context);
         }
@@ -713,7 +790,7 @@ abstract public class Expression implements Serializable {
     public AgoraObject java(Context context) throws AgoraError {
         var res = evalAsString(context);
         try {
-            return AgoraGlobals.glob.up.up(Class.forName(res));
+            return AgoraGlobals.current().up.up(Class.forName(res));
         } catch (ClassNotFoundException e) {
             throw new ProgramError("No Such Class : " + res);
         }
@@ -729,7 +806,7 @@ abstract public class Expression implements Serializable {
     @Unary("QUOTE")
     @Reified
     public AgoraObject quote(Context context) throws AgoraError {
-        return AgoraGlobals.glob.up.up(this);
+        return AgoraGlobals.current().up.up(this);
     }
 
     /**
@@ -758,7 +835,7 @@ abstract public class Expression implements Serializable {
     @Unary("UP")
     @Reified
     public AgoraObject up(Context context) throws AgoraError {
-        return AgoraGlobals.glob.up.up(this.eval(context));
+        return AgoraGlobals.current().up.up(this.eval(context));
     }
 
     /**
@@ -817,7 +894,7 @@ abstract public class Expression implements Serializable {
             context.getPub().installPattern(thePattern, methAtt);
         if (Category.contains(theCat, Category.local))
             context.getPrivate().installPattern(thePattern, methAtt);
-        return AgoraGlobals.glob.up.up(null);
+        return AgoraGlobals.current().up.up(null);
     }
 
     /**
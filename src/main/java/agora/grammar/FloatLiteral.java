@@ -1,5 +1,8 @@
 package agora.grammar;
 
+import agora.objects.MethodsGenerator;
+import agora.runtime.Context;
+
 /**
  * Parse tree nodes for floating point literals.
  *
@@ -15,4 +18,11 @@ public class FloatLiteral extends Literal<Float> {
     public FloatLiteral(float value) {
         super(value);
     }
+
+    /**
+     * The value of the literal in the lane, without upping it.
+     */
+    float evalFloat(Context context, MethodsGenerator frame) {
+        return value();
+    }
 }
@@ -0,0 +1,68 @@
+package agora.grammar;
+
+import agora.errors.AgoraError;
+import agora.objects.AgoraObject;
+import agora.objects.MethodsGenerator;
+import agora.runtime.Context;
+
+/**
+ * An expression that was simplified by folding (see Folding). The node evaluates the simpler
+ * expression as long as the assumptions of the pass hold, and the original one otherwise.
+ * It unparses as the original expression.
+ */
+final class Folded extends Expression {
+    private final Expression original;
+    private final Expression folded;
+
+    /**
+     * The pass that folded the expression, which knows whether its assumptions still hold.
+     * It is not serialized: a loaded image evaluates the original expression.
+     */
+    private final transient Folding pass;
+
+    Folded(Expression original, Expression folded, Folding pass) {
+        this.original = original;
+        this.folded = folded;
+        this.pass = pass;
+    }
+
+    Expression original() {
+        return original;
+    }
+
+    Expression folded() {
+        return folded;
+    }
+
+    /**
+     * @return The expression to evaluate in the current state of the interpreter.
+     */
+    Expression current() {
+        return pass != null && pass.holds() ? folded : original;
+    }
+
+    public AgoraObject eval(Context context) throws AgoraError {
+        return current().eval(context);
+    }
+
+    int evalInteger(Context context, MethodsGenerator frame) throws AgoraError {
+        return current().evalInteger(context, frame);
+    }
+
+    float evalFloat(Context context, MethodsGenerator frame) throws AgoraError {
+        return current().evalFloat(context, frame);
+    }
+
+    boolean evalBoolean(Context context, MethodsGenerator frame) throws AgoraError {
+        return current().evalBoolean(context, frame);
+    }
+
+    public void markTailSends() {
+        original.markTailSends();
+        folded.markTailSends();
+    }
+
+    public String unparse(int hor) {
+        return original.unparse(hor);
+    }
+}
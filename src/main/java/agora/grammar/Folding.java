@@ -0,0 +1,198 @@
+package agora.grammar;
+
+import agora.attributes.PrimitiveMethodAttribute;
+import agora.javaAdditions.JV_Float;
+import agora.javaAdditions.JV_Integer;
+import agora.objects.Dependent;
+import agora.objects.Generator;
+import agora.reflection.Up;
+import agora.tools.AgoraGlobals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The optimisation pass over parsed expressions, run when the 'fold' option is on (see 'optional').
+ * It computes the parts of an expression that only depend on literals:
+ * <ul>
+ * <li>operators and unary messages of JV_Integer and JV_Float sent to numbers with literal arguments,
+ * <li>IFTRUE:, IFFALSE:, IFTRUE:IFFALSE: and IFFALSE:IFTRUE: on such a computed boolean,
+ * <li>JAVA sent to a string literal, which is the class of that name,
+ * </ul>
+ * and it drops COMMENT from blocks.
+ * All of this assumes that the messages and reifiers involved are the primitive ones. The pass
+ * checks that when it folds, and depends on the generators it looked them up in: the folded
+ * expressions (see Folded) evaluate the original ones as soon as one of these generators changes,
+ * or when another Up is used.
+ */
+public final class Folding implements Dependent {
+    /**
+     * The value of an expression whose value is not known.
+     */
+    private static final Object unknown = new Object();
+
+    private final Up upper = AgoraGlobals.current().up;
+    private boolean valid = true;
+
+    private Folding() {
+    }
+
+    /**
+     * Runs the pass over a parsed expression if the 'fold' option is on.
+     *
+     * @param expression The parsed expression, or null if it could not be parsed.
+     * @return The folded expression.
+     */
+    public static Expression optional(Expression expression) {
+        if (expression == null || AgoraGlobals.current() == null || !AgoraGlobals.current().options.fold) return expression;
+        return new Folding().fold(expression);
+    }
+
+    /**
+     * @return True if the assumptions of the pass still hold.
+     */
+    boolean holds() {
+        return valid && upper == AgoraGlobals.current().up;
+    }
+
+    public void invalidate(Generator changed) {
+        valid = false;
+    }
+
+    private Expression fold(Expression expression) {
+        return switch (expression) {
+            case UserMessage message ->
+                    compute(new UserMessage(fold(message.receiver()), fold((UserPattern) message.pattern())));
+            case ReifierMessage message when message.pattern() instanceof ReifUnaryPattern unary ->
+                    reify(message.receiver(), unary);
+            case ReifierMessage message ->
+                    reify(ReifierMessage.of(fold(message.receiver()), fold((ReifPattern) message.pattern())));
+            case UserPattern pattern -> fold(pattern);
+            case Block block -> block(block);
+            case Aggregate aggregate -> new Aggregate(fold(aggregate.expressions));
+            default -> expression;
+        };
+    }
+
+    private UserPattern fold(UserPattern pattern) {
+        return switch (pattern) {
+            case UserOperatorPattern operator -> new UserOperatorPattern(operator.makePattern(null), fold(operator.getOperand()));
+            case UserKeywordPattern keyword -> new UserKeywordPattern(keyword.makePattern(null), fold(keyword.arguments()));
+            default -> pattern;
+        };
+    }
+
+    private ReifPattern fold(ReifPattern pattern) {
+        return switch (pattern) {
+            case ReifOperatorPattern operator -> new ReifOperatorPattern(operator.makePattern(null), fold(operator.getOperand()));
+            case ReifKeywordPattern keyword -> new ReifKeywordPattern(keyword.makePattern(null), fold(keyword.arguments()));
+            default -> pattern;
+        };
+    }
+
+    private List<Expression> fold(List<Expression> expressions) {
+        return expressions.stream().map(this::fold).toList();
+    }
+
+    /**
+     * Computes a message sent to a number, if it is a primitive of the number with literal arguments.
+     */
+    private Expression compute(UserMessage message) {
+        var receiver = value(message.receiver());
+        if (!(receiver instanceof Integer || receiver instanceof Float)) return message;
+        var pattern = message.pattern();
+        if (pattern instanceof UserOperatorPattern operator && value(operator.getOperand()) == unknown ||
+                pattern instanceof UserKeywordPattern)
+            return message;
+        var msg = ((UserPattern) pattern).makePattern(null);
+        var holder = upper.up(receiver).objectID().getMe().lookup(msg, this);
+        if (holder == null || !(holder.getHashTable().get(msg) instanceof PrimitiveMethodAttribute attribute) ||
+                attribute.getMethod().getDeclaringClass() != JV_Integer.class &&
+                        attribute.getMethod().getDeclaringClass() != JV_Float.class)
+            return message;
+        try {
+            return new Folded(message, new Constant(message.defaultEval().down()), this);
+        } catch (RuntimeException ex) {
+            return message;
+        }
+    }
+
+    /**
+     * Folds a unary reifier message: JAVA is resolved, COMMENT is dropped and QUOTE keeps
+     * its receiver as it is.
+     */
+    private Expression reify(Expression receiver, ReifUnaryPattern unary) {
+        return switch (unary.getUnary()) {
+            case "QUOTE" -> ReifierMessage.of(receiver, unary);
+            case "COMMENT" -> {
+                var comment = ReifierMessage.of(receiver, unary);
+                yield builtin(comment, "comment") ? new Folded(comment, new Constant(null), this) : comment;
+            }
+            case "JAVA" -> {
+                var java = ReifierMessage.of(fold(receiver), unary);
+                if (!(java.receiver() instanceof StringLiteral name) || !builtin(java, "java")) yield java;
+                try {
+                    yield new Folded(java, new Constant(Class.forName(name.value())), this);
+                } catch (ClassNotFoundException | LinkageError ex) {
+                    yield java;
+                }
+            }
+            default -> ReifierMessage.of(fold(receiver), unary);
+        };
+    }
+
+    /**
+     * Chooses the branch of a conditional on a computed boolean.
+     */
+    private Expression reify(ReifierMessage message) {
+        if (!(message instanceof If) || !(value(message.receiver()) instanceof Boolean condition)) return message;
+        var arguments = ((ReifKeywordPattern) message.pattern()).arguments();
+        var branch = switch (message.pattern().makePattern(null).toString()) {
+            case "IFTRUE:" -> condition ? arguments.get(0) : null;
+            case "IFFALSE:" -> condition ? null : arguments.get(0);
+            case "IFTRUE:IFFALSE:" -> arguments.get(condition ? 0 : 1);
+            default -> arguments.get(condition ? 1 : 0);
+        };
+        var builtin = ((BuiltinReifierMessage) message).builtin();
+        if (!builtin(message, builtin)) return message;
+        return new Folded(message, branch == null ? new Constant(null) : branch, this);
+    }
+
+    /**
+     * Drops the comments of a block, except the last expression, which is its value.
+     */
+    private Expression block(Block block) {
+        var expressions = fold(block.expressions);
+        var kept = new ArrayList<Expression>();
+        for (var i = 0; i < expressions.size(); i++)
+            if (i == expressions.size() - 1 || !comment(expressions.get(i)))
+                kept.add(expressions.get(i));
+        var result = new Block(expressions);
+        return kept.size() == expressions.size() ? result : new Folded(result, new Block(kept), this);
+    }
+
+    /**
+     * @return True if sending the reifier of a message would invoke the method of Expression.
+     */
+    private boolean builtin(ReifierMessage message, String builtin) {
+        return BuiltinReifierMessage.invokes(upper.up(message.receiver()), message.pattern().makePattern(null), builtin, this);
+    }
+
+    /**
+     * @return The value of a literal or of a computed expression, 'unknown' for other expressions.
+     */
+    private static Object value(Expression expression) {
+        if (expression instanceof Folded folded) expression = folded.folded();
+        return expression instanceof Literal<?> literal ? literal.value() : unknown;
+    }
+
+    /**
+     * @return True if the expression is a COMMENT that was folded.
+     */
+    private static boolean comment(Expression expression) {
+        return expression instanceof Folded folded &&
+                folded.original() instanceof ReifierMessage message &&
+                message.pattern() instanceof ReifUnaryPattern unary &&
+                unary.getUnary().equals("COMMENT");
+    }
+}
@@ -0,0 +1,68 @@
+package agora.grammar;
+
+import agora.errors.AgoraError;
+import agora.objects.AgoraObject;
+import agora.runtime.Context;
+
+/**
+ * The lowered form of FOR:TO:DO:, FOR:DOWNTO:DO:, FOR:TO:BY:DO: and FOR:DOWNTO:BY:DO: (see
+ * Expression.fortodo and friends). The receiver is the pattern of the loop variable.
+ */
+public final class ForRange extends BuiltinReifierMessage {
+    private final Expression from;
+    private final Expression to;
+
+    /**
+     * The step of the loop, null if it is one.
+     */
+    private final Expression by;
+    private final Expression body;
+
+    /**
+     * True if the loop counts down.
+     */
+    private final boolean down;
+
+    ForRange(Expression receiver, ReifPattern pattern, String builtin, Expression from, Expression to, Expression by, Expression body) {
+        super(receiver, pattern, builtin);
+        this.from = from;
+        this.to = to;
+        this.by = by;
+        this.body = body;
+        this.down = builtin.startsWith("fordown");
+    }
+
+    /**
+     * @return The expression evaluated on every iteration.
+     */
+    public Expression body() {
+        return body;
+    }
+
+    AgoraObject evalBuiltin(Context context) throws AgoraError {
+        if (by == null)
+            return down ? receiver.fordowntodo(context, from, to, body) : receiver.fortodo(context, from, to, body);
+        return down ? receiver.fordowntobydo(context, from, to, by, body) : receiver.fortobydo(context, from, to, by, body);
+    }
+
+    /**
+     * Starts the loop as the reifier does, evaluating its bounds and step, for code that
+     * evaluates the body itself.
+     *
+     * @param context The context where the reifier was sent.
+     * @return The loop, before its first iteration.
+     * @throws agora.errors.AgoraError When a bound or the step is not an integer, or when the
+     *                                 receiver is not a unary pattern.
+     */
+    public CountingLoop start(Context context) throws AgoraError {
+        try {
+            var init = from.evalAsInteger(context);
+            var term = to.evalAsInteger(context);
+            var step = by == null ? 1 : by.evalAsInteger(context);
+            return new CountingLoop(receiver, context, pattern.makePattern(null).toString(), init, term, down ? -step : step, down);
+        } catch (AgoraError ex) {
+            ex.setCode(this);
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package agora.grammar;
+
+import agora.errors.AgoraError;
+import agora.objects.AgoraObject;
+import agora.runtime.Context;
+import agora.tools.AgoraGlobals;
+
+/**
+ * The lowered form of IFTRUE:, IFFALSE:, IFTRUE:IFFALSE: and IFFALSE:IFTRUE: (see Expression.ifTrue
+ * and friends). The receiver is the condition, which is evaluated in the boolean lane.
+ */
+public final class If extends BuiltinReifierMessage {
+    /**
+     * The expressions evaluated when the condition is true or false, null if there is none.
+     */
+    private final Expression whenTrue;
+    private final Expression whenFalse;
+
+    If(Expression receiver, ReifPattern pattern, String builtin, Expression whenTrue, Expression whenFalse) {
+        super(receiver, pattern, builtin);
+        this.whenTrue = whenTrue;
+        this.whenFalse = whenFalse;
+    }
+
+    /**
+     * @return The expression evaluated when the condition is true, or null if there is none.
+     */
+    public Expression whenTrue() {
+        return whenTrue;
+    }
+
+    /**
+     * @return The expression evaluated when the condition is false, or null if there is none.
+     */
+    public Expression whenFalse() {
+        return whenFalse;
+    }
+
+    AgoraObject evalBuiltin(Context context) throws AgoraError {
+        var branch = condition(receiver, context) ? whenTrue : whenFalse;
+        return branch == null ? AgoraGlobals.current().up.up(null) : branch.eval(context);
+    }
+
+    public void markTailSends() {
+        if (whenTrue != null) whenTrue.markTailSends();
+        if (whenFalse != null) whenFalse.markTailSends();
+    }
+}
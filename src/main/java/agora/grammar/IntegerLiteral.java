@@ -1,5 +1,8 @@
 package agora.grammar;
 
+import agora.objects.MethodsGenerator;
+import agora.runtime.Context;
+
 /**
  * Grammar component representing integer literal parse tree nodes.
  *
@@ -15,4 +18,11 @@ public class IntegerLiteral extends Literal<Integer> {
     public IntegerLiteral(int value) {
         super(value);
     }
+
+    /**
+     * The value of the literal in the lane, without upping it.
+     */
+    int evalInteger(Context context, MethodsGenerator frame) {
+        return value();
+    }
 }
@@ -2,6 +2,7 @@ package agora.grammar;
 
 import agora.errors.AgoraError;
 import agora.objects.AgoraObject;
+import agora.reflection.Up;
 import agora.runtime.Context;
 import agora.tools.AgoraGlobals;
 
@@ -17,6 +18,18 @@ import java.util.Objects;
 abstract public class Literal<T> extends Expression {
     private final T value;
 
+    /**
+     * The Agora object the literal evaluates to, once it has been evaluated. Upping
+     * the value again each time yields an equal object, so it is done only once for
+     * each Up instance (see 'upper').
+     */
+    private transient AgoraObject constant;
+
+    /**
+     * The Up instance that created 'constant'.
+     */
+    private transient Up upper;
+
     protected Literal(T value) {
         this.value = value;
     }
@@ -34,7 +47,13 @@ abstract public class Literal<T> extends Expression {
      * @throws agora.errors.AgoraError When something goes wrong.
      */
     public AgoraObject eval(Context context) throws AgoraError {
-        return AgoraGlobals.glob.up.up(value());
+        var up = AgoraGlobals.current().up;
+        if (!AgoraGlobals.current().options.specialise) return up.up(value());
+        if (upper != up) {
+            constant = up.up(value());
+            upper = up;
+        }
+        return constant;
     }
 
     /**
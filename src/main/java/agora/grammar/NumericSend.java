@@ -0,0 +1,389 @@
+package agora.grammar;
+
+import agora.attributes.PrimitiveFunctionAttribute;
+import agora.javaAdditions.JV_Float;
+import agora.javaAdditions.JV_Integer;
+import agora.objects.AgoraObject;
+import agora.objects.Dependent;
+import agora.objects.Generator;
+import agora.objects.MethodsGenerator;
+import agora.patterns.Pattern;
+import agora.reflection.Up;
+import agora.tools.AgoraGlobals;
+
+import java.lang.reflect.Method;
+
+/**
+ * The specialised version of a UserMessage that has sent an operator of JV_Integer or JV_Float
+ * to a number with a number argument. Rather than delegating the message, the operator is
+ * applied directly, to unboxed operands: the receiver and the argument are evaluated in the
+ * lane of their type (see Expression.evalInteger and Expression.evalFloat), and the result is
+ * only upped when it leaves the arithmetic. Within the specialisation, operands are carried as
+ * doubles, which hold every int and every float exactly.
+ * This is only correct as long as the receiver is a number whose method frame is the one the
+ * operator was found in, and as long as that frame has not changed: the first is checked by the
+ * guards, the second makes the specialisation invalid. Numbers in a lane stand for the objects
+ * the current Up makes of them, so the specialisation only applies while that is the Up it was
+ * made with.
+ */
+final class NumericSend implements Dependent {
+    /**
+     * The kinds of unboxed values.
+     */
+    enum Lane {INTEGER, FLOAT, BOOLEAN}
+
+    private final Up upper;
+    private final MethodsGenerator numbers;
+    private final Operator operator;
+    private final Lane argument;
+    private boolean valid = true;
+
+    private NumericSend(Up upper, MethodsGenerator numbers, Operator operator, Lane argument) {
+        this.upper = upper;
+        this.numbers = numbers;
+        this.operator = operator;
+        this.argument = argument;
+    }
+
+    /**
+     * Tries to specialise a message that was just sent.
+     *
+     * @param receiver The receiver the message was sent to.
+     * @param msg      The runtime pattern of the message.
+     * @param argument The argument of the message.
+     * @return The specialisation, or null if the message cannot be specialised.
+     */
+    static NumericSend specialise(AgoraObject receiver, Pattern msg, AgoraObject argument) {
+        var receiverLane = lane(receiver.down());
+        var argumentLane = lane(argument.down());
+        if (receiverLane == null || argumentLane == null) return null;
+        var upper = AgoraGlobals.current().up;
+        var start = receiver.objectID().getMe();
+        if (start != upper.up(receiver.down()).objectID().getMe()) return null;
+        var holder = start.lookup(msg, null);
+        if (holder == null || !(holder.getHashTable().get(msg) instanceof PrimitiveFunctionAttribute attribute))
+            return null;
+        var operator = Operator.of(attribute.getMethod());
+        if (operator == null || operator.receiver() != receiverLane ||
+                receiverLane == Lane.INTEGER && argumentLane != Lane.INTEGER)
+            return null;
+        var result = new NumericSend(upper, start, operator, argumentLane);
+        start.lookup(msg, result);
+        return result;
+    }
+
+    private static Lane lane(Object value) {
+        return switch (value) {
+            case Integer ignored -> Lane.INTEGER;
+            case Float ignored -> Lane.FLOAT;
+            case null, default -> null;
+        };
+    }
+
+    /**
+     * @return True if the specialisation may be used in the current state of the interpreter.
+     */
+    boolean applies() {
+        return valid && AgoraGlobals.current().up == upper && AgoraGlobals.current().options.specialise;
+    }
+
+    /**
+     * @return The lane of the result of the operator.
+     */
+    Lane result() {
+        return operator.result();
+    }
+
+    /**
+     * @return The lane of the receiver of the operator.
+     */
+    Lane receiver() {
+        return operator.receiver();
+    }
+
+    /**
+     * @return The lane of the argument of the operator.
+     */
+    Lane argument() {
+        return argument;
+    }
+
+    /**
+     * @return The method frame of the receivers the operator applies to.
+     */
+    MethodsGenerator numbers() {
+        return numbers;
+    }
+
+    /**
+     * Applies an operator whose result is in the integer lane (see 'result').
+     */
+    int integer(double a, double b) {
+        return ((IntegerArithmetic) operator).apply((int) a, (int) b);
+    }
+
+    /**
+     * Applies an operator whose result is in the float lane (see 'result').
+     */
+    float real(double a, double b) {
+        return ((RealArithmetic) operator).apply((float) a, (float) b);
+    }
+
+    /**
+     * Applies an operator whose result is in the boolean lane (see 'result').
+     */
+    boolean test(double a, double b) {
+        return operator instanceof IntegerComparison comparison
+                ? comparison.test((int) a, (int) b)
+                : ((RealComparison) operator).test((float) a, (float) b);
+    }
+
+    /**
+     * Ups an operand carried as a double, as an object of the lane it was evaluated in.
+     */
+    AgoraObject box(double value, Lane lane) {
+        return upper.up(lane == Lane.INTEGER ? (Object) (int) value : (Object) (float) value);
+    }
+
+    public void invalidate(Generator changed) {
+        valid = false;
+    }
+
+    /**
+     * The methods of JV_Integer that cannot fail on two integers, and those of JV_Float whose
+     * result on an integer argument only depends on the float value of that argument. Each kind
+     * of operator is an enum of its own, which fixes the lanes of its receiver and result and
+     * only applies in those lanes.
+     */
+    private sealed interface Operator {
+        /**
+         * @return The name of the method of JV_Integer or JV_Float the operator applies.
+         */
+        String method();
+
+        /**
+         * @return The lane of the receiver of the operator.
+         */
+        Lane receiver();
+
+        /**
+         * @return The lane of the result of the operator.
+         */
+        Lane result();
+
+        static Operator of(Method method) {
+            var owner = method.getDeclaringClass();
+            if (owner == JV_Integer.class) {
+                for (var operator : IntegerArithmetic.values()) if (operator.is(method)) return operator;
+                for (var operator : IntegerComparison.values()) if (operator.is(method)) return operator;
+            } else if (owner == JV_Float.class) {
+                for (var operator : RealArithmetic.values()) if (operator.is(method)) return operator;
+                for (var operator : RealComparison.values()) if (operator.is(method)) return operator;
+            }
+            return null;
+        }
+
+        default boolean is(Method method) {
+            return method().equals(method.getName());
+        }
+    }
+
+    /**
+     * The operators of JV_Integer with an integer result.
+     */
+    private enum IntegerArithmetic implements Operator {
+        integerPlus("plus") {
+            int apply(int a, int b) {
+                return a + b;
+            }
+        },
+        integerMin("min") {
+            int apply(int a, int b) {
+                return a - b;
+            }
+        },
+        integerMult("mult") {
+            int apply(int a, int b) {
+                return a * b;
+            }
+        },
+        orI("orI") {
+            int apply(int a, int b) {
+                return a | b;
+            }
+        },
+        andI("andI") {
+            int apply(int a, int b) {
+                return a & b;
+            }
+        };
+
+        private final String method;
+
+        IntegerArithmetic(String method) {
+            this.method = method;
+        }
+
+        abstract int apply(int a, int b);
+
+        public String method() {
+            return method;
+        }
+
+        public Lane receiver() {
+            return Lane.INTEGER;
+        }
+
+        public Lane result() {
+            return Lane.INTEGER;
+        }
+    }
+
+    /**
+     * The comparisons of JV_Integer.
+     */
+    private enum IntegerComparison implements Operator {
+        equalsI("equalsI") {
+            boolean test(int a, int b) {
+                return a == b;
+            }
+        },
+        smI("smI") {
+            boolean test(int a, int b) {
+                return a < b;
+            }
+        },
+        gtI("gtI") {
+            boolean test(int a, int b) {
+                return a > b;
+            }
+        },
+        smeI("smeI") {
+            boolean test(int a, int b) {
+                return a <= b;
+            }
+        },
+        gteI("gteI") {
+            boolean test(int a, int b) {
+                return a >= b;
+            }
+        };
+
+        private final String method;
+
+        IntegerComparison(String method) {
+            this.method = method;
+        }
+
+        abstract boolean test(int a, int b);
+
+        public String method() {
+            return method;
+        }
+
+        public Lane receiver() {
+            return Lane.INTEGER;
+        }
+
+        public Lane result() {
+            return Lane.BOOLEAN;
+        }
+    }
+
+    /**
+     * The operators of JV_Float with a float result.
+     */
+    private enum RealArithmetic implements Operator {
+        floatPlus("plus") {
+            float apply(float a, float b) {
+                return a + b;
+            }
+        },
+        floatMin("min") {
+            float apply(float a, float b) {
+                return a - b;
+            }
+        },
+        multiply("multiply") {
+            float apply(float a, float b) {
+                return a * b;
+            }
+        },
+        divide("divide") {
+            float apply(float a, float b) {
+                return a / b;
+            }
+        };
+
+        private final String method;
+
+        RealArithmetic(String method) {
+            this.method = method;
+        }
+
+        abstract float apply(float a, float b);
+
+        public String method() {
+            return method;
+        }
+
+        public Lane receiver() {
+            return Lane.FLOAT;
+        }
+
+        public Lane result() {
+            return Lane.FLOAT;
+        }
+    }
+
+    /**
+     * The comparisons of JV_Float.
+     */
+    private enum RealComparison implements Operator {
+        equalsF("equalsF") {
+            boolean test(float a, float b) {
+                return a == b;
+            }
+        },
+        smF("smF") {
+            boolean test(float a, float b) {
+                return Float.compare(a, b) < 0;
+            }
+        },
+        gtF("gtF") {
+            boolean test(float a, float b) {
+                return Float.compare(a, b) > 0;
+            }
+        },
+        smeF("smeF") {
+            boolean test(float a, float b) {
+                return Float.compare(a, b) <= 0;
+            }
+        },
+        gteF("gteF") {
+            boolean test(float a, float b) {
+                return Float.compare(a, b) >= 0;
+            }
+        };
+
+        private final String method;
+
+        RealComparison(String method) {
+            this.method = method;
+        }
+
+        abstract boolean test(float a, float b);
+
+        public String method() {
+            return method;
+        }
+
+        public Lane receiver() {
+            return Lane.FLOAT;
+        }
+
+        public Lane result() {
+            return Lane.BOOLEAN;
+        }
+    }
+}
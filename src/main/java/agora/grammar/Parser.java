@@ -35,10 +35,12 @@ public class Parser implements Serializable {
      * This is the parse routine. Either it succeeds, and returns a valid Agora
      * parse tree, or it fails and returns 'null' as parse tree.
      *
+     * The expression is folded when the 'fold' option is on (see Folding).
+     *
      * @return The parsed expression. Parse errors are indicated by null as return value.
      */
     public Expression parseExpression() throws IOException {
-        return lastToken == _ERROR_ || lastToken == _EOFTOKEN_ ? null : parseRkeywordMessage();
+        return lastToken == _ERROR_ || lastToken == _EOFTOKEN_ ? null : Folding.optional(parseRkeywordMessage());
     }
 
     private void scan() throws IOException {
@@ -50,7 +52,7 @@ public class Parser implements Serializable {
         var opmsg = parseRoperatorMessage();
         if (opmsg == null) return null;
         if (lastToken != _MKEYWORD_) return opmsg;
-        return new ReifierMessage(opmsg, parseRkeywordPattern());
+        return ReifierMessage.of(opmsg, parseRkeywordPattern());
     }
 
     private Expression parseRoperatorMessage() throws IOException {
@@ -60,7 +62,7 @@ public class Parser implements Serializable {
         while (lastToken == _MOPERATOR_) {
             var pat = parseRoperatorPattern();
             if (pat == null) return null;
-            unarymsg = new ReifierMessage(unarymsg, pat);
+            unarymsg = ReifierMessage.of(unarymsg, pat);
         }
         return unarymsg;
     }
@@ -71,7 +73,7 @@ public class Parser implements Serializable {
         while (lastToken == _MUNARY_) {
             var pat = parseRunaryPattern();
             if (pat == null) return null;
-            keywordmsg = new ReifierMessage(keywordmsg, pat);
+            keywordmsg = ReifierMessage.of(keywordmsg, pat);
         }
         return keywordmsg;
     }
@@ -199,7 +201,7 @@ public class Parser implements Serializable {
         if (exp == null) return null;
         keys.add(key);
         values.add(exp);
-        return lastToken == _MKEYWORD_ ? parseRkeywordPattern(keys, values) : new ReifKeywordPattern(new KeywordReifierPattern(keys), values);
+        return lastToken == _MKEYWORD_ ? parseRkeywordPattern(keys, values) : new ReifKeywordPattern(KeywordReifierPattern.of(keys), values);
     }
 
     private ReifKeywordPattern parseRkeywordPattern() throws IOException {
@@ -210,7 +212,7 @@ public class Parser implements Serializable {
 
     private ReifUnaryPattern parseRunaryPattern() throws IOException {
         if (lastToken != _MUNARY_) return null;
-        var result = new ReifUnaryPattern(new UnaryReifierPattern(s.lastRUnary));
+        var result = new ReifUnaryPattern(UnaryReifierPattern.of(s.lastRUnary));
         scan();
         return result;
     }
@@ -221,7 +223,7 @@ public class Parser implements Serializable {
         scan();
         var runarymsg = parseRunaryMessage();
         if (runarymsg == null) return null;
-        return new ReifOperatorPattern(new OperatorReifierPattern(result), runarymsg);
+        return new ReifOperatorPattern(OperatorReifierPattern.of(result), runarymsg);
     }
 
     private UserKeywordPattern parseKeywordPattern() throws IOException {
@@ -235,13 +237,13 @@ public class Parser implements Serializable {
         var exp = parseOperatorMessage();
         if (exp == null) return null;
         values.add(exp);
-        if (lastToken != _KEYWORD_) return new UserKeywordPattern(new KeywordPattern(keys), values);
+        if (lastToken != _KEYWORD_) return new UserKeywordPattern(KeywordPattern.of(keys), values);
         return parseKeywordPattern(keys, values);
     }
 
     private UserUnaryPattern parseUnaryPattern() throws IOException {
         if (lastToken != _UNARY_) return null;
-        var result = new UserUnaryPattern(new UnaryPattern(s.lastUUnary));
+        var result = new UserUnaryPattern(UnaryPattern.of(s.lastUUnary));
         scan();
         return result;
     }
@@ -252,6 +254,6 @@ public class Parser implements Serializable {
         scan();
         var unarymsg = parseUnaryMessage();
         if (unarymsg == null) return null;
-        return new UserOperatorPattern(new OperatorPattern(result), unarymsg);
+        return new UserOperatorPattern(OperatorPattern.of(result), unarymsg);
     }
 }
@@ -25,6 +25,13 @@ public class ReifKeywordPattern extends ReifPattern {
         this.arguments = arguments;
     }
 
+    /**
+     * @return The expressions following the keywords of the pattern.
+     */
+    List<Expression> arguments() {
+        return arguments;
+    }
+
     /**
      * Unparses the keyword pattern.
      *
@@ -50,7 +57,12 @@ public class ReifKeywordPattern extends ReifPattern {
      * @return A client containing the actual arguments.
      */
     public Client makeClient(Context context, AgoraObject receiver) {
-        return context.newReifierClient(arguments.toArray(Object[]::new));
+        return switch (arguments.size()) {
+            case 1 -> context.newReifierClient(arguments.get(0));
+            case 2 -> context.newReifierClient(arguments.get(0), arguments.get(1));
+            case 3 -> context.newReifierClient(arguments.get(0), arguments.get(1), arguments.get(2));
+            default -> context.newReifierClient(arguments.toArray(Object[]::new));
+        };
     }
 
     /**
@@ -20,7 +20,7 @@ abstract public class ReifPattern extends Pattern {
     public AgoraObject eval(Context context) throws AgoraError {
         try {
             if (Category.contains(context.getCategory(), Category.flags))
-                return AgoraGlobals.glob.up.up(
+                return AgoraGlobals.current().up.up(
                         new FormalsAndPattern(
                                 makeFormals(context),
                                 makePattern(context),
@@ -28,9 +28,9 @@ abstract public class ReifPattern extends Pattern {
                         )
                 );
 
-            var client = makeClient(context, AgoraGlobals.glob.up.up(context));
+            var client = makeClient(context, AgoraGlobals.current().up.up(context));
             client.actualsUp();
-            return context.getPrivate().delegate(makePattern(context), client, context).down();
+            return AgoraGlobals.current().lookups().delegate(context.getPrivate(), makePattern(context), client, context).down();
         } catch (AgoraError ex) {
             ex.setCode(this);
             throw ex;
@@ -49,8 +49,8 @@ abstract public class ReifPattern extends Pattern {
     @Reified
     public AgoraObject superReifier(Context context) throws AgoraError {
         var pattern = makePattern(context);
-        var client = makeClient(context, AgoraGlobals.glob.up.up(context));
+        var client = makeClient(context, AgoraGlobals.current().up.up(context));
         client.actualsUp();
-        return context.getParent().delegate(pattern, client, context);
+        return AgoraGlobals.current().lookups().delegate(context.getParent(), pattern, client, context);
     }
 }
@@ -2,6 +2,8 @@ package agora.grammar;
 
 import agora.errors.AgoraError;
 import agora.objects.AgoraObject;
+import agora.objects.InlineCache;
+import agora.reflection.Up;
 import agora.runtime.Context;
 import agora.tools.AgoraGlobals;
 
@@ -10,6 +12,23 @@ import agora.tools.AgoraGlobals;
  * Last change:  E    16 Nov 97    2:17 pm
  */
 public class ReifierMessage extends Message {
+    /**
+     * The upped receiver expression, which is the receiver of the reifier. Upping the
+     * receiver again each time yields an equal object, so it is done only once for each
+     * Up instance (see 'upper').
+     */
+    private transient AgoraObject target;
+
+    /**
+     * The Up instance that created 'target'.
+     */
+    private transient Up upper;
+
+    /**
+     * The inline cache used to send the reifier to the receiver expression.
+     */
+    private transient InlineCache cache;
+
     /**
      * Does nothing but calling the super constructor.
      *
@@ -20,6 +39,44 @@ public class ReifierMessage extends Message {
         super(receiver, pattern);
     }
 
+    /**
+     * Creates the reifier message the parser has read. The control structures and declarations
+     * that are built into every expression (IFTRUE:IFFALSE:, WHILETRUE:, FOR:TO:DO:, VARIABLE:,
+     * METHOD: and the like) are lowered into nodes that evaluate them directly, rather than
+     * sending the reifier to the upped receiver expression (see BuiltinReifierMessage).
+     *
+     * @param receiver The expression denoting the receiving expression of the reifier message.
+     * @param pattern  The name of the reifier message and the actual arguments.
+     * @return The reifier message expression.
+     */
+    public static ReifierMessage of(Expression receiver, ReifPattern pattern) {
+        if (pattern instanceof ReifUnaryPattern unary) return switch (unary.getUnary()) {
+            case "VARIABLE", "VAR" -> new Declare(receiver, pattern, "variable", null);
+            default -> new ReifierMessage(receiver, pattern);
+        };
+        if (!(pattern instanceof ReifKeywordPattern keyword)) return new ReifierMessage(receiver, pattern);
+        var arguments = keyword.arguments();
+        return switch (keyword.makePattern(null).toString()) {
+            case "IFTRUE:" -> new If(receiver, pattern, "ifTrue", arguments.get(0), null);
+            case "IFFALSE:" -> new If(receiver, pattern, "ifFalse", null, arguments.get(0));
+            case "IFTRUE:IFFALSE:" -> new If(receiver, pattern, "ifTrueifFalse", arguments.get(0), arguments.get(1));
+            case "IFFALSE:IFTRUE:" -> new If(receiver, pattern, "ifFalseifTrue", arguments.get(1), arguments.get(0));
+            case "WHILETRUE:" -> new While(receiver, pattern, "whileTrue", true, arguments.get(0));
+            case "WHILEFALSE:" -> new While(receiver, pattern, "whileFalse", false, arguments.get(0));
+            case "FOR:TO:DO:" ->
+                    new ForRange(receiver, pattern, "fortodo", arguments.get(0), arguments.get(1), null, arguments.get(2));
+            case "FOR:DOWNTO:DO:" ->
+                    new ForRange(receiver, pattern, "fordowntodo", arguments.get(0), arguments.get(1), null, arguments.get(2));
+            case "FOR:TO:BY:DO:" ->
+                    new ForRange(receiver, pattern, "fortobydo", arguments.get(0), arguments.get(1), arguments.get(2), arguments.get(3));
+            case "FOR:DOWNTO:BY:DO:" ->
+                    new ForRange(receiver, pattern, "fordowntobydo", arguments.get(0), arguments.get(1), arguments.get(2), arguments.get(3));
+            case "VARIABLE:" -> new Declare(receiver, pattern, "variableColon", arguments.get(0));
+            case "METHOD:" -> new Declare(receiver, pattern, "methodColon", arguments.get(0));
+            default -> new ReifierMessage(receiver, pattern);
+        };
+    }
+
     /**
      * Evaluates the reifier message in a given environment.
      *
@@ -29,19 +86,34 @@ public class ReifierMessage extends Message {
      */
     public AgoraObject eval(Context context) throws AgoraError {
         try {
-            var target = AgoraGlobals.glob.up.up(receiver);
+            var target = target();
             var client = pattern.makeClient(
                     context,
                     target
             );
             client.actualsUp();
+            if (cache == null) cache = new InlineCache();
             return target.send(
                     pattern.makePattern(context),
-                    client
+                    client,
+                    cache
             ).down();
         } catch (AgoraError ex) {
             ex.setCode(this);
             throw ex;
         }
     }
+
+    /**
+     * @return The upped receiver expression.
+     */
+    AgoraObject target() throws AgoraError {
+        var up = AgoraGlobals.current().up;
+        if (!AgoraGlobals.current().options.specialise) return up.up(receiver);
+        if (upper != up) {
+            target = up.up(receiver);
+            upper = up;
+        }
+        return target;
+    }
 }
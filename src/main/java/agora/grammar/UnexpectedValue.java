@@ -0,0 +1,25 @@
+package agora.grammar;
+
+import agora.objects.AgoraObject;
+
+/**
+ * Thrown when an expression that is evaluated in a lane of unboxed values (see
+ * Expression.evalInteger) turns out to have a value that does not fit the lane. The
+ * exception carries the value, such that the evaluation can go on with it as usual.
+ * It never leaves the evaluator, so it has no stack trace.
+ */
+final class UnexpectedValue extends RuntimeException {
+    private final transient AgoraObject value;
+
+    UnexpectedValue(AgoraObject value) {
+        super(null, null, false, false);
+        this.value = value;
+    }
+
+    /**
+     * @return The value of the expression.
+     */
+    AgoraObject value() {
+        return value;
+    }
+}
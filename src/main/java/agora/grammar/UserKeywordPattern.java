@@ -52,7 +52,12 @@ public class UserKeywordPattern extends UserPattern {
      * @return A client containing the (non-evaluated) arguments.
      */
     public Client makeClient(Context context, AgoraObject receiver) {
-        return context.newClient(arguments.toArray(Object[]::new));
+        return switch (arguments.size()) {
+            case 1 -> context.newClient(arguments.get(0));
+            case 2 -> context.newClient(arguments.get(0), arguments.get(1));
+            case 3 -> context.newClient(arguments.get(0), arguments.get(1), arguments.get(2));
+            default -> context.newClient(arguments.toArray(Object[]::new));
+        };
     }
 
     /**
@@ -89,6 +94,15 @@ public class UserKeywordPattern extends UserPattern {
         return formals;
     }
 
+    /**
+     * Returns the argument expressions of the keyword pattern.
+     *
+     * @return The arguments, from left to right.
+     */
+    public List<Expression> arguments() {
+        return arguments;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -2,7 +2,11 @@ package agora.grammar;
 
 import agora.errors.AgoraError;
 import agora.objects.AgoraObject;
+import agora.objects.InlineCache;
+import agora.objects.MethodsGenerator;
+import agora.runtime.Client;
 import agora.runtime.Context;
+import agora.tools.AgoraGlobals;
 
 /**
  * This class represents user messages in Agora. Each UserMessage contains an
@@ -13,6 +17,28 @@ import agora.runtime.Context;
  */
 
 public class UserMessage extends Message {
+    /**
+     * The inline cache of this send site. It is created the first time the
+     * message is evaluated.
+     */
+    private transient InlineCache cache;
+
+    /**
+     * The specialisation of this message to arithmetic, if it has only been sent to
+     * numbers with a number argument so far.
+     */
+    private transient NumericSend numericSend;
+
+    /**
+     * Becomes true once the message is known not to be specialisable, such that it
+     * is no longer tried.
+     */
+    private transient boolean generic;
+
+    /**
+     * True if the message is in tail position of a method body.
+     */
+    private transient boolean tail;
 
     /**
      * Creates a new message expression.
@@ -33,12 +59,171 @@ public class UserMessage extends Message {
      */
     public AgoraObject eval(Context context) throws AgoraError {
         try {
+            if (numericSend != null && AgoraGlobals.current().options.specialise) return evalSpecialised(context);
             var client = pattern.makeClient(context, null);
             client.actualsEval(context);
-            return receiver.eval(context).send(pattern.makePattern(context), client);
+            var self = receiver.eval(context);
+            var msg = pattern.makePattern(context);
+            if (tail && context.allowsTailCalls()) {
+                if (!generic) specialise(self, msg, client);
+                return context.tailCall().send(self, msg, client, cache(), this);
+            }
+            var result = send(self, msg, client);
+            if (!generic) specialise(self, msg, client);
+            return result;
         } catch (AgoraError ex) {
             ex.setCode(this);
             throw ex;
         }
     }
+
+    private AgoraObject send(AgoraObject self, agora.patterns.Pattern msg, Client client) throws AgoraError {
+        return self.send(msg, client, cache());
+    }
+
+    private InlineCache cache() {
+        if (cache == null) cache = new InlineCache();
+        return cache;
+    }
+
+    public void markTailSends() {
+        tail = true;
+    }
+
+    public boolean isTailSend() {
+        return tail;
+    }
+
+    /**
+     * @return True if the message is currently specialised to arithmetic (see NumericSend).
+     */
+    public boolean isSpecialised() {
+        return numericSend != null;
+    }
+
+    /**
+     * Evaluates the message as specialised to arithmetic: the result is computed in its lane
+     * and only upped here. If the specialisation no longer applies, the message is sent as
+     * usual and specialised anew.
+     */
+    private AgoraObject evalSpecialised(Context context) throws AgoraError {
+        var specialisation = numericSend;
+        if (!specialisation.applies()) {
+            numericSend = null;
+            generic = false;
+            return eval(context);
+        }
+        var up = AgoraGlobals.current().up;
+        try {
+            return switch (specialisation.result()) {
+                case INTEGER -> up.up(evalInteger(context, null));
+                case FLOAT -> up.up(evalFloat(context, null));
+                case BOOLEAN -> up.up(evalBoolean(context, null));
+            };
+        } catch (UnexpectedValue ex) {
+            return ex.value();
+        }
+    }
+
+    int evalInteger(Context context, MethodsGenerator frame) throws AgoraError {
+        var specialisation = numericSend;
+        if (specialisation == null || specialisation.result() != NumericSend.Lane.INTEGER || !specialisation.applies())
+            return super.evalInteger(context, frame);
+        try {
+            var argument = argument(context, specialisation);
+            return specialisation.integer(receiver(context, specialisation, argument), argument);
+        } catch (UnexpectedValue ex) {
+            return integer(ex.value(), frame);
+        } catch (AgoraError ex) {
+            ex.setCode(this);
+            throw ex;
+        }
+    }
+
+    float evalFloat(Context context, MethodsGenerator frame) throws AgoraError {
+        var specialisation = numericSend;
+        if (specialisation == null || specialisation.result() != NumericSend.Lane.FLOAT || !specialisation.applies())
+            return super.evalFloat(context, frame);
+        try {
+            var argument = argument(context, specialisation);
+            return specialisation.real(receiver(context, specialisation, argument), argument);
+        } catch (UnexpectedValue ex) {
+            return real(ex.value(), frame);
+        } catch (AgoraError ex) {
+            ex.setCode(this);
+            throw ex;
+        }
+    }
+
+    boolean evalBoolean(Context context, MethodsGenerator frame) throws AgoraError {
+        var specialisation = numericSend;
+        if (specialisation == null || specialisation.result() != NumericSend.Lane.BOOLEAN || !specialisation.applies())
+            return super.evalBoolean(context, frame);
+        try {
+            var argument = argument(context, specialisation);
+            return specialisation.test(receiver(context, specialisation, argument), argument);
+        } catch (UnexpectedValue ex) {
+            return test(ex.value(), frame);
+        } catch (AgoraError ex) {
+            ex.setCode(this);
+            throw ex;
+        }
+    }
+
+    /**
+     * Evaluates the argument of a specialised message in its lane. If it does not fit the lane,
+     * the message is sent after all, and its result is thrown instead.
+     */
+    private double argument(Context context, NumericSend specialisation) throws AgoraError {
+        var operand = ((UserOperatorPattern) pattern).getOperand();
+        try {
+            return specialisation.argument() == NumericSend.Lane.INTEGER
+                    ? operand.evalInteger(context, null)
+                    : operand.evalFloat(context, null);
+        } catch (UnexpectedValue ex) {
+            throw new UnexpectedValue(deoptimise(context, ex.value(), null));
+        }
+    }
+
+    /**
+     * Evaluates the receiver of a specialised message in its lane (see 'argument').
+     */
+    private double receiver(Context context, NumericSend specialisation, double argument) throws AgoraError {
+        try {
+            return specialisation.receiver() == NumericSend.Lane.INTEGER
+                    ? receiver.evalInteger(context, specialisation.numbers())
+                    : receiver.evalFloat(context, specialisation.numbers());
+        } catch (UnexpectedValue ex) {
+            var boxed = specialisation.box(argument, specialisation.argument());
+            throw new UnexpectedValue(deoptimise(context, boxed, ex.value()));
+        }
+    }
+
+    /**
+     * Sends the message after all, when the guard of its specialisation failed. The message
+     * will not be specialised anymore.
+     *
+     * @param argument The value of the argument.
+     * @param self     The value of the receiver, or null if it has not been evaluated yet.
+     */
+    private AgoraObject deoptimise(Context context, AgoraObject argument, AgoraObject self) throws AgoraError {
+        try {
+            if (self == null) self = receiver.eval(context);
+            numericSend = null;
+            generic = true;
+            return send(self, pattern.makePattern(context), context.newClient(argument));
+        } catch (AgoraError ex) {
+            ex.setCode(this);
+            throw ex;
+        }
+    }
+
+    /**
+     * Rewrites the message to a specialised version after it was sent for the first time.
+     */
+    private void specialise(AgoraObject self, agora.patterns.Pattern msg, Client client) {
+        generic = true;
+        if (!AgoraGlobals.current().options.specialise || !(pattern instanceof UserOperatorPattern)) return;
+        numericSend = NumericSend.specialise(self, msg, (AgoraObject) client.actual(0));
+    }
 }
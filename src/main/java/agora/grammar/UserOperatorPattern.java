@@ -7,6 +7,7 @@ import agora.patterns.OperatorPattern;
 import agora.runtime.Client;
 import agora.runtime.Context;
 
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -98,6 +99,15 @@ public class UserOperatorPattern extends UserPattern {
         throw ex;
     }
 
+    /**
+     * The operand is the only argument of an operator pattern.
+     *
+     * @return A list containing the operand.
+     */
+    public List<Expression> arguments() {
+        return List.of(operand);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -4,7 +4,7 @@ import agora.errors.AgoraError;
 import agora.errors.ProgramError;
 import agora.objects.AgoraObject;
 import agora.objects.FormalsAndPattern;
-import agora.patterns.KeywordPattern;
+import agora.objects.InlineCache;
 import agora.reflection.Reified;
 import agora.reflection.Unary;
 import agora.runtime.Category;
@@ -21,6 +21,17 @@ import java.util.List;
  * Last change:  E    16 Nov 97    2:04 pm
  */
 abstract public class UserPattern extends Pattern {
+    /**
+     * The inline cache used when the pattern is sent to the private part.
+     * It is created the first time the pattern is evaluated that way.
+     */
+    private transient InlineCache cache;
+
+    /**
+     * True if the pattern is in tail position of a method body.
+     */
+    private transient boolean tail;
+
     /**
      * Method to evaluate a user pattern.
      *
@@ -33,7 +44,7 @@ abstract public class UserPattern extends Pattern {
     public AgoraObject eval(Context context) throws AgoraError {
         try {
             if (Category.contains(context.getCategory(), Category.flags))
-                return AgoraGlobals.glob.up.up(
+                return AgoraGlobals.current().up.up(
                         new FormalsAndPattern(
                                 makeFormals(context),
                                 makePattern(context),
@@ -43,13 +54,31 @@ abstract public class UserPattern extends Pattern {
 
             var client = makeClient(context, context.getSelf().wrap());
             client.actualsEval(context);
-            return context.getPrivate().delegate(makePattern(context), client, context);
+            if (cache == null) cache = new InlineCache();
+            if (tail && context.allowsTailCalls())
+                return context.tailCall().delegate(context.getPrivate(), makePattern(context), client, cache, context, this);
+            return cache.delegate(context.getPrivate(), makePattern(context), client, context);
         } catch (AgoraError ex) {
             ex.setCode(this);
             throw ex;
         }
     }
 
+    public void markTailSends() {
+        tail = true;
+    }
+
+    public boolean isTailSend() {
+        return tail;
+    }
+
+    /**
+     * Returns the expressions that are the actual arguments of the pattern.
+     *
+     * @return The argument expressions, from left to right.
+     */
+    public abstract List<Expression> arguments();
+
     /**
      * Implements the RAISE reifier. Raises an AgoraException with the receiving pattern as content.
      *
@@ -61,19 +90,14 @@ abstract public class UserPattern extends Pattern {
     @Unary(value = "RAISE")
     @Reified
     public AgoraObject raise(Context context) throws AgoraError {
-        var agoraError = new KeywordPattern(List.of("agoraError:"));
         var pattern = makePattern(context);
         var client = makeClient(context, null);
         client.actualsEval(context);
         if (agoraError.equals(pattern)) {
-            var actuals = client.getActuals();
-            if (((AgoraObject) actuals[0]).down() instanceof AgoraError e) throw e;
+            if (((AgoraObject) client.actual(0)).down() instanceof AgoraError e) throw e;
             throw new ProgramError("agoraError: is a reserved exception pattern. Its argument must be an exception.");
         }
-        var exception = context.getException();
-        exception.setPattern(pattern);
-        exception.setClient(client);
-        throw exception;
+        throw context.getException().raised(pattern, client);
     }
 
     /**
@@ -89,7 +113,7 @@ abstract public class UserPattern extends Pattern {
         var pattern = makePattern(context);
         var client = makeClient(context, context.getSelf().wrap());
         client.actualsEval(context);
-        return context.getParent().delegate(pattern, client, context);
+        return AgoraGlobals.current().lookups().delegate(context.getParent(), pattern, client, context);
     }
 }
 
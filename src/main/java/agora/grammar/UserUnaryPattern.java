@@ -1,11 +1,18 @@
 package agora.grammar;
 
+import agora.attributes.VariableGetAttribute;
 import agora.errors.AgoraError;
 import agora.objects.AgoraObject;
+import agora.objects.CountingFrame;
+import agora.objects.MethodsGenerator;
+import agora.objects.SlotFrame;
 import agora.patterns.UnaryPattern;
+import agora.runtime.Category;
 import agora.runtime.Client;
 import agora.runtime.Context;
+import agora.tools.AgoraGlobals;
 
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -18,6 +25,13 @@ import java.util.Objects;
 public class UserUnaryPattern extends UserPattern {
     protected UnaryPattern unary;
 
+    /**
+     * As long as the pattern has only been used to read variables from the private part, it
+     * reads them directly, without making a client and a context to delegate the pattern. This
+     * becomes true the first time the pattern turns out to name something else.
+     */
+    private transient boolean generic;
+
     /**
      * Creates a new user unary pattern.
      *
@@ -37,6 +51,41 @@ public class UserUnaryPattern extends UserPattern {
         return unary.pattern();
     }
 
+    /**
+     * Evaluates the pattern. If the pattern names a variable of the private part, the variable is
+     * read directly; otherwise, the pattern is delegated as usual.
+     *
+     * @param context The environment in which the pattern is evaluated.
+     * @return The Agora Object associated with this pattern expression.
+     * @throws agora.errors.AgoraError When something goes wrong during evaluation.
+     */
+    public AgoraObject eval(Context context) throws AgoraError {
+        if (!generic && AgoraGlobals.current().options.specialise && !Category.contains(context.getCategory(), Category.flags)) {
+            if (context.getPrivate() instanceof SlotFrame frame) {
+                var value = frame.read(unary);
+                if (value != null) return value;
+            }
+            var holder = context.getPrivate().lookup(unary, null);
+            if (holder instanceof CountingFrame loop && loop.counts(unary))
+                return AgoraGlobals.current().up.up(loop.count());
+            if (holder != null && holder.getHashTable().get(unary) instanceof VariableGetAttribute variable)
+                return holder.read(variable);
+            generic = true;
+        }
+        return super.eval(context);
+    }
+
+    /**
+     * Evaluates the pattern in the integer lane. The variable of a counting loop the pattern
+     * is evaluated in is read without upping it.
+     */
+    int evalInteger(Context context, MethodsGenerator frame) throws AgoraError {
+        if (!generic && AgoraGlobals.current().options.specialise && !Category.contains(context.getCategory(), Category.flags) &&
+                context.getPrivate() instanceof CountingFrame loop && loop.counts(unary))
+            return loop.count();
+        return super.evalInteger(context, frame);
+    }
+
     /**
      * Unparses the user unary pattern towards a string.
      *
@@ -84,6 +133,15 @@ public class UserUnaryPattern extends UserPattern {
         return new String[0];
     }
 
+    /**
+     * A unary pattern has no arguments.
+     *
+     * @return An empty list.
+     */
+    public List<Expression> arguments() {
+        return List.of();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
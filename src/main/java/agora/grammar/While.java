@@ -0,0 +1,45 @@
+package agora.grammar;
+
+import agora.errors.AgoraError;
+import agora.objects.AgoraObject;
+import agora.runtime.Context;
+import agora.tools.AgoraGlobals;
+
+/**
+ * The lowered form of WHILETRUE: and WHILEFALSE: (see Expression.whileTrue). The receiver is
+ * the condition, which is evaluated in the boolean lane before every iteration.
+ */
+public final class While extends BuiltinReifierMessage {
+    /**
+     * The value of the condition for which the body is evaluated.
+     */
+    private final boolean expected;
+    private final Expression body;
+
+    While(Expression receiver, ReifPattern pattern, String builtin, boolean expected, Expression body) {
+        super(receiver, pattern, builtin);
+        this.expected = expected;
+        this.body = body;
+    }
+
+    /**
+     * @return The value of the condition for which the body is evaluated.
+     */
+    public boolean expected() {
+        return expected;
+    }
+
+    /**
+     * @return The expression evaluated on every iteration.
+     */
+    public Expression body() {
+        return body;
+    }
+
+    AgoraObject evalBuiltin(Context context) throws AgoraError {
+        var result = AgoraGlobals.current().up.up(null);
+        while (condition(receiver, context) == expected)
+            result = body.evalBody(context);
+        return result;
+    }
+}
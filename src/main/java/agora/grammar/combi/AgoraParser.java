@@ -51,10 +51,10 @@ public class AgoraParser {
             .then(word().star());
     private static final Parser<Expression> userUnary = userIdentifier
             .flatten()
-            .map(UnaryPattern::new)
+            .map(UnaryPattern::of)
             .map(UserUnaryPattern::new);
     private static final Parser<Expression> userOperator = any("!@#$%^&*-=+<>/.,|?").plus().flatten()
-            .map(OperatorPattern::new)
+            .map(OperatorPattern::of)
             .then(choice(factor, userMessage(userUnary)))
             .map(x -> new UserOperatorPattern(x.first(), x.second()));
 
@@ -64,7 +64,7 @@ public class AgoraParser {
 
     private static final Parser<Expression> userKeyword = userIdentifier.then(character(':')).flatten()
             .then(choice(factor, userMessage(userOperator), userMessage(userUnary))).plus()
-            .map(x -> new UserKeywordPattern(new KeywordPattern(x.stream().map(Cell::first).toList()), x.stream().map(Cell::second).toList()));
+            .map(x -> new UserKeywordPattern(KeywordPattern.of(x.stream().map(Cell::first).toList()), x.stream().map(Cell::second).toList()));
 
     private static final Parser<Expression> userMessage = choice(
             userMessage(userOperator),
@@ -75,14 +75,14 @@ public class AgoraParser {
     private static final Parser<Cell<Character, List<Character>>> reifiedIdentifier = upperCase.then(upperCase.or(digit()).star());
     private static final Parser<Expression> reifiedUnary = reifiedIdentifier
             .flatten()
-            .map(UnaryReifierPattern::new)
+            .map(UnaryReifierPattern::of)
             .map(ReifUnaryPattern::new);
     private static final Parser<Expression> reifiedKeyword = reifiedIdentifier.then(character(':')).flatten()
             .then(choice(factor, reifiedMessage(reifiedUnary))).plus()
-            .map(x -> new ReifKeywordPattern(new KeywordReifierPattern(x.stream().map(Cell::first).toList()), x.stream().map(Cell::second).toList()));
+            .map(x -> new ReifKeywordPattern(KeywordReifierPattern.of(x.stream().map(Cell::first).toList()), x.stream().map(Cell::second).toList()));
 
     private static Parser<Expression> reifiedMessage(Parser<Expression> parser) {
-        return factor.then(parser).map(x -> new ReifierMessage(x.first(), (ReifPattern) x.second()));
+        return factor.then(parser).map(x -> ReifierMessage.of(x.first(), (ReifPattern) x.second()));
     }
 
     private static final Parser<Expression> reifiedMessage = choice(
@@ -96,5 +96,5 @@ public class AgoraParser {
     private static final Parser<Expression> block = skip(character('{')).then(expressions).skip(character('}'))
             .map(Block::new);
     private static final Parser<Expression> parenthesized = skip(character('(')).then(expression).skip(character(')'));
-    public static final Parser<Expression> parser = expression.end();
+    public static final Parser<Expression> parser = expression.end().map(Folding::optional);
 }
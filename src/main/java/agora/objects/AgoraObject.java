@@ -5,6 +5,7 @@ import agora.patterns.Pattern;
 import agora.runtime.Category;
 import agora.runtime.Client;
 import agora.runtime.ReifierClient;
+import agora.tools.AgoraGlobals;
 
 import java.io.Serializable;
 
@@ -37,13 +38,39 @@ public record AgoraObject(IdentityGenerator objectID) implements Serializable {
      * @see ReifierClient
      */
     public AgoraObject send(Pattern msg, Client client) throws AgoraError {
-        return objectID.delegate(
+        var methods = objectID.getMe();
+        return AgoraGlobals.current().lookups().delegate(
+                methods,
                 msg,
                 client,
                 client.newContext(
                         Category.emptyCategory,
                         objectID,
-                        objectID.getMe()
+                        methods
+                )
+        );
+    }
+
+    /**
+     * Send a message to the Agora object through the inline cache of a send site.
+     * The outcome is the same as that of 'send' without a cache.
+     *
+     * @param msg    The pattern of the message to be sent.
+     * @param client A client object that contains the actual arguments of the message.
+     * @param cache  The inline cache of the site sending the message.
+     * @return The Result of sending the message.
+     * @throws AgoraError If inside the object an error occurs, this exception is thrown.
+     */
+    public AgoraObject send(Pattern msg, Client client, InlineCache cache) throws AgoraError {
+        var methods = objectID.getMe();
+        return cache.delegate(
+                methods,
+                msg,
+                client,
+                client.newContext(
+                        Category.emptyCategory,
+                        objectID,
+                        methods
                 )
         );
     }
@@ -0,0 +1,222 @@
+package agora.objects;
+
+import agora.attributes.Attribute;
+import agora.attributes.VariableContainer;
+import agora.attributes.VariableGetAttribute;
+import agora.attributes.VariableSetAttribute;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * The variables that the method frames of an object share with the frames of its clones.
+ * Cloning an object does not copy its method tables: the frames of the clone and those of the
+ * prototype share them (see InternalGenerator.copy), and hence they share the variable
+ * containers in them too. Each side of a cloning gets one of these, shared by all its frames,
+ * so that a public variable that is also local stays one variable. The first write to a
+ * shared container through a frame copies it for the side of that frame, and from then on the
+ * frames of that side read and write the copy. Containers a side created or copied itself are
+ * written in place until it is cloned again.
+ * Only plain variable containers are shared that way: the slots and loop variables of frames
+ * belong to the frame, which is copied eagerly.
+ * Clones may be used by evaluations on several threads. Reading a variable takes no lock: the
+ * state of a side is replaced rather than changed (see State), and only changes lock the side.
+ * Cloning locks only the sides of the frames it copies, so clonings of unrelated objects do
+ * not wait for each other.
+ */
+public final class CopyOnWrite implements Serializable {
+    /**
+     * The state of a side: the copies of shared containers that it made, by original, and the
+     * containers that no other side can see. Neither is changed once the state is in place.
+     */
+    private record State(Map<VariableContainer, VariableContainer> copies,
+                         Set<VariableContainer> owned) implements Serializable {
+        private static final State empty = new State(Map.of(), Set.of());
+
+        State withCopy(VariableContainer variable, VariableContainer copy) {
+            var copies = new IdentityHashMap<>(this.copies);
+            copies.put(variable, copy);
+            return new State(copies, with(copy));
+        }
+
+        /**
+         * @return The container the side reads and writes for a variable.
+         */
+        VariableContainer seen(VariableContainer variable) {
+            var copy = copies.get(variable);
+            return copy == null ? variable : copy;
+        }
+
+        State withOwned(VariableContainer variable) {
+            return owned.contains(variable) ? this : new State(copies, with(variable));
+        }
+
+        private Set<VariableContainer> with(VariableContainer variable) {
+            var owned = Collections.newSetFromMap(new IdentityHashMap<VariableContainer, Boolean>());
+            owned.addAll(this.owned);
+            owned.add(variable);
+            return owned;
+        }
+    }
+
+    private static final AtomicLong sides = new AtomicLong();
+
+    /**
+     * The order in which two sides are locked to merge them.
+     */
+    private transient long id = sides.getAndIncrement();
+
+    private volatile State state;
+
+    /**
+     * The side this one was merged into, if any.
+     */
+    private volatile CopyOnWrite merged;
+
+    private CopyOnWrite(State state) {
+        this.state = state;
+    }
+
+    /**
+     * Lets the frames that were copied while cloning an object share their method tables with
+     * their originals. The originals end up on one side, which they already shared with frames
+     * they were copied from or into if any, and the copies on a new one that starts out seeing
+     * the same variables.
+     *
+     * @param cloned The copies made while cloning, by original.
+     */
+    public static void share(Map<Object, Object> cloned) {
+        CopyOnWrite originals = null;
+        for (var entry : cloned.entrySet())
+            if (entry.getKey() != entry.getValue() && entry.getKey() instanceof InternalGenerator original) {
+                var side = original.sharing();
+                if (side != null) originals = originals == null ? side : join(originals, side);
+            }
+        if (originals == null) originals = new CopyOnWrite(State.empty);
+        var copies = originals.fork();
+        for (var entry : cloned.entrySet())
+            if (entry.getKey() != entry.getValue() && entry.getKey() instanceof InternalGenerator original) {
+                original.share(originals);
+                ((InternalGenerator) entry.getValue()).share(copies);
+            }
+    }
+
+    /**
+     * @return The side this one was merged into, or this side itself.
+     */
+    CopyOnWrite current() {
+        var side = this;
+        while (side.merged != null) side = side.merged;
+        return side;
+    }
+
+    /**
+     * Changes the state of this side, or of the side it was merged into. Only one side is
+     * locked at a time, and a side that is merged while it is being locked is passed on.
+     *
+     * @param change Computes the new state from the current one.
+     * @return The new state.
+     */
+    private State change(UnaryOperator<State> change) {
+        for (var side = current(); ; side = side.current())
+            synchronized (side) {
+                if (side.merged == null) return side.state = change.apply(side.state);
+            }
+    }
+
+    /**
+     * Starts a new side that sees the variables this side sees. Since they share all of them
+     * now, neither owns any container.
+     */
+    private CopyOnWrite fork() {
+        return new CopyOnWrite(change(state -> new State(state.copies(), Set.of())));
+    }
+
+    /**
+     * Merges two sides. The one that takes over the variables of the other is answered. Both
+     * are locked, in the order of their ids, so that threads merging the same sides cannot wait
+     * for each other.
+     */
+    private static CopyOnWrite join(CopyOnWrite one, CopyOnWrite other) {
+        while (true) {
+            one = one.current();
+            other = other.current();
+            if (one == other) return one;
+            var first = one.id < other.id ? one : other;
+            var second = first == one ? other : one;
+            synchronized (first) {
+                synchronized (second) {
+                    if (first.merged == null && second.merged == null) {
+                        first.merge(second);
+                        return first;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes over the variables of another side, whose frames move to this one. Both sides are locked.
+     */
+    private void merge(CopyOnWrite other) {
+        var copies = new IdentityHashMap<>(other.state.copies());
+        copies.putAll(state.copies());
+        var owned = Collections.newSetFromMap(new IdentityHashMap<VariableContainer, Boolean>());
+        owned.addAll(state.owned());
+        owned.addAll(other.state.owned());
+        state = new State(copies, owned);
+        other.merged = this;
+    }
+
+    /**
+     * Remembers that a new attribute of a frame of this side uses a container nobody else sees.
+     */
+    void own(Attribute attribute) {
+        if (attribute instanceof VariableGetAttribute getter) change(state -> state.withOwned(getter.getContents()));
+        else if (attribute instanceof VariableSetAttribute setter) change(state -> state.withOwned(setter.getContents()));
+    }
+
+    /**
+     * @param variable A container in the method table of a frame of this side.
+     * @return The value of the variable as this side sees it.
+     */
+    public AgoraObject read(VariableContainer variable) {
+        return state.seen(variable).read();
+    }
+
+    /**
+     * Writes a variable for this side, copying it first if other sides can see it.
+     *
+     * @param variable A container in the method table of a frame of this side.
+     * @param value    The new value of the variable.
+     */
+    public void write(VariableContainer variable, AgoraObject value) {
+        var state = this.state;
+        var seen = state.seen(variable);
+        if (state.owned().contains(seen) || seen.getClass() != VariableContainer.class) seen.write(value);
+        else copy(variable, value);
+    }
+
+    /**
+     * Writes a variable that other sides may see, copying it for this side unless another
+     * thread did so meanwhile.
+     */
+    private void copy(VariableContainer variable, AgoraObject value) {
+        var state = change(current -> current.owned().contains(current.seen(variable))
+                ? current
+                : current.withCopy(variable, new VariableContainer(value)));
+        state.seen(variable).write(value);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        id = sides.getAndIncrement();
+    }
+}
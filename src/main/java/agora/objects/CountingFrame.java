@@ -0,0 +1,174 @@
+package agora.objects;
+
+import agora.Copier;
+import agora.attributes.Attribute;
+import agora.attributes.VariableContainer;
+import agora.attributes.VariableGetAttribute;
+import agora.errors.AgoraError;
+import agora.patterns.Pattern;
+import agora.patterns.UnaryPattern;
+import agora.runtime.Client;
+import agora.runtime.Context;
+import agora.tools.AgoraGlobals;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The layer a counting loop (FOR:TO:DO: and friends) adds to the private part while it runs.
+ * Rather than installing a read attribute for the loop variable, and writing a newly upped
+ * number in its container on every iteration, the frame keeps the loop variable as an int:
+ * the loop counts by assigning it, and the body reads it without looking it up. Only when
+ * the body reads the variable as an Agora object is its value upped.
+ * Anything the body installs in the frame goes into its method table as usual, and hides
+ * the loop variable if it has the same pattern.
+ */
+public class CountingFrame extends InternalGenerator {
+    private final UnaryPattern variable;
+    private int count;
+
+    /**
+     * The read attribute of the loop variable in the method table view on the frame, made the
+     * first time it is asked for. The frame answers the same attribute every time, such that
+     * caches that remember attributes recognise it.
+     */
+    private transient Attribute counter;
+
+    /**
+     * Creates the frame of a counting loop.
+     *
+     * @param nameOfFrame The name of the frame to be used in inspectors.
+     * @param variable    The pattern reading the loop variable.
+     * @param parent      The private part the loop is evaluated in.
+     */
+    public CountingFrame(String nameOfFrame, UnaryPattern variable, Generator parent) {
+        super(nameOfFrame, new MethodTable(), null, parent);
+        this.privPart = this;
+        this.variable = variable;
+    }
+
+    /**
+     * @return The value of the loop variable.
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Assigns the loop variable. This does not change the outcome of any lookup, so
+     * the dependents of the frame remain valid.
+     *
+     * @param count The new value of the loop variable.
+     */
+    public void count(int count) {
+        this.count = count;
+    }
+
+    /**
+     * @return True if the pattern reads the loop variable.
+     */
+    public boolean counts(Pattern msg) {
+        return variable.equals(msg) && !methods.containsKey(msg);
+    }
+
+    /**
+     * @return True if the message is answered by this frame itself.
+     */
+    public boolean holds(Pattern msg) {
+        return methods.containsKey(msg) || variable.equals(msg);
+    }
+
+    public AgoraObject delegate(Pattern msg, Client client, Context context) throws AgoraError {
+        if (counts(msg)) return AgoraGlobals.current().up.up(count);
+        return super.delegate(msg, client, context);
+    }
+
+    public MethodsGenerator lookup(Pattern msg, Dependent dependent) {
+        addDependent(dependent);
+        return holds(msg) ? this : parent.lookup(msg, dependent);
+    }
+
+    /**
+     * Returns a view on the frame as a method table: the loop variable appears as a read attribute.
+     */
+    public Map<Pattern, Attribute> getHashTable() {
+        return new AbstractMap<>() {
+            public Attribute get(Object key) {
+                if (key instanceof Pattern msg && counts(msg)) return counter();
+                return methods.get(key);
+            }
+
+            public boolean containsKey(Object key) {
+                return key instanceof Pattern msg && holds(msg);
+            }
+
+            public Attribute put(Pattern key, Attribute value) {
+                var previous = get(key);
+                installPattern(key, value);
+                return previous;
+            }
+
+            public Set<Entry<Pattern, Attribute>> entrySet() {
+                return new AbstractSet<>() {
+                    public Iterator<Entry<Pattern, Attribute>> iterator() {
+                        return entries().iterator();
+                    }
+
+                    public int size() {
+                        return entries().size();
+                    }
+                };
+            }
+        };
+    }
+
+    private Attribute counter() {
+        if (counter == null) counter = new VariableGetAttribute(new Counter(this));
+        return counter;
+    }
+
+    public CountingFrame copy(Copier copier) {
+        var result = new CountingFrame(name(), variable, null);
+        result.count = count;
+        result.methods = methods;
+        copier.copy(parent, copy -> result.parent = copy);
+        return result;
+    }
+
+    private ArrayList<Map.Entry<Pattern, Attribute>> entries() {
+        var result = new ArrayList<Map.Entry<Pattern, Attribute>>(methods.entrySet());
+        if (counts(variable)) result.add(Map.entry(variable, getHashTable().get(variable)));
+        return result;
+    }
+
+    /**
+     * A variable container that is the loop variable of a frame. It is what the read attribute
+     * of the method table view on a frame operates on.
+     */
+    private static class Counter extends VariableContainer {
+        private CountingFrame frame;
+
+        Counter(CountingFrame frame) {
+            super(null);
+            this.frame = frame;
+        }
+
+        public void write(AgoraObject value) {
+            if (value.down() instanceof Integer i) frame.count = i;
+        }
+
+        public AgoraObject read() {
+            return AgoraGlobals.current().up.up(frame.count);
+        }
+
+        public VariableContainer copy(Copier copier) {
+            var result = new Counter(null);
+            copier.copy(frame, copy -> result.frame = copy);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package agora.objects;
+
+/**
+ * A dependent is anything that caches the outcome of looking up messages in
+ * generators: inline caches, lookup caches, compiled code and so on. It registers
+ * itself with every generator it depends on (see Generator.addDependent) and is
+ * invalidated as soon as one of these generators is changed, for example by a
+ * VARIABLE:, METHOD: or MIXIN: declaration.
+ */
+public interface Dependent {
+    /**
+     * Called when a generator this dependent registered with has changed. A
+     * dependent is called only once per registration: to remain informed it has
+     * to register again.
+     *
+     * @param changed The generator that has changed.
+     */
+    void invalidate(Generator changed);
+}
@@ -1,5 +1,6 @@
 package agora.objects;
 
+import agora.Copier;
 import agora.awt.Inspector;
 import agora.errors.AgoraError;
 import agora.errors.MessageNotUnderstood;
@@ -9,7 +10,6 @@ import agora.runtime.Context;
 import agora.tools.AgoraGlobals;
 
 import java.io.Serializable;
-import java.util.Map;
 
 /**
  * This class of empty generators is the closing generator of all object generators.
@@ -65,6 +65,18 @@ public class EmptyGenerator extends Generator implements Serializable {
         throw new MessageNotUnderstood(msg, context.getSelf().wrap());
     }
 
+    /**
+     * An empty generator contains no methods at all.
+     *
+     * @param msg       The message pattern to be looked up.
+     * @param dependent A cache that remembers the outcome, or null.
+     * @return Always null since no message is understood.
+     */
+    public MethodsGenerator lookup(Pattern msg, Dependent dependent) {
+        addDependent(dependent);
+        return null;
+    }
+
     /**
      * Opens an inspector for the object.
      *
@@ -75,7 +87,7 @@ public class EmptyGenerator extends Generator implements Serializable {
      */
     public void inspect(Context context) throws AgoraError {
         var d = new Inspector(
-                AgoraGlobals.glob.window,
+                AgoraGlobals.current().window,
                 name,
                 null,
                 null,
@@ -91,17 +103,13 @@ public class EmptyGenerator extends Generator implements Serializable {
 
     /**
      * Makes a deep clone of the generator by copying all the constituents of the
-     * identity. The parameter is a clone map such that a thing is not copied twice.
+     * identity. The copier makes sure a thing is not copied twice.
      *
-     * @param cache A table of already-copied-things such that nothing gets copied twice.
+     * @param copier The copier that copies the constituents.
      * @return A deep copy of the receiver.
      */
-    public EmptyGenerator copy(Map<Object, Object> cache) {
-        var existing = cache.get(this);
-        if (existing != null) return (EmptyGenerator) existing;
-        var result = new EmptyGenerator(name());
-        cache.put(this, result);
-        return result;
+    public EmptyGenerator copy(Copier copier) {
+        return new EmptyGenerator(name());
     }
 
 }
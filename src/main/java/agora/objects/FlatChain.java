@@ -0,0 +1,85 @@
+package agora.objects;
+
+import agora.attributes.Attribute;
+import agora.errors.AgoraError;
+import agora.patterns.Pattern;
+import agora.runtime.Client;
+import agora.runtime.Context;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A flattened view of the delegation chain behind a frame: for every pattern in the method
+ * tables of the frames the chain passes, which frame answers it with which attribute. Objects
+ * that had many mixins or views applied have long chains, and a message that misses their
+ * first frame would otherwise ask every frame in turn.
+ * Only the frames that just pass a message on when they do not have it are flattened, i.e.
+ * internal and primitive method frames. The chain ends at the first other generator (the
+ * identity of the object, an activation frame, ...), to which misses are delegated as usual.
+ * The view depends on all the frames it flattened, and on the frame it ends at: as soon as one
+ * of them changes, the frame owning the view drops it. It registers with each frame before
+ * reading it, so that a change made meanwhile on another thread is not missed.
+ */
+final class FlatChain implements Dependent {
+    private record Found(MethodsGenerator holder, Attribute attribute) {
+    }
+
+    private final InternalGenerator owner;
+    private final Map<Pattern, Found> found = new HashMap<>();
+    private Generator tail;
+
+    private FlatChain(InternalGenerator owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * Flattens the delegation chain behind a frame.
+     *
+     * @param owner The frame whose parent chain is flattened.
+     * @param depth The least number of frames worth flattening.
+     * @return The flattened chain, or null if the chain has less frames than 'depth'.
+     */
+    static FlatChain of(InternalGenerator owner, int depth) {
+        var frames = 0;
+        for (var frame = owner.getParent(); flattens(frame); frame = ((MethodsGenerator) frame).getParent()) frames++;
+        if (frames == 0 || frames < depth) return null;
+        var chain = new FlatChain(owner);
+        var frame = owner.getParent();
+        for (; flattens(frame); frame = ((MethodsGenerator) frame).getParent()) {
+            var methods = (MethodsGenerator) frame;
+            methods.addDependent(chain);
+            for (var entry : methods.getHashTable().entrySet())
+                chain.found.putIfAbsent(entry.getKey(), new Found(methods, entry.getValue()));
+        }
+        if (frame != null) frame.addDependent(chain);
+        chain.tail = frame;
+        return chain;
+    }
+
+    private static boolean flattens(Generator frame) {
+        return frame instanceof PrimitiveGenerator || frame != null && frame.getClass() == InternalGenerator.class;
+    }
+
+    /**
+     * Delegates a message exactly as the first frame of the chain would do.
+     */
+    AgoraObject delegate(Pattern msg, Client client, Context context) throws AgoraError {
+        var result = found.get(msg);
+        return result == null ?
+                tail.delegate(msg, client, context) :
+                result.holder().perform(result.attribute(), msg, client, context);
+    }
+
+    /**
+     * Looks up a message exactly as the first frame of the chain would do.
+     */
+    MethodsGenerator lookup(Pattern msg, Dependent dependent) {
+        var result = found.get(msg);
+        return result == null ? tail.lookup(msg, dependent) : result.holder();
+    }
+
+    public void invalidate(Generator changed) {
+        owner.unchain(this);
+    }
+}
@@ -0,0 +1,86 @@
+package agora.objects;
+
+import agora.patterns.KeywordPattern;
+import agora.patterns.Pattern;
+import agora.patterns.UnaryPattern;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The layout of the activation frames of a method: which variables a frame has and in
+ * which slot each of them is kept. The first slots are those of the formal arguments,
+ * followed by those of the local variables the method body declares. A layout is computed
+ * once, when the method is defined, and is shared by all activations of the method.
+ *
+ * @see SlotFrame
+ */
+public class FrameLayout implements Serializable {
+    private final Map<Pattern, Integer> readers = new HashMap<>();
+    private final Map<Pattern, Integer> writers = new HashMap<>();
+    private final UnaryPattern[] names;
+
+    /**
+     * The slot of each name the layout was made with, in the order they were given.
+     */
+    private final int[] positions;
+
+    /**
+     * Creates a layout with a slot per name. A name occurring twice gets one slot.
+     *
+     * @param names The names of the variables, starting with the formal arguments.
+     */
+    public FrameLayout(List<String> names) {
+        positions = new int[names.size()];
+        for (var i = 0; i < positions.length; i++) {
+            var reader = UnaryPattern.of(names.get(i));
+            var slot = readers.get(reader);
+            if (slot == null) {
+                slot = readers.size();
+                writers.put(reader.makeWritePattern(), slot);
+                readers.put(reader, slot);
+            }
+            positions[i] = slot;
+        }
+        this.names = new UnaryPattern[readers.size()];
+        readers.forEach((reader, slot) -> this.names[slot] = (UnaryPattern) reader);
+    }
+
+    /**
+     * @return The number of slots of a frame with this layout.
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * @return The slot of the name at a position of the names the layout was made with. Formal
+     * arguments with the same name share a slot, which holds the last of their actuals.
+     */
+    public int slotOf(int position) {
+        return positions[position];
+    }
+
+    /**
+     * @return The slot read by a pattern, or -1 if the pattern reads no variable of the frame.
+     */
+    public int reader(Pattern msg) {
+        return msg instanceof UnaryPattern ? readers.getOrDefault(msg, -1) : -1;
+    }
+
+    /**
+     * @return The slot written by a pattern, or -1 if the pattern writes no variable of the frame.
+     */
+    public int writer(Pattern msg) {
+        return msg instanceof KeywordPattern ? writers.getOrDefault(msg, -1) : -1;
+    }
+
+    /**
+     * @return The pattern reading a slot.
+     */
+    UnaryPattern readerOf(int slot) {
+        return names[slot];
+    }
+}
@@ -7,6 +7,10 @@ import agora.runtime.Client;
 import agora.runtime.Context;
 
 import java.io.Serializable;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import static java.util.Collections.newSetFromMap;
 
 /**
  * Internally, an Agora object is considered as a list of frames each containing
@@ -28,6 +32,18 @@ public abstract class Generator implements Serializable, Copyable {
      */
     protected String name;
 
+    /**
+     * The modification stamp of the generator. It is incremented by every operation
+     * that changes the outcome of a lookup through this generator.
+     */
+    protected transient volatile int version;
+
+    /**
+     * The caches that depend on the current state of this generator. They are
+     * held weakly, such that a cache that is no longer used can disappear.
+     */
+    private transient Set<Dependent> dependents;
+
     /**
      * Creates a new generator with a given name.
      *
@@ -51,6 +67,62 @@ public abstract class Generator implements Serializable, Copyable {
      *                                 during evaluation of the method associated to the pattern.
      */
     public abstract AgoraObject delegate(Pattern msg, Client client, Context context) throws AgoraError;
+
+    /**
+     * Looks up a message in the generator without invoking anything. This follows
+     * exactly the same path as 'delegate' does and is used by inline caches to find
+     * out which method frame answers a message.
+     *
+     * @param msg       The message pattern to be looked up.
+     * @param dependent A cache that remembers the outcome. It is registered with every
+     *                  generator the lookup passes, and may be null.
+     * @return The method frame containing an attribute for the pattern, or null
+     * when the message would not be understood.
+     */
+    public abstract MethodsGenerator lookup(Pattern msg, Dependent dependent);
+
+    /**
+     * Returns the modification stamp of the generator.
+     *
+     * @return A number that changes each time a lookup through this generator might
+     * give a different outcome.
+     */
+    public int version() {
+        return version;
+    }
+
+    /**
+     * Registers a cache that depends on the current state of this generator. The
+     * dependent is invalidated, and forgotten, the next time the generator changes.
+     *
+     * @param dependent The cache to be invalidated when this generator changes. When this
+     *                  is null, nothing is registered.
+     */
+    public void addDependent(Dependent dependent) {
+        if (dependent == null) return;
+        synchronized (this) {
+            if (dependents == null) dependents = newSetFromMap(new WeakHashMap<>(4));
+            dependents.add(dependent);
+        }
+    }
+
+    /**
+     * Must be called by every operation that changes the outcome of a lookup
+     * through this generator. It bumps the modification stamp and invalidates
+     * all caches that depend on the generator.
+     * The caches are invalidated after the generator is unlocked: invalidating one may
+     * change other generators, which evaluations on other threads may have locked.
+     */
+    protected void changed() {
+        Dependent[] invalidated;
+        synchronized (this) {
+            version++;
+            if (dependents == null) return;
+            invalidated = dependents.toArray(Dependent[]::new);
+            dependents = null;
+        }
+        for (var each : invalidated) each.invalidate(this);
+    }
     /**
      * To access the name of the generator.
      *
@@ -49,6 +49,19 @@ abstract public class IdentityGenerator extends Generator {
         return this.myMethods.delegate(msg, client, context);
     }
 
+    /**
+     * Looks up a message in the public part contained in the object identity.
+     *
+     * @param msg       The message pattern to be looked up.
+     * @param dependent A cache that remembers the outcome, or null.
+     * @return The method frame containing an attribute for the pattern, or null
+     * when the message would not be understood.
+     */
+    public MethodsGenerator lookup(Pattern msg, Dependent dependent) {
+        addDependent(dependent);
+        return this.myMethods.lookup(msg, dependent);
+    }
+
     /**
      * Get the downed Java version of the object representing this Agora object identity.
      * For upped objects, this simply returns the object that was upped. For ex nihilo created objects,
@@ -82,9 +95,13 @@ abstract public class IdentityGenerator extends Generator {
      * very reason why we !have! object identities in the first place. Using this construction, an
      * object can change its public part, without changing its identity. Hence, this method will be
      * used to implement (destructive) mixin methods.
+     *
+     * @param theContents The new public part of the object.
+     * @throws agora.errors.AgoraError When the public part of the object cannot be changed.
      */
-    public void Change(MethodsGenerator theContents) {
+    public void Change(MethodsGenerator theContents) throws AgoraError {
         this.myMethods = theContents;
+        changed();
     }
 
     /**
@@ -0,0 +1,131 @@
+package agora.objects;
+
+import agora.attributes.Attribute;
+import agora.errors.AgoraError;
+import agora.patterns.Pattern;
+import agora.runtime.Client;
+import agora.runtime.Context;
+import agora.tools.AgoraGlobals;
+
+import java.util.Arrays;
+
+/**
+ * A polymorphic inline cache for one message send site. Without it, every send
+ * walks the delegation chain of the receiver frame by frame. The cache remembers,
+ * for the last few method frames a message was delegated to, which frame holds the
+ * attribute and what that attribute is, such that a repeated send can go to the
+ * attribute immediately.
+ * Once more than 'size' different frames have been seen, the site is considered
+ * megamorphic and messages are delegated through the lookup cache of the Agora system.
+ * The cache depends on every generator it has looked a message up in, and is
+ * flushed as soon as one of them changes.
+ * Activation frames of methods are new for every invocation, so the cache skips those
+ * at the start of the lookup that do not answer the message themselves.
+ * When the frame a message is delegated to holds the attribute itself in a shaped table
+ * (see ShapedTable), the cache remembers the shape and the slot instead, so that one entry
+ * serves all the objects made by the same code.
+ */
+public class InlineCache implements Dependent {
+    /**
+     * The number of different receiver frames a site remembers.
+     */
+    public static final int size = 4;
+
+    /**
+     * What a site remembers about one frame a message was delegated to: the frame that
+     * holds the attribute and the attribute, or the shape of the table of the frame and the
+     * slot of the attribute in it.
+     */
+    private record Entry(MethodsGenerator start, MethodsGenerator holder, Attribute attribute, Shape shape, int slot) {
+    }
+
+    private static final Entry[] none = new Entry[0];
+
+    /**
+     * The entries of the cache. Evaluations on several threads may send through the same
+     * site, so the entries are replaced rather than changed, and sends read them without
+     * locking.
+     */
+    private volatile Entry[] entries = none;
+
+    /**
+     * The number of times the cache was flushed, such that an entry that was looked up
+     * while the cache was flushed is not remembered.
+     */
+    private volatile int flushes;
+
+    /**
+     * Forgets all entries of the cache because one of the generators they depend on has changed.
+     *
+     * @param changed The generator that has changed.
+     */
+    public synchronized void invalidate(Generator changed) {
+        flushes++;
+        entries = none;
+    }
+
+    /**
+     * Delegates a message to a method frame, exactly as 'start.delegate' would do.
+     *
+     * @param start   The method frame the message is delegated to.
+     * @param msg     The message pattern. A cache is used for one send site, so this is
+     *                always the same pattern.
+     * @param client  The client object containing the actual parameters.
+     * @param context The knowledge of the receiving object so far.
+     * @return The result of evaluating the attribute associated with the pattern.
+     * @throws AgoraError When the message is not understood or when an error occurs
+     *                    during evaluation of the attribute.
+     */
+    public AgoraObject delegate(MethodsGenerator start, Pattern msg, Client client, Context context) throws AgoraError {
+        start = SlotFrame.skip(start, msg);
+        if (start instanceof SlotFrame || start instanceof CountingFrame) return start.delegate(msg, client, context);
+        var entries = this.entries;
+        for (var entry : entries) {
+            if (entry.start() == start) return entry.holder().perform(entry.attribute(), msg, client, context);
+            if (entry.shape() != null && start.methods instanceof ShapedTable table && entry.shape() == table.shape())
+                return start.perform(table.value(entry.slot()), msg, client, context);
+        }
+        if (entries.length == size) return megamorphic(start, msg, client, context);
+        return miss(start, msg, client, context);
+    }
+
+    /**
+     * Delegates a message through the lookup cache of the Agora system.
+     */
+    private static AgoraObject megamorphic(MethodsGenerator start, Pattern msg, Client client, Context context) throws AgoraError {
+        return AgoraGlobals.current().lookups().delegate(start, msg, client, context);
+    }
+
+    /**
+     * Looks a message up for a frame the cache has no entry for, and remembers the outcome.
+     */
+    private AgoraObject miss(MethodsGenerator start, Pattern msg, Client client, Context context) throws AgoraError {
+        var flushes = this.flushes;
+        var holder = start.lookup(msg, this);
+        if (holder == null) return megamorphic(start, msg, client, context);
+        return holder.perform(remember(flushes, start, holder, msg), msg, client, context);
+    }
+
+    /**
+     * Adds an entry for a frame a message was delegated to, unless the cache was flushed
+     * since the message was looked up or the cache is full by now.
+     *
+     * @return The attribute the message is delegated to.
+     */
+    private synchronized Attribute remember(int flushes, MethodsGenerator start, MethodsGenerator holder, Pattern msg) {
+        var attribute = holder.getHashTable().get(msg);
+        if (flushes != this.flushes || entries.length == size) return attribute;
+        var shape = holder == start ? shape(start) : null;
+        var next = Arrays.copyOf(entries, entries.length + 1);
+        next[entries.length] = new Entry(start, holder, attribute, shape, shape == null ? 0 : shape.slot(msg));
+        entries = next;
+        return attribute;
+    }
+
+    /**
+     * @return The shape of the method table of a frame, or null if its table is not shaped.
+     */
+    private static Shape shape(MethodsGenerator frame) {
+        return frame.methods instanceof ShapedTable table ? table.shape() : null;
+    }
+}
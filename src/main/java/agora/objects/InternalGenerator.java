@@ -1,6 +1,9 @@
 package agora.objects;
 
+import agora.Copier;
 import agora.attributes.Attribute;
+import agora.attributes.VariableGetAttribute;
+import agora.attributes.VariableSetAttribute;
 import agora.awt.Inspector;
 import agora.errors.AgoraError;
 import agora.patterns.Pattern;
@@ -10,9 +13,7 @@ import agora.runtime.Context;
 import agora.tools.AgoraGlobals;
 
 import java.io.Serializable;
-import java.util.Hashtable;
-
-import static java.util.stream.Collectors.toMap;
+import java.util.Map;
 
 /**
  * An internal generator is a frame of methods for ex-nihilo created objects
@@ -29,18 +30,42 @@ public class InternalGenerator extends MethodsGenerator implements Serializable
      */
     protected InternalGenerator privPart;
 
+    /**
+     * The variables this frame shares with the frames of clones or prototypes, or null if
+     * it was never cloned.
+     */
+    private volatile CopyOnWrite sharing;
+
+    /**
+     * True while the methods table is shared with a clone or prototype.
+     */
+    private boolean sharesTable;
+
+    /**
+     * The flattened delegation chain behind this frame, or null (see FlatChain).
+     */
+    private transient volatile FlatChain chain;
+
+    /**
+     * The number of messages this frame passed on to its parent since it was made, or since
+     * its chain last changed. A frame whose chain is still long after 'stable' such messages
+     * flattens it.
+     */
+    private transient int passes;
+    private static final int stable = 64;
+
     /**
      * Creates a new internal generator as part of an object.
      *
      * @param nameOfFrame The name of the generator that has to be used in inspectors.
-     * @param myPart      A hashtable in which the keys are runtime patterns and in which
+     * @param myPart      A table in which the keys are runtime patterns and in which
      *                    the values are attributes. Hence, this is the method table of the generator.
      * @param privPart    An initial private part.
      * @param parentPart  The generator to which this method frame has to be linked
      *                    with a parent-of link.
      */
     public InternalGenerator(String nameOfFrame,
-                             Hashtable<Pattern, Attribute> myPart,
+                             Map<Pattern, Attribute> myPart,
                              InternalGenerator privPart,
                              Generator parentPart) {
         super(nameOfFrame, myPart, parentPart);
@@ -55,9 +80,9 @@ public class InternalGenerator extends MethodsGenerator implements Serializable
      */
     public void inspect(Context context) {
         var d = new Inspector(
-                AgoraGlobals.glob.window,
+                AgoraGlobals.current().window,
                 name,
-                methods,
+                getHashTable(),
                 privPart,
                 parent,
                 this,
@@ -80,7 +105,7 @@ public class InternalGenerator extends MethodsGenerator implements Serializable
      *                                 thrown.
      */
     public InternalGenerator funcAddLayer(String nameOfFrame) throws AgoraError {
-        return new InternalGenerator(nameOfFrame, new Hashtable<>(3), null, this);
+        return new InternalGenerator(nameOfFrame, new ShapedTable(), null, this);
     }
 
     /**
@@ -105,6 +130,7 @@ public class InternalGenerator extends MethodsGenerator implements Serializable
      */
     public void setPrivate(InternalGenerator newPrivate) throws AgoraError {
         this.privPart = newPrivate;
+        changed();
     }
 
     /**
@@ -124,8 +150,112 @@ public class InternalGenerator extends MethodsGenerator implements Serializable
                                 Client client,
                                 Context context) throws AgoraError {
         var lookupResult = this.methods.get(msg);
-        if (lookupResult == null) return parent.delegate(msg, client, context);
-        return lookupResult.doAttributeValue(
+        if (lookupResult != null) return perform(lookupResult, msg, client, context);
+        var chain = flattened();
+        if (chain != null) return chain.delegate(msg, client, context);
+        return parent.delegate(msg, client, context);
+    }
+
+    /**
+     * Looks up a message in this frame and, if it is not there, in the flattened chain behind
+     * it, or else in the parent.
+     *
+     * @param msg       The message pattern to be looked up.
+     * @param dependent A cache that remembers the outcome, or null.
+     * @return The method frame containing an attribute for the pattern, or null
+     * when the message would not be understood.
+     */
+    public MethodsGenerator lookup(Pattern msg, Dependent dependent) {
+        addDependent(dependent);
+        if (methods.containsKey(msg)) return this;
+        var chain = flattened();
+        return chain != null ? chain.lookup(msg, dependent) : parent.lookup(msg, dependent);
+    }
+
+    /**
+     * Called for every message this frame passes on.
+     *
+     * @return The flattened chain behind this frame, or null.
+     */
+    private FlatChain flattened() {
+        var chain = this.chain;
+        return chain != null || ++passes != stable ? chain : flatten(AgoraGlobals.current().options.flattenDepth);
+    }
+
+    /**
+     * Flattens the delegation chain behind this frame (see FlatChain), such that messages
+     * this frame does not have are no longer passed on frame by frame. This happens by
+     * itself for frames with long chains that pass on many messages, but it can also be
+     * asked for, e.g. after applying a lot of mixins to an object.
+     * The frame drops the flattened chain as soon as one of the frames in it changes.
+     *
+     * @param depth The least number of frames worth flattening. A negative number
+     *              turns flattening off.
+     * @return Whether the chain was flattened.
+     */
+    public boolean compact(int depth) {
+        return flatten(depth) != null;
+    }
+
+    /**
+     * Flattens the chain while holding the lock of the frame, so that a frame of the chain
+     * that changes meanwhile on another thread drops it as soon as it is in place.
+     */
+    private synchronized FlatChain flatten(int depth) {
+        return chain = depth < 0 ? null : FlatChain.of(this, depth);
+    }
+
+    /**
+     * Drops a flattened chain because one of its frames changed, which may change the
+     * outcome of a lookup through this frame too.
+     */
+    void unchain(FlatChain chain) {
+        synchronized (this) {
+            if (this.chain != chain) return;
+            this.chain = null;
+            passes = 0;
+        }
+        changed();
+    }
+
+    /**
+     * Re-assigns the parent of this frame, which drops the flattened chain behind it. This
+     * holds the lock of the frame, like 'flatten' and 'unchain', so that a chain flattened
+     * meanwhile on another thread is not left in place behind the new parent.
+     *
+     * @param newParent The new parent after doing the re-assigning.
+     */
+    public void setParent(Generator newParent) {
+        synchronized (this) {
+            chain = null;
+            passes = 0;
+            parent = newParent;
+        }
+        changed();
+    }
+
+    /**
+     * Invokes an attribute of this frame in a context that is completed with
+     * the private part and the parent of this frame.
+     *
+     * @param attribute The attribute found in the method table of this frame.
+     * @param msg       The message pattern that was delegated.
+     * @param client    The client object containing the actual parameters.
+     * @param context   The knowledge of the receiving object so far.
+     * @return The result of evaluating the attribute.
+     * @throws agora.errors.AgoraError When an error occurs during evaluation of the attribute.
+     */
+    public AgoraObject perform(Attribute attribute, Pattern msg, Client client, Context context) throws AgoraError {
+        var sharing = sharing();
+        if (sharing != null) {
+            if (attribute instanceof VariableGetAttribute getter) return sharing.read(getter.getContents());
+            if (attribute instanceof VariableSetAttribute setter) {
+                var value = (AgoraObject) client.actual(0);
+                sharing.write(setter.getContents(), value);
+                return value;
+            }
+        }
+        return attribute.doAttributeValue(
                 msg,
                 client,
                 context.setMultiple(
@@ -136,22 +266,68 @@ public class InternalGenerator extends MethodsGenerator implements Serializable
         );
     }
 
+    public AgoraObject read(VariableGetAttribute variable) {
+        var sharing = sharing();
+        return sharing == null ? variable.read() : sharing.read(variable.getContents());
+    }
+
+    /**
+     * Installs a new attribute, after copying the methods table if it is still shared.
+     *
+     * @param pattern   The new runtime pattern serving as a key in the hashtable.
+     * @param attribute The attribute that will be the value associated to the pattern.
+     */
+    public void installPattern(Pattern pattern, Attribute attribute) {
+        synchronized (this) {
+            if (sharesTable) {
+                methods = methods instanceof ShapedTable table ? new ShapedTable(table) : new MethodTable(methods);
+                sharesTable = false;
+            }
+            var sharing = sharing();
+            if (sharing != null) sharing.own(attribute);
+            methods.put(pattern, attribute);
+        }
+        changed();
+    }
+
+    public void setHashTable(Map<Pattern, Attribute> newTable) {
+        synchronized (this) {
+            sharesTable = false;
+            methods = newTable;
+        }
+        changed();
+    }
+
+    /**
+     * @return The variables this frame shares with clones or prototypes, or null.
+     */
+    CopyOnWrite sharing() {
+        if (sharing != null) sharing = sharing.current();
+        return sharing;
+    }
+
+    /**
+     * Lets this frame share its methods table and variables with other frames (see CopyOnWrite.share).
+     */
+    synchronized void share(CopyOnWrite sharing) {
+        this.sharing = sharing;
+        sharesTable = methods != null;
+    }
+
     /**
-     * Makes a deep clone of the internal generator by copying all the constituents of the
-     * generator. The parameter is a clone map such that a thing is not copied twice.
+     * Makes a clone of the internal generator by copying all the constituents of the
+     * generator, except for the methods table: the clone shares it with the receiver until
+     * either of them changes it (see CopyOnWrite). The copier makes sure a thing is not
+     * copied twice.
      *
-     * @param cache A table of already-copied-things such that nothing gets copied twice.
-     * @return A deep copy of the receiver.
+     * @param copier The copier that copies the parent and the private part.
+     * @return A copy of the receiver.
      */
-    public InternalGenerator copy(Hashtable<Object, Object> cache) {
-        var existing = cache.get(this);
-        if (existing != null) return (InternalGenerator) existing;
+    public InternalGenerator copy(Copier copier) {
         var result = new InternalGenerator(name(), null, null, null);
-        cache.put(this, result);
-        result.parent = (Generator) parent.copy(cache);
-        result.methods = methods.entrySet().stream()
-                .collect(toMap(x -> (Pattern) x.getKey().copy(cache), x -> (Attribute) x.getValue().copy(cache)));
-        result.privPart = privPart.copy(cache);
+        result.methods = methods;
+        copier.copy(parent, copy -> result.parent = copy);
+        copier.copy(privPart, copy -> result.privPart = copy);
         return result;
     }
 }
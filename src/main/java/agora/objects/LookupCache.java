@@ -0,0 +1,204 @@
+package agora.objects;
+
+import agora.attributes.Attribute;
+import agora.errors.AgoraError;
+import agora.errors.MessageNotUnderstood;
+import agora.patterns.Pattern;
+import agora.runtime.Client;
+import agora.runtime.Context;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A lookup cache remembers, for a pattern and the generator it is delegated to,
+ * which method frame answers the pattern with which attribute. Messages that are
+ * not understood are remembered as well, such that code using message not
+ * understood for control flow does not walk the whole delegation chain each time.
+ * The cache holds a bounded number of entries. When it grows beyond that, a clock
+ * hand sweeps the entries and drops those that were not used since it last passed
+ * them, which approximates forgetting the least recently used ones first. An entry
+ * is dropped as soon as one of the generators it passed is changed.
+ * Sends that have no inline cache of their own, and sites that have become
+ * megamorphic, go through the lookup cache of the Agora system they run in
+ * (see AgoraGlobals.lookups).
+ * Evaluations on several threads may share the cache. Reading and storing entries takes
+ * no lock; only one thread at a time sweeps, and the others do not wait for it.
+ */
+public class LookupCache {
+    private final int capacity;
+    private final ConcurrentHashMap<Key, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Held by the thread that moves the clock hand.
+     */
+    private final ReentrantLock sweeping = new ReentrantLock();
+
+    /**
+     * The clock hand: the entries the sweep has not passed yet in its current round.
+     */
+    private Iterator<Entry> hand;
+
+    /**
+     * Creates a new lookup cache.
+     *
+     * @param capacity The maximum number of (pattern, generator) pairs the cache remembers.
+     */
+    public LookupCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new ConcurrentHashMap<>(capacity);
+    }
+
+    /**
+     * Delegates a message to a generator, exactly as 'start.delegate' would do.
+     *
+     * @param start   The generator the message is delegated to.
+     * @param msg     The message pattern to be delegated.
+     * @param client  The client object containing the actual parameters.
+     * @param context The knowledge of the receiving object so far.
+     * @return The result of evaluating the attribute associated with the pattern.
+     * @throws AgoraError When the message is not understood or when an error occurs
+     *                    during evaluation of the attribute.
+     */
+    public AgoraObject delegate(Generator start, Pattern msg, Client client, Context context) throws AgoraError {
+        if (start instanceof MethodsGenerator methods) {
+            start = SlotFrame.skip(methods, msg);
+            if (start instanceof SlotFrame || start instanceof CountingFrame) return start.delegate(msg, client, context);
+        }
+        var entry = lookup(start, msg);
+        if (entry.holder == null) throw new MessageNotUnderstood(msg, context.getSelf().wrap());
+        return entry.holder.perform(entry.attribute, msg, client, context);
+    }
+
+    /**
+     * Looks up which method frame answers a message delegated to a generator.
+     *
+     * @param start The generator the message is delegated to.
+     * @param msg   The message pattern to be looked up.
+     * @return The method frame containing an attribute for the pattern, or null
+     * when the message would not be understood.
+     */
+    public MethodsGenerator holderOf(Generator start, Pattern msg) {
+        return lookup(start, msg).holder;
+    }
+
+    private Entry lookup(Generator start, Pattern msg) {
+        var key = new Key(start, msg);
+        var entry = cached(key);
+        if (entry != null) return entry;
+        entry = new Entry(key);
+        entry.holder = start.lookup(msg, entry);
+        if (entry.holder != null) entry.attribute = entry.holder.getHashTable().get(msg);
+        remember(entry);
+        return entry;
+    }
+
+    private Entry cached(Key key) {
+        var entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        if (!entry.used) entry.used = true;
+        return entry;
+    }
+
+    /**
+     * Stores an entry, unless a generator it passed has changed since it was looked up.
+     * A change that happens while the entry is stored either finds it in the cache or
+     * is seen here, so the entry never outlives it.
+     */
+    private void remember(Entry entry) {
+        if (entry.invalid) return;
+        entries.put(entry.key, entry);
+        if (entry.invalid) entries.remove(entry.key, entry);
+        else if (entries.size() > capacity) sweep();
+    }
+
+    /**
+     * Moves the clock hand on until the cache is back within its capacity. Entries used since
+     * the hand last passed them get another round; the others are dropped. If another thread
+     * is already sweeping, this one leaves it to that thread.
+     */
+    private void sweep() {
+        if (!sweeping.tryLock()) return;
+        try {
+            while (entries.size() > capacity) {
+                if (hand == null || !hand.hasNext()) hand = entries.values().iterator();
+                var entry = hand.next();
+                if (entry.used) entry.used = false;
+                else entries.remove(entry.key, entry);
+            }
+        } finally {
+            sweeping.unlock();
+        }
+    }
+
+    /**
+     * Forgets all entries and resets the statistics.
+     */
+    public void clear() {
+        entries.clear();
+        hits.reset();
+        misses.reset();
+    }
+
+    /**
+     * @return The number of (pattern, generator) pairs currently remembered.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return The number of lookups that were answered from the cache.
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return The number of lookups that had to walk the delegation chain.
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return The fraction of lookups answered from the cache, or 0 if nothing was looked up yet.
+     */
+    public double hitRate() {
+        var hits = hits();
+        var total = hits + misses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    private record Key(Generator start, Pattern msg) {
+    }
+
+    private class Entry implements Dependent {
+        private final Key key;
+        private MethodsGenerator holder;
+        private Attribute attribute;
+        private volatile boolean invalid;
+
+        /**
+         * True if the entry was used since the clock hand last passed it.
+         */
+        private volatile boolean used;
+
+        private Entry(Key key) {
+            this.key = key;
+        }
+
+        public void invalidate(Generator changed) {
+            invalid = true;
+            entries.remove(key, this);
+        }
+    }
+}
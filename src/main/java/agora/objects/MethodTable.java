@@ -0,0 +1,224 @@
+package agora.objects;
+
+import agora.attributes.Attribute;
+import agora.patterns.Pattern;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The method table of frames that are not shaped (see ShapedTable): formals frames, loop
+ * scopes, the root parts, the primitive tables, and so on. Most of these hold one to four
+ * patterns, so the table keeps its patterns and attributes in two small arrays, in the order
+ * they were installed, and looks a pattern up by scanning them. Only when the table grows
+ * beyond 'scanned' patterns does it add an index: an open addressing table of positions in
+ * these arrays, probed by the hash of the pattern. Patterns are interned (see Symbol), so
+ * they are mostly found by identity.
+ * Evaluations on several threads may share a table: lookups do not lock it (see 'contents').
+ */
+public final class MethodTable extends AbstractMap<Pattern, Attribute> implements Serializable {
+    /**
+     * The largest table that is searched without an index.
+     */
+    private static final int scanned = 8;
+
+    /**
+     * The contents of a table: its patterns and attributes in the first 'size' places of the
+     * arrays, and the index, if any: position + 1 of the pattern of each slot, or 0 for a free
+     * slot. The index is at most half full.
+     */
+    private record Contents(Pattern[] patterns, Attribute[] attributes, int size, int[] index) {
+    }
+
+    /**
+     * The current contents. They are never changed in a way that readers of earlier
+     * contents can see: a pattern is only added in a free place of the arrays, and
+     * everything else is done on copies. Hence, lookups take no lock, while changes are
+     * made one at a time. The ids of patterns differ between runs, so the contents are
+     * written as a list of patterns and attributes, and the index is made again when the
+     * table is read.
+     */
+    private transient volatile Contents contents;
+
+    /**
+     * Creates an empty table.
+     */
+    public MethodTable() {
+        this(4);
+    }
+
+    /**
+     * Creates an empty table.
+     *
+     * @param capacity The number of patterns the table holds before it grows.
+     */
+    public MethodTable(int capacity) {
+        var length = Math.max(1, capacity);
+        contents = new Contents(new Pattern[length], new Attribute[length], 0, null);
+    }
+
+    /**
+     * Creates a table with the patterns and attributes of another one.
+     *
+     * @param table The table to copy.
+     */
+    public MethodTable(Map<Pattern, Attribute> table) {
+        this(table.size());
+        putAll(table);
+    }
+
+    private static int position(Contents contents, Object key) {
+        var patterns = contents.patterns();
+        var index = contents.index();
+        if (index == null) {
+            var size = contents.size();
+            for (var i = 0; i < size; i++) if (patterns[i] == key) return i;
+            for (var i = 0; i < size; i++) if (patterns[i].equals(key)) return i;
+            return -1;
+        }
+        var mask = index.length - 1;
+        for (var slot = hash(key) & mask; index[slot] != 0; slot = (slot + 1) & mask) {
+            var pattern = patterns[index[slot] - 1];
+            if (pattern == key || pattern.equals(key)) return index[slot] - 1;
+        }
+        return -1;
+    }
+
+    private static int hash(Object key) {
+        var h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int[] index(Pattern[] patterns, int size) {
+        if (size <= scanned) return null;
+        var index = new int[Integer.highestOneBit(size * 4 - 1)];
+        for (var i = 0; i < size; i++) place(index, patterns, i);
+        return index;
+    }
+
+    private static void place(int[] index, Pattern[] patterns, int position) {
+        var mask = index.length - 1;
+        var slot = hash(patterns[position]) & mask;
+        while (index[slot] != 0) slot = (slot + 1) & mask;
+        index[slot] = position + 1;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        var contents = this.contents;
+        out.defaultWriteObject();
+        out.writeInt(contents.size());
+        for (var i = 0; i < contents.size(); i++) {
+            out.writeObject(contents.patterns()[i]);
+            out.writeObject(contents.attributes()[i]);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        var size = in.readInt();
+        var patterns = new Pattern[Math.max(1, size)];
+        var attributes = new Attribute[patterns.length];
+        for (var i = 0; i < size; i++) {
+            patterns[i] = (Pattern) in.readObject();
+            attributes[i] = (Attribute) in.readObject();
+        }
+        contents = new Contents(patterns, attributes, size, index(patterns, size));
+    }
+
+    public int size() {
+        return contents.size();
+    }
+
+    public boolean containsKey(Object key) {
+        return position(contents, key) >= 0;
+    }
+
+    public Attribute get(Object key) {
+        var contents = this.contents;
+        var i = position(contents, key);
+        return i < 0 ? null : contents.attributes()[i];
+    }
+
+    public synchronized Attribute put(Pattern key, Attribute value) {
+        var contents = this.contents;
+        var patterns = contents.patterns();
+        var attributes = contents.attributes();
+        var size = contents.size();
+        var index = contents.index();
+        var i = position(contents, key);
+        if (i >= 0) {
+            attributes = attributes.clone();
+            attributes[i] = value;
+            this.contents = new Contents(patterns, attributes, size, index);
+            return contents.attributes()[i];
+        }
+        if (size == patterns.length) {
+            patterns = Arrays.copyOf(patterns, 2 * size);
+            attributes = Arrays.copyOf(attributes, 2 * size);
+        }
+        patterns[size] = key;
+        attributes[size] = value;
+        size++;
+        if (index == null ? size > scanned : 2 * size > index.length) index = index(patterns, size);
+        else if (index != null) {
+            index = index.clone();
+            place(index, patterns, size - 1);
+        }
+        this.contents = new Contents(patterns, attributes, size, index);
+        return null;
+    }
+
+    public synchronized Attribute remove(Object key) {
+        var contents = this.contents;
+        var i = position(contents, key);
+        if (i < 0) return null;
+        var size = contents.size() - 1;
+        var patterns = new Pattern[Math.max(1, contents.patterns().length)];
+        var attributes = new Attribute[patterns.length];
+        System.arraycopy(contents.patterns(), 0, patterns, 0, i);
+        System.arraycopy(contents.attributes(), 0, attributes, 0, i);
+        System.arraycopy(contents.patterns(), i + 1, patterns, i, size - i);
+        System.arraycopy(contents.attributes(), i + 1, attributes, i, size - i);
+        this.contents = new Contents(patterns, attributes, size, contents.index() == null ? null : index(patterns, size));
+        return contents.attributes()[i];
+    }
+
+    public synchronized void clear() {
+        contents = new Contents(new Pattern[4], new Attribute[4], 0, null);
+    }
+
+    public Set<Entry<Pattern, Attribute>> entrySet() {
+        return new AbstractSet<>() {
+            public Iterator<Entry<Pattern, Attribute>> iterator() {
+                var contents = MethodTable.this.contents;
+                return new Iterator<>() {
+                    private int next;
+
+                    public boolean hasNext() {
+                        return next < contents.size();
+                    }
+
+                    public Entry<Pattern, Attribute> next() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        var entry = new SimpleImmutableEntry<>(contents.patterns()[next], contents.attributes()[next]);
+                        next++;
+                        return entry;
+                    }
+                };
+            }
+
+            public int size() {
+                return contents.size();
+            }
+        };
+    }
+}
@@ -1,10 +1,12 @@
 package agora.objects;
 
 import agora.attributes.Attribute;
+import agora.attributes.VariableGetAttribute;
 import agora.errors.AgoraError;
 import agora.patterns.Pattern;
+import agora.runtime.Client;
+import agora.runtime.Context;
 
-import java.util.Hashtable;
 import java.util.Map;
 
 /**
@@ -19,13 +21,15 @@ import java.util.Map;
 public abstract class MethodsGenerator extends Generator {
     /**
      * Each methodsGenerator has a hashtable that links patterns to agora.attributes.
+     * The table and the parent are volatile, since evaluations on other threads may
+     * replace them while this one looks a message up.
      */
-    protected Map<Pattern, Attribute> methods;
+    protected volatile Map<Pattern, Attribute> methods;
     /**
      * Each methodsGenerator is linked to another generator, which is the next generator
      * in the inheritance chain.
      */
-    protected Generator parent;
+    protected volatile Generator parent;
 
     /**
      * Create a new method generator.
@@ -51,6 +55,7 @@ public abstract class MethodsGenerator extends Generator {
      */
     public void setParent(Generator newParent) {
         this.parent = newParent;
+        changed();
     }
 
     /**
@@ -76,8 +81,9 @@ public abstract class MethodsGenerator extends Generator {
      *
      * @param newTable The new hashtable after doing the re-assigning.
      */
-    public void setHashTable(Hashtable<Pattern, Attribute> newTable) {
+    public void setHashTable(Map<Pattern, Attribute> newTable) {
         this.methods = newTable;
+        changed();
     }
 
     /**
@@ -88,8 +94,46 @@ public abstract class MethodsGenerator extends Generator {
      */
     public void installPattern(Pattern pattern, Attribute attribute) {
         this.methods.put(pattern, attribute);
+        changed();
     }
 
+    /**
+     * Looks up a message in this frame and, if it is not there, in the parent.
+     *
+     * @param msg       The message pattern to be looked up.
+     * @param dependent A cache that remembers the outcome, or null.
+     * @return The method frame containing an attribute for the pattern, or null
+     * when the message would not be understood.
+     */
+    public MethodsGenerator lookup(Pattern msg, Dependent dependent) {
+        addDependent(dependent);
+        return methods.containsKey(msg) ? this : parent.lookup(msg, dependent);
+    }
+
+    /**
+     * Reads a variable of this frame directly, without going through the delegation of a message.
+     *
+     * @param variable The read attribute of the variable, found in the method table of this frame.
+     * @return The value of the variable as this frame sees it.
+     */
+    public AgoraObject read(VariableGetAttribute variable) {
+        return variable.read();
+    }
+
+    /**
+     * Invokes an attribute of this frame. This is what 'delegate' does once the
+     * attribute is found: the context is completed with the parts this frame knows
+     * about before the attribute is evaluated.
+     *
+     * @param attribute The attribute found in the method table of this frame.
+     * @param msg       The message pattern that was delegated.
+     * @param client    The client object containing the actual parameters.
+     * @param context   The knowledge of the receiving object so far.
+     * @return The result of evaluating the attribute.
+     * @throws agora.errors.AgoraError When an error occurs during evaluation of the attribute.
+     */
+    public abstract AgoraObject perform(Attribute attribute, Pattern msg, Client client, Context context) throws AgoraError;
+
     /**
      * Adds a view on the generator. This is normally used to temporarily extend
      * a user created object, for example for applying a view-attribute on the object.
@@ -9,7 +9,6 @@ import agora.runtime.Client;
 import agora.runtime.Context;
 import agora.tools.AgoraGlobals;
 
-import java.util.Hashtable;
 import java.util.Map;
 
 /**
@@ -51,7 +50,22 @@ public class PrimitiveGenerator extends MethodsGenerator {
         var lookupResult = methods.get(msg);
         return lookupResult == null ?
                 parent.delegate(msg, client, context) :
-                lookupResult.doAttributeValue(msg, client, context.setParent(parent));
+                perform(lookupResult, msg, client, context);
+    }
+
+    /**
+     * Invokes an attribute of this frame in a context that is completed with
+     * the parent of this frame.
+     *
+     * @param attribute The attribute found in the method table of this frame.
+     * @param msg       The message pattern that was delegated.
+     * @param client    The client object containing the actual parameters.
+     * @param context   The knowledge of the receiving object so far.
+     * @return The result of evaluating the attribute.
+     * @throws agora.errors.AgoraError When an error occurs during evaluation of the attribute.
+     */
+    public AgoraObject perform(Attribute attribute, Pattern msg, Client client, Context context) throws AgoraError {
+        return attribute.doAttributeValue(msg, client, context.setParent(parent));
     }
 
     /**
@@ -64,7 +78,7 @@ public class PrimitiveGenerator extends MethodsGenerator {
      */
     public void inspect(Context context) throws AgoraError {
         var d = new Inspector(
-                AgoraGlobals.glob.window,
+                AgoraGlobals.current().window,
                 name,
                 methods,
                 null,
@@ -99,6 +113,6 @@ public class PrimitiveGenerator extends MethodsGenerator {
      *                                 thrown.
      */
     public InternalGenerator funcAddLayer(String nameOfFrame) throws AgoraError {
-        return new InternalGenerator(nameOfFrame, new Hashtable<>(5), null, this);
+        return new InternalGenerator(nameOfFrame, new MethodTable(), null, this);
     }
 }
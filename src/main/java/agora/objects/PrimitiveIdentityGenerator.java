@@ -47,6 +47,18 @@ public class PrimitiveIdentityGenerator extends IdentityGenerator {
         throw new ProgramError("Cannot extend a primitive object! (PrimIdentityGenerator::funcAddLayer)");
     }
 
+    /**
+     * Refuses to change the public part of a primitive object. Common values are upped to
+     * canonical objects, so a mixin applied to one of them would show up in every other
+     * occurrence of the same value.
+     *
+     * @param theContents The new public part of the object.
+     * @throws agora.errors.AgoraError Is always thrown as primitive objects cannot be extended.
+     */
+    public void Change(MethodsGenerator theContents) throws AgoraError {
+        throw new ProgramError("Cannot extend a primitive object! (PrimIdentityGenerator::Change)");
+    }
+
     /**
      * Opens an inspector for the object.
      *
@@ -57,7 +69,7 @@ public class PrimitiveIdentityGenerator extends IdentityGenerator {
      */
     public void inspect(Context context) throws AgoraError {
         var d = new Inspector(
-                AgoraGlobals.glob.window,
+                AgoraGlobals.current().window,
                 this.name,
                 this.myMethods.getHashTable(),
                 null,
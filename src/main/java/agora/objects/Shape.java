@@ -0,0 +1,74 @@
+package agora.objects;
+
+import agora.patterns.Pattern;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The layout of a shaped method table (see ShapedTable): which patterns the table has and in
+ * which slot the attribute of each of them is kept. Shapes are shared: installing a new
+ * pattern in a table moves it to the shape that follows its current one with that pattern,
+ * which is made only once. Hence, objects that are made by the same code, and so install the
+ * same patterns in the same order, have tables of the same shape.
+ * Like the layout of a method (see FrameLayout), a shape only grows.
+ */
+public final class Shape implements Serializable {
+    /**
+     * The shape of an empty table, from which all shapes follow.
+     */
+    public static final Shape empty = new Shape(new Pattern[0], new HashMap<>());
+
+    private final Pattern[] patterns;
+    private final Map<Pattern, Integer> slots;
+
+    /**
+     * The shapes that follow this one, by the pattern that is added. Tables on several
+     * threads may follow the same transition at once, and must end up with the same shape.
+     */
+    private final Map<Pattern, Shape> transitions = new ConcurrentHashMap<>();
+
+    private Shape(Pattern[] patterns, Map<Pattern, Integer> slots) {
+        this.patterns = patterns;
+        this.slots = slots;
+    }
+
+    /**
+     * @return The number of patterns of a table of this shape.
+     */
+    public int size() {
+        return patterns.length;
+    }
+
+    /**
+     * @return The slot of a pattern, or -1 if tables of this shape do not have the pattern.
+     */
+    public int slot(Object msg) {
+        return slots.getOrDefault(msg, -1);
+    }
+
+    /**
+     * @return The pattern of a slot.
+     */
+    public Pattern pattern(int slot) {
+        return patterns[slot];
+    }
+
+    /**
+     * @param msg A pattern that tables of this shape do not have.
+     * @return The shape of a table of this shape in which the pattern is installed. It has
+     * the pattern in its last slot.
+     */
+    public Shape with(Pattern msg) {
+        return transitions.computeIfAbsent(msg, pattern -> {
+            var next = Arrays.copyOf(patterns, patterns.length + 1);
+            next[patterns.length] = pattern;
+            var nextSlots = new HashMap<>(slots);
+            nextSlots.put(pattern, patterns.length);
+            return new Shape(next, nextSlots);
+        });
+    }
+}
@@ -0,0 +1,126 @@
+package agora.objects;
+
+import agora.attributes.Attribute;
+import agora.patterns.Pattern;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The method table of the frames of user made objects. Rather than a hashtable of its own,
+ * the table has a shape (see Shape), shared with the tables of other objects made by the same
+ * code, which gives the slot of each pattern. The table itself only holds the attributes, in
+ * an array indexed by these slots.
+ * Patterns cannot be removed from a shaped table.
+ * Evaluations on several threads may share a table. Lookups do not lock it: the shape and the
+ * attributes are replaced together (see Layout), and changes are made one at a time.
+ */
+public final class ShapedTable extends AbstractMap<Pattern, Attribute> implements Serializable {
+    private static final Attribute[] none = new Attribute[0];
+
+    /**
+     * The shape of a table with the attributes in its slots. A table replaces its layout
+     * rather than changing it, except for adding an attribute in a slot beyond the shape,
+     * which readers of the layout it replaces do not see. Slots never move, since shapes
+     * only grow.
+     */
+    private record Layout(Shape shape, Attribute[] values) implements Serializable {
+    }
+
+    private volatile Layout layout = new Layout(Shape.empty, none);
+
+    /**
+     * Creates an empty table.
+     */
+    public ShapedTable() {
+    }
+
+    /**
+     * Creates a table with the patterns and attributes of another one.
+     *
+     * @param table The table to copy. The copy has the same shape.
+     */
+    public ShapedTable(ShapedTable table) {
+        var layout = table.layout;
+        this.layout = new Layout(layout.shape(), layout.values().clone());
+    }
+
+    /**
+     * @return The shape of the table.
+     */
+    public Shape shape() {
+        return layout.shape();
+    }
+
+    /**
+     * @return The attribute in a slot of the shape of the table.
+     */
+    public Attribute value(int slot) {
+        return layout.values()[slot];
+    }
+
+    public int size() {
+        return layout.shape().size();
+    }
+
+    public boolean containsKey(Object key) {
+        return layout.shape().slot(key) >= 0;
+    }
+
+    public Attribute get(Object key) {
+        var layout = this.layout;
+        var slot = layout.shape().slot(key);
+        return slot < 0 ? null : layout.values()[slot];
+    }
+
+    public synchronized Attribute put(Pattern key, Attribute value) {
+        var shape = layout.shape();
+        var values = layout.values();
+        var slot = shape.slot(key);
+        if (slot >= 0) {
+            var previous = values[slot];
+            values = values.clone();
+            values[slot] = value;
+            layout = new Layout(shape, values);
+            return previous;
+        }
+        shape = shape.with(key);
+        slot = shape.size() - 1;
+        if (slot >= values.length) values = Arrays.copyOf(values, Math.max(4, 2 * values.length));
+        values[slot] = value;
+        layout = new Layout(shape, values);
+        return null;
+    }
+
+    public Set<Entry<Pattern, Attribute>> entrySet() {
+        return new AbstractSet<>() {
+            public Iterator<Entry<Pattern, Attribute>> iterator() {
+                var layout = ShapedTable.this.layout;
+                var shape = layout.shape();
+                return new Iterator<>() {
+                    private int slot;
+
+                    public boolean hasNext() {
+                        return slot < shape.size();
+                    }
+
+                    public Entry<Pattern, Attribute> next() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        var entry = new SimpleImmutableEntry<>(shape.pattern(slot), layout.values()[slot]);
+                        slot++;
+                        return entry;
+                    }
+                };
+            }
+
+            public int size() {
+                return layout.shape().size();
+            }
+        };
+    }
+}
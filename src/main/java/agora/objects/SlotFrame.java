@@ -0,0 +1,322 @@
+package agora.objects;
+
+import agora.Copier;
+import agora.attributes.Attribute;
+import agora.attributes.VariableContainer;
+import agora.attributes.VariableGetAttribute;
+import agora.attributes.VariableSetAttribute;
+import agora.awt.Inspector;
+import agora.errors.AgoraError;
+import agora.patterns.Pattern;
+import agora.patterns.UnaryPattern;
+import agora.runtime.Client;
+import agora.runtime.Context;
+import agora.tools.AgoraGlobals;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The activation frame of a method: the private part in which the formal arguments and
+ * the local variables of one invocation live. Rather than installing a pair of read and
+ * write attributes for every variable in a method table, the frame keeps the values of
+ * the variables in an array of slots, laid out by the FrameLayout of the method.
+ * A slot that is still null belongs to a local variable that has not been declared yet:
+ * until then, the frame is transparent for its patterns, just as a method table without
+ * them would be. Anything else installed in the frame goes into a method table that is
+ * only created when it is needed.
+ * The frame also stands for the layer the method adds to the public part of the caller
+ * (see Context.getPub). That layer is only created when it is used, which it hardly ever is.
+ *
+ * @see FrameLayout
+ */
+public class SlotFrame extends InternalGenerator {
+    private final FrameLayout layout;
+    private final AgoraObject[] slots;
+
+    /**
+     * The read and write attributes of the slots in the method table view on the frame, made
+     * the first time they are asked for (see 'slotAttribute').
+     */
+    private transient Attribute[] attributes;
+
+    /**
+     * The public part of the caller, or the frame of the caller if the calling frame
+     * of the caller has not been created yet. These are only used to create 'callingFrame'.
+     */
+    private transient MethodsGenerator callerPub;
+    private transient SlotFrame callerFrame;
+    private transient Pattern msg;
+    private InternalGenerator callingFrame;
+
+    /**
+     * Creates a new activation frame, binding the formal arguments.
+     *
+     * @param layout   The layout of the frames of the method.
+     * @param actuals  The client with the values of the formal arguments.
+     * @param privPart The private part to which the frame is attached.
+     */
+    public SlotFrame(FrameLayout layout, Client actuals, InternalGenerator privPart) {
+        this(layout, privPart);
+        for (var i = 0; i < actuals.size(); i++) slots[layout.slotOf(i)] = (AgoraObject) actuals.actual(i);
+    }
+
+    private SlotFrame(FrameLayout layout, InternalGenerator privPart) {
+        super("Formals Actuals Frame", null, null, privPart);
+        this.privPart = this;
+        this.layout = layout;
+        this.slots = new AgoraObject[layout.size()];
+    }
+
+    /**
+     * Skips the activation frames and the frames of counting loops at the start of a lookup that
+     * do not hold a message. They are created anew for every invocation, so caches that remember
+     * lookups should start from the first frame that does not change with every invocation.
+     *
+     * @param start The method frame the message is delegated to.
+     * @param msg   The message pattern.
+     * @return The first frame from 'start' on that is not such a frame or that holds the message.
+     */
+    public static MethodsGenerator skip(MethodsGenerator start, Pattern msg) {
+        while ((start instanceof SlotFrame frame && !frame.holds(msg) ||
+                start instanceof CountingFrame loop && !loop.holds(msg)) &&
+                start.parent instanceof MethodsGenerator parent)
+            start = parent;
+        return start;
+    }
+
+    /**
+     * Remembers where the frame was called from, such that its calling frame can be created
+     * when it is needed.
+     *
+     * @param callerPub   The public part of the calling context.
+     * @param callerFrame The frame standing for the public part of the calling context, or null.
+     * @param msg         The message that invoked the method.
+     */
+    public void calledFrom(MethodsGenerator callerPub, SlotFrame callerFrame, Pattern msg) {
+        this.callerPub = callerPub;
+        this.callerFrame = callerFrame;
+        this.msg = msg;
+    }
+
+    /**
+     * Returns the layer the method adds to the public part of its caller, creating it the first time.
+     *
+     * @return The calling frame of the method.
+     * @throws AgoraError When the public part of the caller cannot be extended.
+     */
+    public InternalGenerator callingFrame() throws AgoraError {
+        if (callingFrame == null) {
+            var pub = callerFrame != null ? callerFrame.callingFrame() : callerPub;
+            callingFrame = pub.funcAddLayer("Calling Frame of:" + msg);
+            callingFrame.setPrivate(this);
+            callerPub = null;
+            callerFrame = null;
+        }
+        return callingFrame;
+    }
+
+    /**
+     * Reads a variable of the frame.
+     *
+     * @param msg The pattern reading the variable.
+     * @return The value of the variable, or null if the frame has no such variable.
+     */
+    public AgoraObject read(UnaryPattern msg) {
+        if (methods != null && methods.containsKey(msg)) return null;
+        var slot = layout.reader(msg);
+        return slot < 0 ? null : slots[slot];
+    }
+
+    /**
+     * Declares a local variable. If the layout has a slot for the variable, it is kept there.
+     *
+     * @param pattern The pattern reading the variable.
+     * @param value   The initial value of the variable.
+     * @return True if the variable is kept in a slot, false if it has to be installed as usual.
+     */
+    public boolean declare(UnaryPattern pattern, AgoraObject value) {
+        var slot = layout.reader(pattern);
+        if (slot < 0 || methods != null &&
+                (methods.containsKey(pattern) || methods.containsKey(pattern.makeWritePattern())))
+            return false;
+        slots[slot] = value;
+        changed();
+        return true;
+    }
+
+    /**
+     * @return True if the message is answered by this frame itself.
+     */
+    private boolean holds(Pattern msg) {
+        if (methods != null && methods.containsKey(msg)) return true;
+        var slot = layout.reader(msg);
+        if (slot < 0) slot = layout.writer(msg);
+        return slot >= 0 && slots[slot] != null;
+    }
+
+    public AgoraObject delegate(Pattern msg, Client client, Context context) throws AgoraError {
+        if (methods != null) {
+            var attribute = methods.get(msg);
+            if (attribute != null) return perform(attribute, msg, client, context);
+        }
+        var slot = layout.reader(msg);
+        if (slot >= 0 && slots[slot] != null) return slots[slot];
+        slot = layout.writer(msg);
+        if (slot >= 0 && slots[slot] != null) {
+            var value = (AgoraObject) client.actual(0);
+            slots[slot] = value;
+            return value;
+        }
+        return parent.delegate(msg, client, context);
+    }
+
+    public MethodsGenerator lookup(Pattern msg, Dependent dependent) {
+        addDependent(dependent);
+        return holds(msg) ? this : parent.lookup(msg, dependent);
+    }
+
+    /**
+     * Returns a view on the frame as a method table: the variables in the slots appear as
+     * pairs of read and write attributes.
+     */
+    public Map<Pattern, Attribute> getHashTable() {
+        return new AbstractMap<>() {
+            public Attribute get(Object key) {
+                return key instanceof Pattern msg ? attribute(msg) : null;
+            }
+
+            public boolean containsKey(Object key) {
+                return key instanceof Pattern msg && holds(msg);
+            }
+
+            public Attribute put(Pattern key, Attribute value) {
+                var previous = get(key);
+                installPattern(key, value);
+                return previous;
+            }
+
+            public Set<Entry<Pattern, Attribute>> entrySet() {
+                return new AbstractSet<>() {
+                    public Iterator<Entry<Pattern, Attribute>> iterator() {
+                        return entries().iterator();
+                    }
+
+                    public int size() {
+                        return entries().size();
+                    }
+                };
+            }
+        };
+    }
+
+    public void setHashTable(Map<Pattern, Attribute> newTable) {
+        methods = newTable;
+        Arrays.fill(slots, null);
+        changed();
+    }
+
+    public void installPattern(Pattern pattern, Attribute attribute) {
+        if (methods == null) methods = new MethodTable();
+        super.installPattern(pattern, attribute);
+    }
+
+    public void inspect(Context context) {
+        var d = new Inspector(
+                AgoraGlobals.current().window,
+                name,
+                getHashTable(),
+                privPart,
+                parent,
+                this,
+                null,
+                context,
+                this
+        );
+        d.pack();
+        d.setVisible(true);
+    }
+
+    public SlotFrame copy(Copier copier) {
+        var result = new SlotFrame(layout, null);
+        System.arraycopy(slots, 0, result.slots, 0, slots.length);
+        result.methods = methods;
+        copier.copy(parent, copy -> result.parent = copy);
+        copier.copy(privPart, copy -> result.privPart = copy);
+        return result;
+    }
+
+    private Attribute attribute(Pattern msg) {
+        if (methods != null && methods.containsKey(msg)) return methods.get(msg);
+        var slot = layout.reader(msg);
+        if (slot >= 0) return slots[slot] == null ? null : slotAttribute(2 * slot);
+        slot = layout.writer(msg);
+        if (slot >= 0) return slots[slot] == null ? null : slotAttribute(2 * slot + 1);
+        return null;
+    }
+
+    /**
+     * Returns the attribute reading a slot (at an even index) or writing it (at the odd index
+     * after it). The frame answers the same attribute every time, such that caches that
+     * remember attributes, like inline caches and flat chains, recognise it.
+     */
+    private Attribute slotAttribute(int index) {
+        if (attributes == null) attributes = new Attribute[2 * slots.length];
+        var attribute = attributes[index];
+        if (attribute == null) {
+            var slot = new Slot(this, index / 2);
+            attribute = index % 2 == 0 ? new VariableGetAttribute(slot) : new VariableSetAttribute(slot);
+            attributes[index] = attribute;
+        }
+        return attribute;
+    }
+
+    private ArrayList<Map.Entry<Pattern, Attribute>> entries() {
+        var result = new ArrayList<Map.Entry<Pattern, Attribute>>();
+        for (var slot = 0; slot < slots.length; slot++) {
+            var reader = layout.readerOf(slot);
+            var writer = reader.makeWritePattern();
+            if (slots[slot] == null) continue;
+            if (methods == null || !methods.containsKey(reader))
+                result.add(Map.entry(reader, attribute(reader)));
+            if (methods == null || !methods.containsKey(writer))
+                result.add(Map.entry(writer, attribute(writer)));
+        }
+        if (methods != null) result.addAll(methods.entrySet());
+        return result;
+    }
+
+    /**
+     * A variable container that is a slot of a frame. It is what the read and write attributes
+     * of the method table view on a frame operate on.
+     */
+    private static class Slot extends VariableContainer {
+        private SlotFrame frame;
+        private final int slot;
+
+        Slot(SlotFrame frame, int slot) {
+            super(null);
+            this.frame = frame;
+            this.slot = slot;
+        }
+
+        public void write(AgoraObject value) {
+            frame.slots[slot] = value;
+        }
+
+        public AgoraObject read() {
+            return frame.slots[slot];
+        }
+
+        public VariableContainer copy(Copier copier) {
+            var result = new Slot(null, slot);
+            copier.copy(frame, copy -> result.frame = copy);
+            return result;
+        }
+    }
+}
@@ -1,10 +1,9 @@
 package agora.objects;
 
+import agora.Copier;
 import agora.errors.AgoraError;
 import agora.runtime.Context;
 
-import java.util.Hashtable;
-
 /**
  * A UserIdentityGenerator represents an object ID for an ex-nihilo
  * created Agora object. It consists of a method table and possibly caches
@@ -61,17 +60,14 @@ public class UserIdentityGenerator extends IdentityGenerator {
 
     /**
      * Makes a deep clone of the identity by copying all the constituents of the
-     * identity. The parameter is a clone map such that a thing is not copied twice.
+     * identity. The copier makes sure a thing is not copied twice.
      *
-     * @param cache A table of already-copied-things such that nothing gets copied twice.
+     * @param copier The copier that copies the constituents.
      * @return A deep copy of the receiver.
      */
-    public UserIdentityGenerator copy(Hashtable<Object, Object> cache) {
-        var existing = cache.get(this);
-        if (existing != null) return (UserIdentityGenerator) existing;
+    public UserIdentityGenerator copy(Copier copier) {
         var result = new UserIdentityGenerator(name(), null, null);
-        cache.put(this, result);
-        result.myMethods = (MethodsGenerator) myMethods.copy(cache);
+        copier.copy(myMethods, copy -> result.myMethods = copy);
         return result;
     }
 }
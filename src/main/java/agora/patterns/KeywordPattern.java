@@ -7,12 +7,38 @@ import java.util.List;
  * method tables. Keyword patterns are stored as an array of strings.
  * Each string (i.e. each keyword) must be terminated by a colon.
  *
- * @param keywords An array of strings representing the different keywords of
- *                 the KeywordPattern.
  * @author Wolfgang De Meuter (Programming technology Lab)
  * Last change:  E    16 Nov 97    1:50 am
  */
-public record KeywordPattern(List<String> keywords) implements Pattern {
+public final class KeywordPattern extends Symbol {
+    /**
+     * Creates a keyword pattern.
+     *
+     * @param keywords An array of strings representing the different keywords of
+     *                 the KeywordPattern.
+     */
+    public KeywordPattern(List<String> keywords) {
+        super(List.copyOf(keywords));
+    }
+
+    /**
+     * @param keywords An array of strings representing the different keywords of
+     *                 the KeywordPattern.
+     * @return The canonical keyword pattern with these keywords.
+     */
+    @SuppressWarnings("unchecked")
+    public static KeywordPattern of(List<String> keywords) {
+        return canonical(KeywordPattern.class, List.copyOf(keywords), name -> new KeywordPattern((List<String>) name));
+    }
+
+    /**
+     * @return The different keywords of the pattern.
+     */
+    @SuppressWarnings("unchecked")
+    public List<String> keywords() {
+        return (List<String>) name;
+    }
+
     /**
      * Converts the keyword pattern to a string by concatenating all the
      * keywords of the pattern.
@@ -20,6 +46,10 @@ public record KeywordPattern(List<String> keywords) implements Pattern {
      * @return The string representation of this keyword pattern.
      */
     public String toString() {
-        return String.join("", keywords);
+        return String.join("", keywords());
+    }
+
+    private Object readResolve() {
+        return of(keywords());
     }
 }
@@ -5,13 +5,40 @@ package agora.patterns;
  * is essentially nothing but a string (containing the operator symbols) with
  * the appropriate methods defined on it.
  *
- * @param operator String representing the operator.
  * @author Wolfgang De Meuter (Programming Technology Lab).
  * Last change:  E    16 Nov 97    1:50 am
  */
-public record OperatorPattern(String operator) implements Pattern {
+public final class OperatorPattern extends Symbol {
+    /**
+     * Creates an operator pattern.
+     *
+     * @param operator The operator symbols.
+     */
+    public OperatorPattern(String operator) {
+        super(operator);
+    }
+
+    /**
+     * @param operator The operator symbols.
+     * @return The canonical operator pattern with these symbols.
+     */
+    public static OperatorPattern of(String operator) {
+        return canonical(OperatorPattern.class, operator, name -> new OperatorPattern((String) name));
+    }
+
+    /**
+     * @return The operator symbols.
+     */
+    public String operator() {
+        return (String) name;
+    }
+
     @Override
     public String toString() {
-        return operator;
+        return operator();
+    }
+
+    private Object readResolve() {
+        return of(operator());
     }
 }
@@ -8,9 +8,37 @@ package agora.patterns;
  * @author Wolfgang De Meuter (Programming Technology Lab).
  * Last change:  E    16 Nov 97    1:50 am
  */
-public record OperatorReifierPattern(String operator) implements Pattern, Reifier {
+public final class OperatorReifierPattern extends Symbol implements Reifier {
+    /**
+     * Creates an operator pattern.
+     *
+     * @param operator The operator symbols.
+     */
+    public OperatorReifierPattern(String operator) {
+        super(operator);
+    }
+
+    /**
+     * @param operator The operator symbols.
+     * @return The canonical operator pattern with these symbols.
+     */
+    public static OperatorReifierPattern of(String operator) {
+        return canonical(OperatorReifierPattern.class, operator, name -> new OperatorReifierPattern((String) name));
+    }
+
+    /**
+     * @return The operator symbols.
+     */
+    public String operator() {
+        return (String) name;
+    }
+
     @Override
     public String toString() {
-        return operator;
+        return operator();
+    }
+
+    private Object readResolve() {
+        return of(operator());
     }
 }
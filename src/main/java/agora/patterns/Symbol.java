@@ -0,0 +1,78 @@
+package agora.patterns;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * The common part of the runtime patterns. All patterns are kept in one symbol table, that
+ * gives each of them a dense integer id: patterns of the same kind with the same name have
+ * the same id, and others have different ids. Comparing and hashing patterns, which is what
+ * looking them up in method tables comes down to, only uses this id.
+ * The first pattern made with a name is the canonical one. The 'of' methods of the kinds of
+ * patterns give the canonical pattern rather than a new one, such that patterns are
+ * mostly identical when they are equal.
+ */
+public abstract class Symbol implements Pattern {
+    private record Key(Class<? extends Symbol> kind, Object name) {
+    }
+
+    private record Entry(int id, Symbol symbol) {
+    }
+
+    private static final Map<Key, Entry> symbols = new ConcurrentHashMap<>();
+    private static final AtomicInteger count = new AtomicInteger();
+
+    /**
+     * The name of the pattern: a string for unary and operator patterns, an immutable list
+     * of strings for keyword patterns.
+     */
+    protected final Object name;
+    private final int id;
+
+    /**
+     * Creates a pattern, and makes it the canonical one if it is the first with its name.
+     *
+     * @param name The name of the pattern. It must not change anymore.
+     */
+    protected Symbol(Object name) {
+        this.name = name;
+        this.id = symbols.computeIfAbsent(new Key(getClass(), name), key -> new Entry(count.getAndIncrement(), this)).id();
+    }
+
+    /**
+     * Gives the canonical pattern of a kind with a name.
+     *
+     * @param kind The kind of pattern.
+     * @param name The name of the pattern.
+     * @param make Makes the pattern if there is none with this name yet.
+     * @return The canonical pattern.
+     */
+    protected static <S extends Symbol> S canonical(Class<S> kind, Object name, Function<Object, S> make) {
+        var entry = symbols.get(new Key(kind, name));
+        return entry != null ? kind.cast(entry.symbol()) : make.apply(name);
+    }
+
+    /**
+     * @return The id of the pattern, which is shared by the equal patterns only.
+     */
+    public int id() {
+        return id;
+    }
+
+    /**
+     * @return The number of patterns in the symbol table, and hence the bound of their ids.
+     */
+    public static int count() {
+        return count.get();
+    }
+
+    public boolean equals(Object other) {
+        return this == other || other instanceof Symbol symbol && symbol.id == id;
+    }
+
+    public int hashCode() {
+        return id;
+    }
+}
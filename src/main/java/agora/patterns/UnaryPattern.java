@@ -6,11 +6,36 @@ import java.util.List;
  * This class represents runtime unary agora.patterns. A unary pattern is essentially nothing but
  * a string with the appropriate comparision methods defined on it.
  *
- * @param pattern String denoting the pattern value of the unary pattern.
  * @author Wolfgang De Meuter (Programming Technology Lab).
  * Last change:  E    16 Nov 97    1:50 am
  */
-public record UnaryPattern(String pattern) implements Pattern {
+public final class UnaryPattern extends Symbol {
+    private transient KeywordPattern writePattern;
+
+    /**
+     * Creates a unary pattern.
+     *
+     * @param pattern String denoting the pattern value of the unary pattern.
+     */
+    public UnaryPattern(String pattern) {
+        super(pattern);
+    }
+
+    /**
+     * @param pattern String denoting the pattern value of the unary pattern.
+     * @return The canonical unary pattern with this value.
+     */
+    public static UnaryPattern of(String pattern) {
+        return canonical(UnaryPattern.class, pattern, name -> new UnaryPattern((String) name));
+    }
+
+    /**
+     * @return String denoting the pattern value of the unary pattern.
+     */
+    public String pattern() {
+        return (String) name;
+    }
+
     /**
      * Creates a keyword pattern with one keyword with the same string but with a colon added.
      * This is used when a variable named x is declared. In that case, a write slot is
@@ -21,7 +46,8 @@ public record UnaryPattern(String pattern) implements Pattern {
      * read-pattern.
      */
     public KeywordPattern makeWritePattern() {
-        return new KeywordPattern(List.of(new String[]{pattern + ":"}));
+        if (writePattern == null) writePattern = KeywordPattern.of(List.of(pattern() + ":"));
+        return writePattern;
     }
 
     /**
@@ -31,7 +57,10 @@ public record UnaryPattern(String pattern) implements Pattern {
      */
     @Override
     public String toString() {
-        return this.pattern;
+        return pattern();
     }
-}
 
+    private Object readResolve() {
+        return of(pattern());
+    }
+}
@@ -7,6 +7,7 @@ import agora.javaAdditions.JV_Float;
 import agora.javaAdditions.JV_Integer;
 import agora.javaAdditions.JV_Nil;
 import agora.objects.AgoraObject;
+import agora.objects.MethodTable;
 import agora.objects.PrimitiveGenerator;
 import agora.objects.PrimitiveIdentityGenerator;
 import agora.patterns.*;
@@ -17,6 +18,8 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import static java.lang.reflect.Modifier.*;
 
@@ -35,13 +38,51 @@ public class Up implements Serializable {
      * This private variable caches the generators created by Up, such that all the work
      * to 'up' a Java implementation level object is done only once. The table maps
      * Java class names onto generators that contain the method tables for the
-     * associated class.
+     * associated class. It only holds finished generators, so that evaluations on other
+     * threads can use them without locking.
      */
-    private final Map<String, PrimitiveGenerator> cache = new HashMap<>(30);
+    private final Map<String, PrimitiveGenerator> cache = new ConcurrentHashMap<>(30);
+
+    /**
+     * The generators that are being made, together with those of their superclasses.
+     * They are only put in the cache when the outermost of them is finished.
+     */
+    private final Map<String, PrimitiveGenerator> building = new HashMap<>();
 
     private final AgoraObject nil;
 
-    public Up() {
+    /**
+     * Canonical Agora objects for values that are upped over and over again, such that
+     * upping them does not allocate. Upped primitive objects cannot be changed, so one
+     * object can stand for every occurrence of an equal value. The entries are created
+     * the first time they are needed.
+     */
+    private final AtomicReferenceArray<AgoraObject> booleans = new AtomicReferenceArray<>(2);
+    private final int smallestInteger;
+    private final AtomicReferenceArray<AgoraObject> integers;
+    private final AtomicReferenceArray<AgoraObject> characters = new AtomicReferenceArray<>(256);
+
+    /**
+     * A direct-mapped cache of upped strings: a string is kept at the position given by its
+     * hash code, replacing whichever string was there before.
+     */
+    private final AtomicReferenceArray<AgoraObject> strings = new AtomicReferenceArray<>(256);
+
+    /**
+     * The generators for the instances of a class, such that upping an object does not have
+     * to compute the name under which the generator is cached.
+     */
+    private final Map<Class<?>, PrimitiveGenerator> instanceGenerators = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an Up that keeps a canonical Agora object for each integer in the given range.
+     *
+     * @param smallestInteger The smallest integer that is cached.
+     * @param largestInteger  The largest integer that is cached.
+     */
+    public Up(int smallestInteger, int largestInteger) {
+        this.smallestInteger = smallestInteger;
+        this.integers = new AtomicReferenceArray<>(Math.max(0, largestInteger - smallestInteger + 1));
         nil = up(JV_Nil.instance);
     }
 
@@ -58,12 +99,56 @@ public class Up implements Serializable {
      *                                 a generatorcreator might be invoked that accesses a Java method that does not exist.
      */
     public AgoraObject up(Object o) throws AgoraError {
-        if (o == null) return nil;
+        switch (o) {
+            case null -> {
+                return nil;
+            }
+            case Boolean b -> {
+                return canonical(booleans, b ? 1 : 0, o);
+            }
+            case Integer i when i >= smallestInteger && (long) i - smallestInteger < integers.length() -> {
+                return canonical(integers, i - smallestInteger, o);
+            }
+            case Character c when c < characters.length() -> {
+                return canonical(characters, c, o);
+            }
+            case String string -> {
+                var index = string.hashCode() & (strings.length() - 1);
+                var cached = strings.get(index);
+                if (cached != null && string.equals(cached.down())) return cached;
+                cached = wrap(o);
+                strings.set(index, cached);
+                return cached;
+            }
+            default -> {
+                return wrap(o);
+            }
+        }
+    }
+
+    /**
+     * @return The canonical Agora object at a position of one of the arrays, which is made
+     * if there is none yet. When two threads make it at the same time, both get the one that
+     * was stored first.
+     */
+    private AgoraObject canonical(AtomicReferenceArray<AgoraObject> objects, int index, Object o) throws AgoraError {
+        var object = objects.get(index);
+        if (object != null) return object;
+        var made = wrap(o);
+        object = objects.compareAndExchange(index, null, made);
+        return object == null ? made : object;
+    }
 
-        var result = o instanceof Class<?> c ?
-                new PrimitiveIdentityGenerator(c.getSimpleName(), generatorFor(c, false), o) :
-                new PrimitiveIdentityGenerator(Object.class.getSimpleName(), generatorFor(o.getClass(), true), o);
-        return result.wrap();
+    private AgoraObject wrap(Object o) throws AgoraError {
+        if (o instanceof Class<?> c)
+            return new PrimitiveIdentityGenerator(c.getSimpleName(), generatorFor(c, false), o).wrap();
+        var type = o.getClass();
+        var generator = instanceGenerators.get(type);
+        if (generator == null) {
+            generator = generatorFor(type, true);
+            instanceGenerators.putIfAbsent(type, generator);
+        }
+        return new PrimitiveIdentityGenerator(Object.class.getSimpleName(), generator, o).wrap();
     }
 
     /**
@@ -95,6 +180,8 @@ public class Up implements Serializable {
      * traversing the class hierarchy and creating (or looking up in the cache)
      * the generator for the subclasses. The generator for 'java.lang.Object' is linked
      * to the root of the Agora system.
+     * Generators are made by one thread at a time. The cache is consulted without locking,
+     * which is what happens nearly always.
      */
     private PrimitiveGenerator generatorFor(Class<?> type, Class<?> superType, boolean isInstance) throws AgoraError {
         var name = type.getName();
@@ -103,17 +190,33 @@ public class Up implements Serializable {
         var generator = cache.get(name);
         if (generator != null) return generator;
 
-        generator = buildAnnotatedGeneratorFor(type);
+        synchronized (building) {
+            generator = cache.get(name);
+            if (generator == null) generator = building.get(name);
+            if (generator != null) return generator;
+            var outermost = building.isEmpty();
+            try {
+                generator = build(name, type, superType, isInstance);
+                if (outermost) cache.putAll(building);
+                return generator;
+            } finally {
+                if (outermost) building.clear();
+            }
+        }
+    }
+
+    private PrimitiveGenerator build(String name, Class<?> type, Class<?> superType, boolean isInstance) throws AgoraError {
+        var generator = buildAnnotatedGeneratorFor(type);
 
         if (generator == null)
             generator = buildReflectedGeneratorFor(type, isInstance);
 
-        cache.put(name, generator);
+        building.put(name, generator);
 
         if (Object.class.equals(type)) {
-            generator.setParent(AgoraGlobals.glob.rootIdentity);
+            generator.setParent(AgoraGlobals.current().rootIdentity);
             generator.installPattern(
-                    new UnaryPattern("primitive"),
+                    UnaryPattern.of("primitive"),
                     new VariableGetAttribute(new VariableContainer(up(true)))
             );
             return generator;
@@ -125,7 +228,7 @@ public class Up implements Serializable {
     }
 
     private static PrimitiveGenerator buildAnnotatedGeneratorFor(Class<?> type) {
-        var table = new HashMap<Pattern, Attribute>(5);
+        var table = new MethodTable();
         for (var x : type.getDeclaredMethods()) {
             var reified = x.getAnnotation(Reified.class) != null;
             var attribute = isStatic(x.getModifiers()) ? new PrimitiveFunctionAttribute(x) : new PrimitiveMethodAttribute(x);
@@ -134,7 +237,7 @@ public class Up implements Serializable {
                 if (annotation != null) {
                     for (var name : annotation.value()) {
                         table.put(
-                                reified ? new OperatorPattern(name) : new OperatorReifierPattern(name),
+                                reified ? OperatorReifierPattern.of(name) : OperatorPattern.of(name),
                                 attribute
                         );
                     }
@@ -145,7 +248,7 @@ public class Up implements Serializable {
                 if (annotation != null) {
                     for (var name : annotation.value()) {
                         table.put(
-                                reified ? new UnaryPattern(name) : new UnaryReifierPattern(name),
+                                reified ? UnaryReifierPattern.of(name) : UnaryPattern.of(name),
                                 attribute
                         );
                     }
@@ -159,7 +262,7 @@ public class Up implements Serializable {
                 }
                 if (!words.isEmpty()) {
                     table.put(
-                            reified ? new KeywordPattern(words) : new KeywordReifierPattern(words),
+                            reified ? KeywordReifierPattern.of(words) : KeywordPattern.of(words),
                             attribute
                     );
                 }
@@ -177,7 +280,7 @@ public class Up implements Serializable {
      * for every class in the hierarchy.
      */
     private PrimitiveGenerator buildReflectedGeneratorFor(Class<?> c, boolean isInstance) throws AgoraError {
-        var theTable = new HashMap<Pattern, Attribute>();
+        var theTable = new MethodTable();
         putFieldsInQueue(c, theTable, isInstance);                       // Insert patterns and fields
         putMethodsInQueue(c, theTable, isInstance);                      // Insert patterns and methods
         putConstructorsInQueue(c, theTable, isInstance);                 // Insert patterns and constructors
@@ -248,7 +351,7 @@ public class Up implements Serializable {
      * Creates a Variable Read pattern for a field f.
      */
     private Pattern createVariableReadPatFor(Field f) {
-        return new UnaryPattern(decaps(f.getName()));
+        return UnaryPattern.of(decaps(f.getName()));
     }
 
     /**
@@ -262,7 +365,7 @@ public class Up implements Serializable {
      * Creates a variable write pattern for a field f, i.e. the name of f with a colon.
      */
     private Pattern createVariableWritePatFor(Field f) {
-        return new KeywordPattern(List.of(new String[]{decaps(f.getName()) + ":"}));
+        return KeywordPattern.of(List.of(new String[]{decaps(f.getName()) + ":"}));
     }
 
     /**
@@ -280,12 +383,12 @@ public class Up implements Serializable {
      */
     private Pattern createMethodPatFor(Method m) {
         var types = m.getParameterTypes();
-        if (types.length == 0) return new UnaryPattern(m.getName());
+        if (types.length == 0) return UnaryPattern.of(m.getName());
         var words = new LinkedList<String>();
         words.add(decaps(m.getName()) + typeNameFor(types[0]) + ":");
         for (var j = 1; j < types.length; j++)
             words.add(typeNameFor(types[j]) + ":");
-        return new KeywordPattern(words);
+        return KeywordPattern.of(words);
     }
 
     /**
@@ -303,12 +406,12 @@ public class Up implements Serializable {
      */
     private Pattern createConstructorPatFor(Constructor<?> c) {
         var types = c.getParameterTypes();
-        if (types.length == 0) return new UnaryPattern("new");
+        if (types.length == 0) return UnaryPattern.of("new");
         var words = new LinkedList<String>();
         words.add("new" + typeNameFor(types[0]) + ":");
         for (var j = 1; j < types.length; j++)
             words.add(typeNameFor(types[j]) + ":");
-        return new KeywordPattern(words);
+        return KeywordPattern.of(words);
     }
 
     /**
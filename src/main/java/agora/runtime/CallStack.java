@@ -0,0 +1,120 @@
+package agora.runtime;
+
+import agora.errors.AgoraError;
+import agora.errors.ProgramError;
+import agora.objects.AgoraObject;
+import agora.tools.AgoraGlobals;
+
+/**
+ * The method activations of an evaluation in the heap stack mode (see Options.heapStack).
+ * Every method invocation is an activation of the Java methods of the evaluator, so without
+ * this mode the depth of Agora recursion is bounded by the size of the Java thread stack.
+ * In the heap stack mode the evaluation is cut into segments of 'segmentDepth' nested
+ * activations, each of which runs on a virtual thread of its own. The segment that invokes
+ * the next one waits for its outcome, which unmounts its virtual thread: the activations of
+ * a waiting segment are kept on the heap, and only the innermost segment occupies a Java
+ * thread stack. Since one segment runs at a time, evaluation stays sequential.
+ * The depth of the evaluation is bounded by 'maxDepth' in the options instead, and
+ * exceeding it gives a ProgramError rather than a StackOverflowError.
+ */
+public final class CallStack {
+    /**
+     * The number of nested activations in one segment. It is small enough for the Java
+     * stack of a segment to hold that many activations of the evaluator.
+     */
+    static final int segmentDepth = 64;
+
+    private static final ThreadLocal<CallStack> current = new ThreadLocal<>();
+
+    private final int maxDepth;
+
+    /**
+     * The number of nested activations.
+     */
+    private int depth;
+
+    /**
+     * The depth at which the current segment started.
+     */
+    private int base;
+
+    private CallStack(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * The evaluation of a method activation.
+     */
+    public interface Activation {
+        AgoraObject run() throws AgoraError;
+    }
+
+    /**
+     * Runs a method activation on the call stack of the current evaluation, which is started
+     * if there is none yet.
+     *
+     * @param activation The activation.
+     * @return The value of the activation.
+     * @throws agora.errors.AgoraError When the activation fails, or when it would exceed
+     *                                 the maximum depth.
+     */
+    public static AgoraObject run(Activation activation) throws AgoraError {
+        var stack = current.get();
+        if (stack != null) return stack.push(activation);
+        stack = new CallStack(AgoraGlobals.current().options.maxDepth);
+        current.set(stack);
+        try {
+            return stack.push(activation);
+        } finally {
+            current.remove();
+        }
+    }
+
+    private AgoraObject push(Activation activation) throws AgoraError {
+        if (depth >= maxDepth)
+            throw new ProgramError("Maximum depth of " + maxDepth + " nested method invocations exceeded");
+        depth++;
+        try {
+            return depth - base < segmentDepth ? activation.run() : onNewSegment(activation);
+        } finally {
+            depth--;
+        }
+    }
+
+    /**
+     * Runs an activation as the first one of a new segment, and waits for its outcome. The
+     * segment runs in the Agora system the evaluation runs in (see AgoraGlobals.enter).
+     */
+    private AgoraObject onNewSegment(Activation activation) throws AgoraError {
+        var outer = base;
+        base = depth;
+        var outcome = new Object[1];
+        var system = AgoraGlobals.current();
+        var segment = Thread.ofVirtual().name("Agora segment at depth " + depth).unstarted(() -> {
+            current.set(this);
+            try (var ignored = system.enter()) {
+                outcome[0] = activation.run();
+            } catch (Throwable ex) {
+                outcome[0] = ex;
+            }
+        });
+        segment.start();
+        var interrupted = false;
+        while (true) {
+            try {
+                segment.join();
+                break;
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        base = outer;
+        if (interrupted) Thread.currentThread().interrupt();
+        return switch (outcome[0]) {
+            case RuntimeException ex -> throw ex;
+            case Error ex -> throw ex;
+            case Throwable ex -> throw new IllegalStateException(ex);
+            case null, default -> (AgoraObject) outcome[0];
+        };
+    }
+}
@@ -30,7 +30,22 @@ import java.io.Serializable;
  */
 public class Client implements Serializable {
     protected AgoraException currentException;
+
+    /**
+     * The actual arguments, if they are kept in an array. Clients of up to three actual
+     * arguments keep them in 'first', 'second' and 'third' instead, until somebody asks
+     * for the array.
+     */
     protected Object[] actuals;
+    private int size;
+    private Object first;
+    private Object second;
+    private Object third;
+
+    /**
+     * The tail call the send carrying this client performs, if any (see TailCall).
+     */
+    private transient TailCall tailCall;
 
     /**
      * This constructor should never be used except from within context agora.objects. The arguments
@@ -47,6 +62,24 @@ public class Client implements Serializable {
         this.currentException = exception;
     }
 
+    /**
+     * Creates a client of up to three actual arguments, without putting them in an array.
+     * Like the other constructor, it should only be used by contexts.
+     *
+     * @param size      The number of actual arguments.
+     * @param first     The first actual argument, if any.
+     * @param second    The second actual argument, if any.
+     * @param third     The third actual argument, if any.
+     * @param exception The last installed agoraexception.
+     */
+    public Client(int size, Object first, Object second, Object third, AgoraException exception) {
+        this.size = size;
+        this.first = first;
+        this.second = second;
+        this.third = third;
+        this.currentException = exception;
+    }
+
     /**
      * This method is part of the contract between contexts and clients. It creates a new
      * context and thereby copies the passed around exception into that context.
@@ -91,6 +124,15 @@ public class Client implements Serializable {
      * @return An array of actual arguments.
      */
     public Object[] getActuals() {
+        if (actuals == null) {
+            actuals = switch (size) {
+                case 0 -> new Object[0];
+                case 1 -> new Object[]{first};
+                case 2 -> new Object[]{first, second};
+                default -> new Object[]{first, second, third};
+            };
+            first = second = third = null;
+        }
         return actuals;
     }
 
@@ -101,6 +143,43 @@ public class Client implements Serializable {
      */
     public void setActuals(Object[] actuals) {
         this.actuals = actuals;
+        first = second = third = null;
+    }
+
+    /**
+     * @return The number of actual arguments.
+     */
+    public int size() {
+        return actuals != null ? actuals.length : size;
+    }
+
+    /**
+     * Get one of the actual arguments, without asking for the array of actual arguments.
+     *
+     * @param index The position of the actual argument, starting from 0.
+     * @return The actual argument.
+     */
+    public Object actual(int index) {
+        if (actuals != null) return actuals[index];
+        if (index >= size) throw new ArrayIndexOutOfBoundsException(index);
+        return switch (index) {
+            case 0 -> first;
+            case 1 -> second;
+            default -> third;
+        };
+    }
+
+    /**
+     * Replaces one of the actual arguments.
+     *
+     * @param index The position of the actual argument, starting from 0.
+     * @param value The new actual argument.
+     */
+    protected void setActual(int index, Object value) {
+        if (actuals != null) actuals[index] = value;
+        else if (index == 0) first = value;
+        else if (index == 1) second = value;
+        else third = value;
     }
 
     /**
@@ -113,22 +192,32 @@ public class Client implements Serializable {
     }
 
     /**
-     * Assuming that the arguments are all expressions, this method up's them one by one.
+     * @return The tail call performing the send that carries this client, or null if the
+     * send is an ordinary one.
+     */
+    public TailCall getTailCall() {
+        return tailCall;
+    }
+
+    /**
+     * Marks the client as carried by the send a tail call performs. The method invoked by
+     * the send leaves its own tail send to that tail call.
      *
-     * @throws agora.errors.AgoraError This exception is thrown when something goes wrong during
-     *                                 the upping process (exception propagated by Up.up).
+     * @param tailCall The tail call.
      */
-    public void actualsUp() throws AgoraError {
-        for (var j = 0; j < actuals.length; j++)
-            actuals[j] = AgoraGlobals.glob.up.up(actuals[j]);
+    public void setTailCall(TailCall tailCall) {
+        this.tailCall = tailCall;
     }
 
     /**
-     * Assuming all actuals are upped objects, this method downs them one by one.
+     * Assuming that the arguments are all expressions, this method up's them one by one.
+     *
+     * @throws agora.errors.AgoraError This exception is thrown when something goes wrong during
+     *                                 the upping process (exception propagated by Up.up).
      */
-    public void actualsDown() {
-        for (var j = 0; j < actuals.length; j++)
-            actuals[j] = ((AgoraObject) actuals[j]).down();
+    public void actualsUp() throws AgoraError {
+        for (var j = 0; j < size(); j++)
+            setActual(j, AgoraGlobals.current().up.up(actual(j)));
     }
 
     /**
@@ -139,21 +228,52 @@ public class Client implements Serializable {
      *                                 actual arguments.
      */
     public void actualsEval(Context context) throws AgoraError {
-        for (var j = 0; j < actuals.length; j++)
-            actuals[j] = ((Expression) actuals[j]).eval(context);
+        for (var j = 0; j < size(); j++)
+            setActual(j, ((Expression) actual(j)).eval(context));
+    }
+
+    /**
+     * @return The number of arguments a Java method invoked with this client gets (see makeNativeArguments).
+     */
+    public int nativeSize() {
+        return size();
+    }
+
+    /**
+     * Assuming that all arguments are upped objects, returns one of the arguments a Java method
+     * invoked with this client gets (see makeNativeArguments).
+     *
+     * @param index The position of the argument, starting from 0.
+     * @return The downed actual argument.
+     */
+    public Object nativeArgument(int index) {
+        return downedActual(index);
+    }
+
+    /**
+     * Assuming that the actual argument is an upped object, returns it downed.
+     *
+     * @param index The position of the actual argument, starting from 0.
+     * @return The downed actual argument.
+     */
+    public Object downedActual(int index) {
+        return ((AgoraObject) actual(index)).down();
     }
 
     /**
      * Assuming that all arguments are upped objects, this method downs them and returns them
      * as an array of agora.objects. This array is usually used to be passed to 'invoke' such that
      * a Java method is invoked with the appropriate set of downed Java agora.objects.
+     * The actuals of the client itself are left as they are, such that the client can still be used.
      *
      * @return An Array of Java (downed!) agora.objects.
      * @throws agora.errors.AgoraError Is thrown when something goes wron during the downing
      *                                 of agora.objects.
      */
     public Object[] makeNativeArguments() throws AgoraError {
-        actualsDown();
-        return actuals;
+        var result = new Object[nativeSize()];
+        for (var j = 0; j < result.length; j++)
+            result[j] = nativeArgument(j);
+        return result;
     }
 }
@@ -6,6 +6,8 @@ import agora.objects.Generator;
 import agora.objects.IdentityGenerator;
 import agora.objects.InternalGenerator;
 import agora.objects.MethodsGenerator;
+import agora.objects.SlotFrame;
+import agora.patterns.Pattern;
 
 import java.io.Serializable;
 
@@ -37,6 +39,13 @@ public class Context implements Serializable {
      */
     protected MethodsGenerator currentPub;
 
+    /**
+     * The activation frame of the method being evaluated, as long as the layer it adds to
+     * the public part has not been needed. While this is set, 'getPub' returns that layer,
+     * which is created the first time it is asked for.
+     */
+    protected SlotFrame currentFrame;
+
     /**
      * The 'current' parent.
      */
@@ -53,6 +62,19 @@ public class Context implements Serializable {
      */
     protected AgoraException currentException;
 
+    /**
+     * True if this is the context of a method body, whose sends in tail position may leave
+     * themselves to the invocation of the method (see TailCall). Copies of the context do not
+     * inherit this: only the body itself is in tail position.
+     */
+    private transient boolean tailCalls;
+
+    /**
+     * The tail call the sends in tail position of the body remember themselves in. It is
+     * created when it is first needed.
+     */
+    private transient TailCall tailCall;
+
     /**
      * Creates a new context. This constructor should never be used, because there is a contract
      * between contexts and clients (see Client). Contexts and clients must create each other,
@@ -94,7 +116,7 @@ public class Context implements Serializable {
      * @return A copy of the specified argument
      */
     public Context newContext(Context c) {
-        return new Context(
+        var result = new Context(
                 c.currentSelf,
                 c.currentPriv,
                 c.currentPub,
@@ -102,6 +124,8 @@ public class Context implements Serializable {
                 c.currentParent,
                 c.currentException
         );
+        result.currentFrame = c.currentFrame;
+        return result;
     }
 
     /**
@@ -116,6 +140,44 @@ public class Context implements Serializable {
         return new Client(actuals, currentException);
     }
 
+    /**
+     * Same as above, for a message without arguments. Clients of up to three actual arguments
+     * keep them without an array.
+     *
+     * @return A new Client object without actuals.
+     */
+    public Client newClient() {
+        return new Client(0, null, null, null, currentException);
+    }
+
+    /**
+     * Same as above, for a message with one argument.
+     *
+     * @param actual The actual argument.
+     * @return A new Client object with the given actual.
+     */
+    public Client newClient(Object actual) {
+        return new Client(1, actual, null, null, currentException);
+    }
+
+    /**
+     * Same as above, for a message with two arguments.
+     *
+     * @return A new Client object with the given actuals.
+     */
+    public Client newClient(Object first, Object second) {
+        return new Client(2, first, second, null, currentException);
+    }
+
+    /**
+     * Same as above, for a message with three arguments.
+     *
+     * @return A new Client object with the given actuals.
+     */
+    public Client newClient(Object first, Object second, Object third) {
+        return new Client(3, first, second, third, currentException);
+    }
+
     /**
      * Same as above, but now a reifier client instead of an ordinary client is created.
      * The difference is that the receiving context (this) is copied into the reifier client,
@@ -130,6 +192,43 @@ public class Context implements Serializable {
         return new ReifierClient(actuals, this, currentException);
     }
 
+    /**
+     * Same as above, for a reifier message without arguments.
+     *
+     * @return A new ReifierClient without actuals.
+     */
+    public ReifierClient newReifierClient() {
+        return new ReifierClient(0, null, null, null, this, currentException);
+    }
+
+    /**
+     * Same as above, for a reifier message with one argument.
+     *
+     * @param actual The actual parameter.
+     * @return A new ReifierClient with the given actual.
+     */
+    public ReifierClient newReifierClient(Object actual) {
+        return new ReifierClient(1, actual, null, null, this, currentException);
+    }
+
+    /**
+     * Same as above, for a reifier message with two arguments.
+     *
+     * @return A new ReifierClient with the given actuals.
+     */
+    public ReifierClient newReifierClient(Object first, Object second) {
+        return new ReifierClient(2, first, second, null, this, currentException);
+    }
+
+    /**
+     * Same as above, for a reifier message with three arguments.
+     *
+     * @return A new ReifierClient with the given actuals.
+     */
+    public ReifierClient newReifierClient(Object first, Object second, Object third) {
+        return new ReifierClient(3, first, second, third, this, currentException);
+    }
+
     /**
      * Copies the receiver and changes the self to the specified parameter.
      *
@@ -163,6 +262,7 @@ public class Context implements Serializable {
     public Context setPub(MethodsGenerator pub) {
         var newC = newContext(this);
         newC.currentPub = pub;
+        newC.currentFrame = null;
         return newC;
     }
 
@@ -245,6 +345,7 @@ public class Context implements Serializable {
      */
     public void impSetPublic(MethodsGenerator pub) {
         this.currentPub = pub;
+        this.currentFrame = null;
     }
 
     /**
@@ -326,6 +427,7 @@ public class Context implements Serializable {
         newC.currentSelf = self;
         newC.currentPriv = priv;
         newC.currentPub = pub;
+        newC.currentFrame = null;
         newC.currentCategory = cat;
         newC.currentParent = parent;
         return newC;
@@ -349,12 +451,59 @@ public class Context implements Serializable {
         return currentPriv;
     }
 
+    /**
+     * Makes the context in which the body of a method is evaluated. The activation frame of
+     * the method becomes the private part; the public part becomes the calling frame of the
+     * method, which is only created when it is needed.
+     *
+     * @param frame The activation frame of the method.
+     * @param msg   The message that invoked the method.
+     * @return The new context.
+     */
+    public Context setMethodFrame(SlotFrame frame, Pattern msg) {
+        frame.calledFrom(currentPub, currentFrame, msg);
+        var newC = newContext(this);
+        newC.currentPriv = frame;
+        newC.currentFrame = frame;
+        return newC;
+    }
+
+    /**
+     * Lets the sends in tail position of a method body that is evaluated in this context
+     * leave themselves to the invocation of the method. This is only done by MethodAttribute,
+     * on the context made by 'setMethodFrame'.
+     *
+     * @param tailCall The tail call of the invocation, or null to create one when needed.
+     * @return The receiving context.
+     */
+    public Context allowTailCalls(TailCall tailCall) {
+        this.tailCalls = true;
+        this.tailCall = tailCall;
+        return this;
+    }
+
+    /**
+     * @return True if sends in tail position may leave themselves to the tail call of the context.
+     */
+    public boolean allowsTailCalls() {
+        return tailCalls;
+    }
+
+    /**
+     * @return The tail call of the method body evaluated in this context.
+     */
+    public TailCall tailCall() {
+        if (tailCall == null) tailCall = new TailCall();
+        return tailCall;
+    }
+
     /**
      * Read the public part from the context.
      *
      * @return The public part carried around in this context.
      */
     public MethodsGenerator getPub() {
+        if (currentFrame != null) return currentFrame.callingFrame();
         return currentPub;
     }
 
@@ -1,10 +1,7 @@
 package agora.runtime;
 
-import agora.errors.AgoraError;
 import agora.errors.AgoraException;
 
-import static java.lang.System.arraycopy;
-
 /**
  * During normal message passing, a client object transports the actual arguments
  * from the sender of the message to the receiver of the message. But when the
@@ -42,6 +39,21 @@ public class ReifierClient extends Client {
         this.context = context;
     }
 
+    /**
+     * Creates a reifier client of up to three actual arguments, without putting them in an array.
+     *
+     * @param size      The number of actual parameters.
+     * @param first     The first actual parameter, if any.
+     * @param second    The second actual parameter, if any.
+     * @param third     The third actual parameter, if any.
+     * @param context   The context of evaluation during sending of the reifier message.
+     * @param exception The exception as is carried around by the context that calls this constructor.
+     */
+    public ReifierClient(int size, Object first, Object second, Object third, Context context, AgoraException exception) {
+        super(size, first, second, third, exception);
+        this.context = context;
+    }
+
     /**
      * Returns the context that created this client, that is the context of invocation of
      * the message that needed this client. (Dynamic Scoping!)
@@ -63,23 +75,26 @@ public class ReifierClient extends Client {
 
     /**
      * This method overrides the one in 'Client'. When native arguments
-     * are constructed from the actuals in an ordinary client, this is just an
-     * array of objects, being the actuals. These are used for 'invoke'.
+     * are constructed from the actuals in an ordinary client, these are just
+     * the actuals. These are used for 'invoke'.
      * But when native arguments are to be prepared for a reifier method,
      * the context residing in this client (i.e. the context where the reifier was sent),
      * has to be passed around as the first argument when invoking the reifier implementation.
      *
-     * @return An array of downed actual arguments (as residing in the receiving client),
-     * but the first of this array is the context where the reifier was sent.
-     * @throws agora.errors.AgoraError Is thrown whenever something goes wrong during
-     *                                 downing of the actuals.
+     * @return The number of actual arguments, plus one for the context.
      */
-    public Object[] makeNativeArguments() throws AgoraError {
-        actualsDown();
-        var result = new Object[actuals.length + 1];
-        result[0] = context;
-        arraycopy(actuals, 0, result, 1, actuals.length);
-        return result;
+    public int nativeSize() {
+        return size() + 1;
     }
-}
 
+    /**
+     * The first native argument is the context where the reifier was sent, the others are
+     * the downed actual arguments (see nativeSize).
+     *
+     * @param index The position of the argument, starting from 0.
+     * @return The context or a downed actual argument.
+     */
+    public Object nativeArgument(int index) {
+        return index == 0 ? context : super.nativeArgument(index - 1);
+    }
+}
@@ -0,0 +1,93 @@
+package agora.runtime;
+
+import agora.errors.AgoraError;
+import agora.grammar.Expression;
+import agora.objects.AgoraObject;
+import agora.objects.InlineCache;
+import agora.objects.InternalGenerator;
+import agora.patterns.Pattern;
+
+/**
+ * A send in tail position of a method body that is still to be performed. The value of such a
+ * send is the value of the method, so rather than performing it on top of the invocation of
+ * the method, the send is remembered here and the body returns 'pending'. The invocation that
+ * started the chain of tail sends then performs it (see MethodAttribute.doAttributeValue), and
+ * keeps performing the tail sends of the methods it invokes that way, in constant Java stack,
+ * until one of them returns a real value.
+ * There is one tail call per such chain: a method invoked by performing a tail call remembers
+ * its own tail send in the same one.
+ */
+public final class TailCall {
+    /**
+     * The value returned by a body whose value is the tail call that is still to be performed.
+     * It is never seen by Agora programs.
+     */
+    public static final AgoraObject pending = new AgoraObject(null);
+
+    private AgoraObject receiver;
+    private InternalGenerator start;
+    private Pattern msg;
+    private Client client;
+    private InlineCache cache;
+    private Context context;
+    private Expression code;
+
+    /**
+     * Remembers the send of a message to a receiver.
+     *
+     * @param code The send, with which errors are annotated.
+     * @return 'pending'.
+     */
+    public AgoraObject send(AgoraObject receiver, Pattern msg, Client client, InlineCache cache, Expression code) {
+        this.receiver = receiver;
+        this.start = null;
+        return remember(msg, client, cache, null, code);
+    }
+
+    /**
+     * Remembers the delegation of a message to a private part, as a receiverless pattern does.
+     *
+     * @param code The send, with which errors are annotated.
+     * @return 'pending'.
+     */
+    public AgoraObject delegate(InternalGenerator start, Pattern msg, Client client, InlineCache cache, Context context, Expression code) {
+        this.receiver = null;
+        this.start = start;
+        return remember(msg, client, cache, context, code);
+    }
+
+    private AgoraObject remember(Pattern msg, Client client, InlineCache cache, Context context, Expression code) {
+        this.msg = msg;
+        this.client = client;
+        this.cache = cache;
+        this.context = context;
+        this.code = code;
+        return pending;
+    }
+
+    /**
+     * Performs the send that was remembered last. A method it invokes remembers its own tail
+     * send in this tail call again.
+     *
+     * @return The value of the send, which is 'pending' if it left another tail call.
+     * @throws agora.errors.AgoraError When something goes wrong during the send.
+     */
+    public AgoraObject perform() throws AgoraError {
+        var receiver = this.receiver;
+        var start = this.start;
+        var context = this.context;
+        var code = this.code;
+        this.receiver = null;
+        this.start = null;
+        this.context = null;
+        client.setTailCall(this);
+        try {
+            return receiver != null
+                    ? receiver.send(msg, client, cache)
+                    : cache.delegate(start, msg, client, context);
+        } catch (AgoraError ex) {
+            ex.setCode(code);
+            throw ex;
+        }
+    }
+}
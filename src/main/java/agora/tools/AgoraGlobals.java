@@ -15,7 +15,6 @@ import agora.runtime.Context;
 import java.applet.Applet;
 import java.awt.*;
 import java.io.Serializable;
-import java.util.Hashtable;
 
 /**
  * This class implements the global variables of the Agora System.
@@ -28,12 +27,26 @@ import java.util.Hashtable;
 public class AgoraGlobals implements Serializable {
 
     /**
-     * The only instance of this class. The only correct way of instantiating this
+     * The Agora system of the application or applet. The only correct way of instantiating this
      * class is :<p>
      * AgoraGlobals.glob = new AgoraGlobals(this) where this is the applet.
+     * Threads that entered another system (see enter) use that one instead: the code of the
+     * interpreter asks for the system it runs in with 'current'.
      */
     public static AgoraGlobals glob;
 
+    /**
+     * The system each thread entered, if any.
+     */
+    private static final ThreadLocal<AgoraGlobals> entered = new ThreadLocal<>();
+
+    /**
+     * Whether a thread ever entered a system. As long as none did, 'current' need not ask
+     * which system the thread entered. A thread that enters a system sets this itself, so
+     * it always sees it set.
+     */
+    private static boolean everEntered;
+
     public Up up;
 
     /**
@@ -55,6 +68,16 @@ public class AgoraGlobals implements Serializable {
      */
     public IdentityGenerator rootIdentity;
 
+    /**
+     * The options of this Agora system.
+     */
+    public Options options = new Options();
+
+    /**
+     * The lookup cache of this Agora system, shared by all its evaluations (see LookupCache).
+     */
+    private transient LookupCache lookups;
+
     /**
      * This constructor must be called at System startup time. It creates the
      * global variables, and fills the root objects with the standardly
@@ -66,66 +89,139 @@ public class AgoraGlobals implements Serializable {
      *                                 object (e.g. when a bug exists in some upping procedure or so...).
      */
     public AgoraGlobals(Applet applet, Frame window) throws AgoraError {
-        glob = this;
+        this(applet, window, true);
+    }
+
+    private AgoraGlobals(Applet applet, Frame window, boolean shared) throws AgoraError {
+        if (shared) glob = this;
+        // glob is current anyway, unless the thread entered another system
+        if (shared && entered.get() == null) fill(applet, window);
+        else try (var ignored = enter()) {
+            fill(applet, window);
+        }
+    }
+
+    /**
+     * Creates an Agora system of its own, with its own root object, reflection wrappers and
+     * options. Unlike the constructor, this does not replace glob: the system is only used by
+     * the threads that enter it. Hence, one Java virtual machine can run several Agora systems
+     * side by side, each on its own threads.
+     *
+     * @param window The top level window in which the system runs, or null.
+     * @return The new Agora system.
+     * @throws agora.errors.AgoraError When something goes wrong during initialisation of the root object.
+     */
+    public static AgoraGlobals isolated(Frame window) throws AgoraError {
+        return new AgoraGlobals(null, window, false);
+    }
+
+    /**
+     * @return The Agora system the current thread entered, or glob if it did not enter one.
+     */
+    public static AgoraGlobals current() {
+        return everEntered ? entered() : glob;
+    }
+
+    private static AgoraGlobals entered() {
+        var system = entered.get();
+        return system != null ? system : glob;
+    }
+
+    /**
+     * Lets the current thread run in this Agora system until the result is closed, e.g.<p>
+     * try (var ignored = system.enter()) { expression.defaultEval(); }
+     *
+     * @return The entry, which returns the thread to the system it ran in before when closed.
+     */
+    public Entry enter() {
+        var entry = new Entry(entered.get());
+        entered.set(this);
+        everEntered = true;
+        return entry;
+    }
+
+    /**
+     * An entry of a thread in an Agora system (see enter).
+     *
+     * @param previous The system the thread entered before, or null.
+     */
+    public record Entry(AgoraGlobals previous) implements AutoCloseable {
+        public void close() {
+            if (previous == null) entered.remove();
+            else entered.set(previous);
+        }
+    }
 
+    /**
+     * @return The lookup cache of this Agora system.
+     */
+    public LookupCache lookups() {
+        if (lookups == null) lookups = new LookupCache(1024);
+        return lookups;
+    }
+
+    /**
+     * Creates the root object and fills it with the standardly available methods.
+     */
+    private void fill(Applet applet, Frame window) throws AgoraError {
         // Construct The Root Object
         var publicTop = new EmptyGenerator("Root Public Super");
         var privateTop = new EmptyGenerator("Root Private Super");
-        var rootPublic = new InternalGenerator("Root Public", new Hashtable<>(3), null, publicTop);
-        var privateRoot = new InternalGenerator("Root Private", new Hashtable<>(3), null, privateTop);
+        var rootPublic = new InternalGenerator("Root Public", new MethodTable(), null, publicTop);
+        var privateRoot = new InternalGenerator("Root Private", new MethodTable(), null, privateTop);
         rootPublic.setPrivate(privateRoot);
         privateRoot.setPrivate(privateRoot);
         rootParent = publicTop;
         rootPrivate = privateRoot;
         rootIdentity = new UserIdentityGenerator("Root Object", rootPublic, null);
 
-        up = new Up();
+        up = new Up(options.smallestCachedInteger, options.largestCachedInteger);
         this.window = window;
 
         // Fill the ROOT object with the standard methods
         // java
-        var java = new UnaryPattern("java");
+        var java = UnaryPattern.of("java");
         var javaPackage = new VariableContainer(up.up(new JV_Package("java")));
         var javaReader = new VariableGetAttribute(javaPackage);
         rootPrivate.installPattern(java, javaReader);
 
         //null
-        var nil = new UnaryPattern("null");
+        var nil = UnaryPattern.of("null");
         var nilObject = new VariableContainer(up.up(null));
         var nilReader = new VariableGetAttribute(nilObject);
         rootPrivate.installPattern(nil, nilReader);
 
         //true
-        var trueP = new UnaryPattern("true");
+        var trueP = UnaryPattern.of("true");
         var trueObject = new VariableContainer(up.up(true));
         var trueReader = new VariableGetAttribute(trueObject);
         rootPrivate.installPattern(trueP, trueReader);
 
         //false
-        var falseP = new UnaryPattern("false");
+        var falseP = UnaryPattern.of("false");
         var falseObject = new VariableContainer(up.up(false));
         var falseReader = new VariableGetAttribute(falseObject);
         rootPrivate.installPattern(falseP, falseReader);
 
         //agora
-        var agoraP = new UnaryPattern("agora");
+        var agoraP = UnaryPattern.of("agora");
         var agoraObject = new VariableContainer(rootIdentity.wrap());
         var agoraReader = new VariableGetAttribute(agoraObject);
         rootPrivate.installPattern(agoraP, agoraReader);
 
         //applet
-        var appletP = new UnaryPattern("applet");
+        var appletP = UnaryPattern.of("applet");
         var appletObject = new VariableContainer(up.up(applet));
         var appletReader = new VariableGetAttribute(appletObject);
         rootPrivate.installPattern(appletP, appletReader);
 
         //primitive
-        var primitiveP = new UnaryPattern("primitive");
+        var primitiveP = UnaryPattern.of("primitive");
         rootPublic.installPattern(primitiveP, falseReader);
 
         //SELF
         try {
-            var selfP = new UnaryReifierPattern("SELF");
+            var selfP = UnaryReifierPattern.of("SELF");
             var selfMeth = new PrimitiveReifierMethodAttribute(Context.class.getMethod("Self", Context.class));
             rootPrivate.installPattern(selfP, selfMeth);
         } catch (Throwable e) {
@@ -134,7 +230,7 @@ public class AgoraGlobals implements Serializable {
 
         // inspect
         try {
-            var inspect = new UnaryPattern("inspect");
+            var inspect = UnaryPattern.of("inspect");
             var inspectMeth = new PrimitiveReifierMethodAttribute(Context.class.getMethod("inspectPrimitive"));
             rootPublic.installPattern(inspect, inspectMeth);
         } catch (Throwable e) {
@@ -150,10 +246,10 @@ public class AgoraGlobals implements Serializable {
      */
     public void updateApplet(Applet applet) {
         try {
-            var appletPat = new UnaryPattern("applet");
+            var appletPat = UnaryPattern.of("applet");
             var appletObject = new VariableContainer(up.up(applet));
             var appletReader = new VariableGetAttribute(appletObject);
-            rootPrivate.getHashTable().put(appletPat, appletReader);
+            rootPrivate.installPattern(appletPat, appletReader);
         } catch (AgoraError ex) {
             java.lang.System.out.println("A SERIOUS SYSTEM ERROR HAS OCCURED:updateApplet");
         }
@@ -0,0 +1,82 @@
+package agora.tools;
+
+import java.io.Serializable;
+
+/**
+ * The options of one Agora system. Each AgoraGlobals instance has its own options,
+ * such that they can be changed while the system runs. The initial values can be
+ * given as system properties when starting Java, e.g. -Dagora.compileThreshold=100.
+ */
+public class Options implements Serializable {
+    /**
+     * The number of times the body of a method or loop is evaluated by the
+     * tree-walking evaluator before it is compiled to JVM bytecode. A negative
+     * number turns compilation off.
+     */
+    public int compileThreshold = Integer.getInteger("agora.compileThreshold", 1000);
+
+    /**
+     * Whether expressions may specialise themselves to the values they have seen during
+     * evaluation (e.g. a message '+' that has only been sent to integers). Turning this off,
+     * e.g. with -Dagora.noSpecialisation=true, is useful when debugging the evaluator.
+     */
+    public boolean specialise = !Boolean.getBoolean("agora.noSpecialisation");
+
+    /**
+     * Whether parsed expressions are folded, e.g. with -Dagora.fold=true: the parts that only
+     * depend on literals are computed once (see agora.grammar.Folding).
+     */
+    public boolean fold = Boolean.getBoolean("agora.fold");
+
+    /**
+     * Whether Agora errors record the Java stack where they were thrown, e.g. with
+     * -Dagora.errorTraces=true. This is only useful when debugging the evaluator: recording
+     * the stack makes every RAISE and every message that is not understood expensive.
+     */
+    public boolean errorTraces = Boolean.getBoolean("agora.errorTraces");
+
+    /**
+     * Whether method activations are kept on the heap rather than on the Java stack, e.g. with
+     * -Dagora.heapStack=true, such that deep recursion does not need a larger -Xss (see
+     * agora.runtime.CallStack). The depth of recursion is then bounded by maxDepth instead,
+     * e.g. -Dagora.maxDepth=1000000.
+     */
+    public boolean heapStack = Boolean.getBoolean("agora.heapStack");
+    public int maxDepth = Integer.getInteger("agora.maxDepth", 100000);
+
+    /**
+     * The least number of frames behind a frame of an object for which the frame flattens its
+     * delegation chain once the chain is stable (see agora.objects.FlatChain), e.g.
+     * -Dagora.flattenDepth=16. A negative number turns flattening off.
+     */
+    public int flattenDepth = Integer.getInteger("agora.flattenDepth", 8);
+
+    /**
+     * The range of integers for which one canonical Agora object is kept, such that upping
+     * them does not allocate, e.g. -Dagora.largestCachedInteger=100000.
+     */
+    public int smallestCachedInteger = Integer.getInteger("agora.smallestCachedInteger", -128);
+    public int largestCachedInteger = Integer.getInteger("agora.largestCachedInteger", 1024);
+
+    /**
+     * The engine that runs top level expressions and the bodies of methods and loops,
+     * e.g. -Dagora.engine=vm.
+     */
+    public Engine engine = Engine.valueOf(System.getProperty("agora.engine", "evaluator").toUpperCase());
+
+    /**
+     * The execution engines of Agora.
+     */
+    public enum Engine {
+        /**
+         * The tree-walking evaluator, which compiles hot bodies to JVM bytecode
+         * (see compileThreshold).
+         */
+        EVALUATOR,
+        /**
+         * The virtual machine, which translates expressions to a compact bytecode
+         * and interprets that (see agora.vm.Code).
+         */
+        VM
+    }
+}
@@ -0,0 +1,228 @@
+package agora.vm;
+
+import agora.compiler.CompiledCode;
+import agora.compiler.SendSite;
+import agora.errors.AgoraError;
+import agora.grammar.BuiltinReifierMessage;
+import agora.grammar.CountingLoop;
+import agora.grammar.Expression;
+import agora.grammar.ForRange;
+import agora.objects.AgoraObject;
+import agora.runtime.Context;
+import agora.tools.AgoraGlobals;
+
+import java.util.Arrays;
+
+/**
+ * The bytecode of an expression, together with the interpreter that runs it. The code
+ * is a flat array of instructions for a stack machine: message sends, blocks and the
+ * lowered control reifiers (IFTRUE:IFFALSE:, WHILETRUE:, FOR:TO:DO: and friends) are
+ * translated to instructions, such that evaluating them takes no Java stack frames of
+ * their own. Every other expression is evaluated by the ordinary evaluator from within
+ * the code (instruction EVAL). So are operator messages and receiverless unary patterns,
+ * which the evaluator specialises to arithmetic and to direct reads of variables.
+ * Besides its operand stack, the code has locals, which hold the counting loops that are
+ * running. Both are kept in an array that the code running on a thread shares (see Frames).
+ * The instructions are:
+ * <ul>
+ * <li>EVAL e: pushes the value of expression constant e.</li>
+ * <li>SEND s n: pops n actual arguments and a receiver, and pushes the result of
+ * sending the message of send site s to the receiver.</li>
+ * <li>DELEGATE s n: pops n actual arguments and pushes the result of sending the
+ * message of send site s to the private part of the context.</li>
+ * <li>POP: discards the top of the stack.</li>
+ * <li>RETURN: returns the top of the stack.</li>
+ * <li>NIL: pushes the null object.</li>
+ * <li>JUMP t: continues at offset t.</li>
+ * <li>LOWERED r t: if lowered reifier r is sent rather than evaluated by the node (see
+ * BuiltinReifierMessage.lowered), pushes the value of sending it and continues at t.</li>
+ * <li>IFTRUE r t, IFFALSE r t: evaluates the condition of lowered reifier r, and continues
+ * at t if it is true, respectively false.</li>
+ * <li>ENTER r k: starts the counting loop of lowered reifier r, keeps it in local k and
+ * the context in local k + 1, and makes the context of the body of the loop current.</li>
+ * <li>NEXT k t: gives the loop variable of the loop in local k its next value, or
+ * continues at t if the loop is done.</li>
+ * <li>LEAVE k: makes the context kept in local k + 1 current again.</li>
+ * </ul>
+ */
+public final class Code implements CompiledCode {
+    static final int EVAL = 0;
+    static final int SEND = 1;
+    static final int DELEGATE = 2;
+    static final int POP = 3;
+    static final int RETURN = 4;
+    static final int NIL = 5;
+    static final int JUMP = 6;
+    static final int LOWERED = 7;
+    static final int IFTRUE = 8;
+    static final int IFFALSE = 9;
+    static final int ENTER = 10;
+    static final int NEXT = 11;
+    static final int LEAVE = 12;
+
+    private static final String[] names = {
+            "EVAL", "SEND", "DELEGATE", "POP", "RETURN", "NIL", "JUMP", "LOWERED", "IFTRUE", "IFFALSE", "ENTER", "NEXT", "LEAVE"
+    };
+    private static final int[] operands = {1, 2, 2, 0, 0, 0, 1, 2, 2, 2, 2, 2, 1};
+
+    /**
+     * True for the instructions whose first operand is a constant.
+     */
+    private static final boolean[] constant = {
+            true, true, true, false, false, false, false, true, true, true, true, false, false
+    };
+
+    private static final ThreadLocal<Frames> frames = ThreadLocal.withInitial(Frames::new);
+
+    private final int[] instructions;
+    private final Object[] constants;
+    private final int maxLocals;
+    private final int maxStack;
+
+    Code(int[] instructions, Object[] constants, int maxLocals, int maxStack) {
+        this.instructions = instructions;
+        this.constants = constants;
+        this.maxLocals = maxLocals;
+        this.maxStack = maxStack;
+    }
+
+    /**
+     * Translates an expression to bytecode.
+     *
+     * @param expression The expression to be translated.
+     * @return Code that evaluates as the expression does.
+     */
+    public static Code of(Expression expression) {
+        return new CodeGenerator().generate(expression);
+    }
+
+    /**
+     * Runs the code. Its locals and operand stack are taken from the top of the values of
+     * the thread, and given back when it is done.
+     *
+     * @param context The evaluation context.
+     * @return The value of the expression the code was generated from.
+     * @throws AgoraError Errors occurred during evaluation.
+     */
+    public AgoraObject eval(Context context) throws AgoraError {
+        var frames = Code.frames.get();
+        var base = frames.top;
+        var size = maxLocals + maxStack;
+        var values = frames.values;
+        if (base + size > values.length) frames.values = values = new Object[2 * values.length + size];
+        frames.top = base + size;
+        try {
+            return run(context, values, base);
+        } finally {
+            Arrays.fill(values, base, base + size, null);
+            frames.top = base;
+        }
+    }
+
+    private AgoraObject run(Context context, Object[] stack, int locals) throws AgoraError {
+        var code = instructions;
+        var sp = locals + maxLocals;
+        var pc = 0;
+        while (true) {
+            var opcode = code[pc++];
+            switch (opcode) {
+                case EVAL -> stack[sp++] = ((Expression) constants[code[pc++]]).eval(context);
+                case SEND -> {
+                    var site = (SendSite) constants[code[pc++]];
+                    var count = code[pc++];
+                    var receiver = (AgoraObject) stack[--sp];
+                    sp -= count;
+                    stack[sp] = switch (count) {
+                        case 0 -> site.send(receiver, context);
+                        case 1 -> site.send(stack[sp], receiver, context);
+                        case 2 -> site.send(stack[sp], stack[sp + 1], receiver, context);
+                        case 3 -> site.send(stack[sp], stack[sp + 1], stack[sp + 2], receiver, context);
+                        default -> site.send(Arrays.copyOfRange(stack, sp, sp + count), receiver, context);
+                    };
+                    sp++;
+                }
+                case DELEGATE -> {
+                    var site = (SendSite) constants[code[pc++]];
+                    var count = code[pc++];
+                    sp -= count;
+                    stack[sp] = switch (count) {
+                        case 0 -> site.delegate(context);
+                        case 1 -> site.delegate(stack[sp], context);
+                        case 2 -> site.delegate(stack[sp], stack[sp + 1], context);
+                        case 3 -> site.delegate(stack[sp], stack[sp + 1], stack[sp + 2], context);
+                        default -> site.delegate(Arrays.copyOfRange(stack, sp, sp + count), context);
+                    };
+                    sp++;
+                }
+                case POP -> stack[--sp] = null;
+                case RETURN -> {
+                    return (AgoraObject) stack[sp - 1];
+                }
+                case NIL -> stack[sp++] = AgoraGlobals.current().up.up(null);
+                case JUMP -> pc = code[pc];
+                case LOWERED -> {
+                    var reifier = (BuiltinReifierMessage) constants[code[pc++]];
+                    if (reifier.lowered()) pc++;
+                    else {
+                        stack[sp++] = reifier.eval(context);
+                        pc = code[pc];
+                    }
+                }
+                case IFTRUE, IFFALSE -> {
+                    var reifier = (BuiltinReifierMessage) constants[code[pc++]];
+                    pc = reifier.test(context) == (opcode == IFTRUE) ? code[pc] : pc + 1;
+                }
+                case ENTER -> {
+                    var loop = ((ForRange) constants[code[pc++]]).start(context);
+                    var local = locals + code[pc++];
+                    stack[local] = loop;
+                    stack[local + 1] = context;
+                    context = loop.context();
+                    stack[sp++] = AgoraGlobals.current().up.up(null);
+                }
+                case NEXT -> {
+                    var loop = (CountingLoop) stack[locals + code[pc++]];
+                    pc = loop.next() ? pc + 1 : code[pc];
+                }
+                case LEAVE -> {
+                    var local = locals + code[pc++];
+                    context = (Context) stack[local + 1];
+                    stack[local] = null;
+                    stack[local + 1] = null;
+                }
+                default -> throw new IllegalStateException("Illegal instruction " + opcode);
+            }
+        }
+    }
+
+    /**
+     * Lists the instructions of the code, one per line, preceded by their offset.
+     */
+    public String toString() {
+        var result = new StringBuilder();
+        for (var pc = 0; pc < instructions.length; ) {
+            var opcode = instructions[pc];
+            result.append(pc).append(' ').append(names[opcode]);
+            for (var i = 1; i <= operands[opcode]; i++) result.append(' ').append(instructions[pc + i]);
+            if (constant[opcode]) result.append("    ; ").append(describe(constants[instructions[pc + 1]]));
+            result.append('\n');
+            pc += 1 + operands[opcode];
+        }
+        return result.toString();
+    }
+
+    private static String describe(Object constant) {
+        return constant instanceof Expression expression ? expression.unparse(0).strip() : constant.toString();
+    }
+
+    /**
+     * The values of the code running on a thread. Each run of code takes the locals and the
+     * operand stack it needs from the top, above those of the code it was called from, so
+     * that running code allocates nothing. A run that does not fit gets a larger array, which
+     * the runs after it use as well; the runs that were already going keep the array they had.
+     */
+    private static final class Frames {
+        private Object[] values = new Object[256];
+        private int top;
+    }
+}
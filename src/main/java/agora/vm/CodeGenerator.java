@@ -0,0 +1,150 @@
+package agora.vm;
+
+import agora.compiler.SendSite;
+import agora.grammar.Block;
+import agora.grammar.Expression;
+import agora.grammar.ForRange;
+import agora.grammar.If;
+import agora.grammar.UserMessage;
+import agora.grammar.UserOperatorPattern;
+import agora.grammar.UserPattern;
+import agora.grammar.UserUnaryPattern;
+import agora.grammar.While;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static agora.vm.Code.*;
+
+/**
+ * Translates expressions to bytecode for the virtual machine (see Code).
+ */
+class CodeGenerator {
+    private int[] instructions = new int[16];
+    private int size;
+    private final List<Object> constants = new ArrayList<>();
+    private int locals;
+    private int stack;
+    private int maxStack;
+
+    Code generate(Expression expression) {
+        emit(expression);
+        op(RETURN, 0);
+        return new Code(Arrays.copyOf(instructions, size), constants.toArray(), locals, maxStack);
+    }
+
+    /**
+     * Emits code leaving the value of an expression on the stack. Actual arguments are
+     * evaluated from left to right before the receiver, just as the evaluator does.
+     * A lowered reifier first checks that it is not to be sent instead; its condition,
+     * branches and body are translated in line.
+     */
+    private void emit(Expression expression) {
+        switch (expression) {
+            case UserMessage message when !(message.pattern() instanceof UserOperatorPattern) -> {
+                var pattern = (UserPattern) message.pattern();
+                var arguments = pattern.arguments();
+                arguments.forEach(this::emit);
+                emit(message.receiver());
+                op(SEND, -arguments.size(), constant(new SendSite(message, pattern.makePattern(null))), arguments.size());
+            }
+            case UserPattern pattern when !(pattern instanceof UserUnaryPattern) -> {
+                var arguments = pattern.arguments();
+                arguments.forEach(this::emit);
+                op(DELEGATE, 1 - arguments.size(), constant(new SendSite(pattern, pattern.makePattern(null))), arguments.size());
+            }
+            case Block block when block.size() > 0 -> {
+                for (var i = 0; i < block.size(); i++) {
+                    if (i > 0) op(POP, -1);
+                    emit(block.at(i));
+                }
+            }
+            case If reifier -> {
+                var node = constant(reifier);
+                var sent = jump(LOWERED, 0, node);
+                var otherwise = jump(IFFALSE, 0, node);
+                emitOrNil(reifier.whenTrue());
+                var done = jump(JUMP, -1);
+                label(otherwise);
+                emitOrNil(reifier.whenFalse());
+                label(done);
+                label(sent);
+            }
+            case While reifier -> {
+                var node = constant(reifier);
+                var sent = jump(LOWERED, 0, node);
+                op(NIL, 1);
+                var again = size;
+                var done = jump(reifier.expected() ? IFFALSE : IFTRUE, 0, node);
+                op(POP, -1);
+                emit(reifier.body());
+                op(JUMP, 0, again);
+                label(done);
+                label(sent);
+            }
+            case ForRange reifier -> {
+                var node = constant(reifier);
+                var sent = jump(LOWERED, 0, node);
+                var loop = locals;
+                locals += 2;
+                op(ENTER, 1, node, loop);
+                var again = size;
+                var done = jump(NEXT, 0, loop);
+                op(POP, -1);
+                emit(reifier.body());
+                op(JUMP, 0, again);
+                label(done);
+                op(LEAVE, 0, loop);
+                label(sent);
+            }
+            default -> op(EVAL, 1, constant(expression));
+        }
+    }
+
+    /**
+     * Emits code leaving the value of an expression on the stack, or the null object if there
+     * is no expression.
+     */
+    private void emitOrNil(Expression expression) {
+        if (expression == null) op(NIL, 1);
+        else emit(expression);
+    }
+
+    /**
+     * Emits an instruction.
+     *
+     * @param effect   The number of values the instruction pushes (negative if it pops).
+     * @param operands The operands of the instruction.
+     */
+    private void op(int opcode, int effect, int... operands) {
+        if (size + 1 + operands.length > instructions.length)
+            instructions = Arrays.copyOf(instructions, 2 * instructions.length + operands.length);
+        instructions[size++] = opcode;
+        for (var operand : operands) instructions[size++] = operand;
+        stack += effect;
+        maxStack = Math.max(maxStack, stack);
+    }
+
+    /**
+     * Emits an instruction whose last operand is an offset to jump to, which is not known yet.
+     *
+     * @return The position of the offset, to be filled in by 'label'.
+     */
+    private int jump(int opcode, int effect, int... operands) {
+        op(opcode, effect, Arrays.copyOf(operands, operands.length + 1));
+        return size - 1;
+    }
+
+    /**
+     * Makes the jump whose offset is at a position continue at the current offset.
+     */
+    private void label(int jump) {
+        instructions[jump] = size;
+    }
+
+    private int constant(Object value) {
+        constants.add(value);
+        return constants.size() - 1;
+    }
+}
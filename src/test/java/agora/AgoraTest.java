@@ -94,6 +94,22 @@ public class AgoraTest {
         assertEquals("bye", captureOut(expression::defaultEval));
     }
 
+    @Test
+    public void shouldSeeRedefinedMethod() throws IOException {
+        var expression = compile("""
+                {
+                    f LOCAL METHOD: 1;
+                    t LOCAL VARIABLE: 0;
+                    i FOR: 1 TO: 3 DO: {
+                        t: t * 10 + f;
+                        i = 2 IFTRUE: (f LOCAL METHOD: 2)
+                    };
+                    t
+                }
+                """);
+        assertEquals(112, expression.defaultEval().<Integer>down());
+    }
+
     public static String captureOut(Runnable statement) {
         var original = System.out;
         try (
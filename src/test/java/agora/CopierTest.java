@@ -0,0 +1,63 @@
+package agora;
+
+import agora.attributes.VariableContainer;
+import agora.attributes.VariableGetAttribute;
+import agora.attributes.VariableSetAttribute;
+import agora.objects.EmptyGenerator;
+import agora.objects.InternalGenerator;
+import agora.tools.AgoraGlobals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Hashtable;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CopierTest {
+    @BeforeEach
+    public void setUp() {
+        AgoraGlobals.glob = new AgoraGlobals(null, null);
+    }
+
+    @Test
+    public void shouldCopySharedThingsOnce() {
+        var container = new VariableContainer(AgoraGlobals.glob.up.up(3));
+        var copier = new Copier();
+        var getter = copier.copy(new VariableGetAttribute(container));
+        var setter = copier.copy(new VariableSetAttribute(container));
+        assertNotSame(container, getter.getContents());
+        assertSame(getter.getContents(), setter.getContents());
+        assertEquals(3, getter.read().<Integer>down());
+    }
+
+    @Test
+    public void shouldKeepThingsOutOfTheCopy() {
+        var top = new InternalGenerator("top", new Hashtable<>(3), null, new EmptyGenerator("empty"));
+        var frame = new InternalGenerator("frame", new Hashtable<>(3), null, top);
+        frame.setPrivate(frame);
+        var copier = new Copier();
+        copier.keep(top);
+        var copy = copier.copy(frame);
+        assertNotSame(frame, copy);
+        assertSame(copy, copy.getPrivate());
+        assertSame(top, copy.getParent());
+    }
+
+    @Test
+    public void shouldCopyLongChainsWithoutRecursing() {
+        var frame = new InternalGenerator("frame", new Hashtable<>(3), null, new EmptyGenerator("empty"));
+        frame.setPrivate(frame);
+        for (var i = 0; i < 100000; i++) {
+            frame = new InternalGenerator("frame", new Hashtable<>(3), null, frame);
+            frame.setPrivate(frame);
+        }
+        var copy = new Copier().copy(frame);
+        var depth = 0;
+        for (var original = frame; copy.getParent() instanceof InternalGenerator parent; depth++) {
+            original = (InternalGenerator) original.getParent();
+            assertNotSame(original, parent);
+            copy = parent;
+        }
+        assertEquals(100000, depth);
+    }
+}
@@ -0,0 +1,33 @@
+package agora.attributes;
+
+import agora.tools.AgoraGlobals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static agora.AgoraTest.compile;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CloningAttributeTest {
+    @BeforeEach
+    public void setUp() {
+        AgoraGlobals.glob = new AgoraGlobals(null, null);
+    }
+
+    /**
+     * A cloning method used to answer the prototype itself, so that writing the clone wrote
+     * the prototype too, and this answered 33.
+     */
+    @Test
+    public void shouldAnswerACloneRatherThanThePrototype() throws IOException {
+        var expression = compile("{ p LOCAL VARIABLE: [ v VARIABLE: 1; c CLONING: 0 ]; q LOCAL VARIABLE: p c; q v: 5; p v: 3; (p v) + ((q v) * 10) }");
+        assertEquals(53, expression.defaultEval().<Integer>down());
+    }
+
+    @Test
+    public void shouldCopyTheLocalVariablesOfTheObject() throws IOException {
+        var expression = compile("{ p LOCAL VARIABLE: [ v LOCAL VARIABLE: 1; get METHOD: v; c: x CLONING: v: x ]; q LOCAL VARIABLE: p c: 7; (p get * 10) + q get }");
+        assertEquals(17, expression.defaultEval().<Integer>down());
+    }
+}
@@ -0,0 +1,28 @@
+package agora.attributes;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InvokerTest {
+    @Test
+    public void shouldWidenArgumentsAsReflectionDoes() throws Exception {
+        var invoker = Invoker.of(Math.class.getMethod("max", long.class, long.class));
+        assertEquals(7L, invoker.invoke(null, new Object[]{3, 7L}));
+        assertThrows(IllegalArgumentException.class, () -> invoker.invoke(null, new Object[]{3, 7.0}));
+    }
+
+    @Test
+    public void shouldWrapExceptionsOfTheMember() throws Exception {
+        var invoker = Invoker.of(List.class.getMethod("get", int.class));
+        assertEquals("b", invoker.invoke(List.of("a", "b"), (Object) 1));
+        var error = assertThrows(InvocationTargetException.class, () -> invoker.invoke(List.of(), (Object) 1));
+        assertInstanceOf(IndexOutOfBoundsException.class, error.getTargetException());
+        assertThrows(IllegalArgumentException.class, () -> invoker.invoke("a", (Object) 1));
+    }
+}
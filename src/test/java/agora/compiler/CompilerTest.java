@@ -0,0 +1,69 @@
+package agora.compiler;
+
+import agora.errors.AgoraException;
+import agora.errors.MessageNotUnderstood;
+import agora.grammar.Block;
+import agora.grammar.UserMessage;
+import agora.runtime.Category;
+import agora.runtime.Context;
+import agora.tools.AgoraGlobals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static agora.AgoraTest.compile;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompilerTest {
+    @BeforeEach
+    public void setUp() {
+        AgoraGlobals.glob = new AgoraGlobals(null, null);
+    }
+
+    private static Context root() {
+        return new Context(
+                AgoraGlobals.glob.rootIdentity,
+                AgoraGlobals.glob.rootPrivate,
+                AgoraGlobals.glob.rootIdentity.getMe(),
+                Category.emptyCategory,
+                AgoraGlobals.glob.rootParent,
+                new AgoraException(null)
+        );
+    }
+
+    @Test
+    public void shouldEvaluateAsTheEvaluator() throws Exception {
+        var expression = compile("{ twice: n LOCAL METHOD: n * 2; x LOCAL VARIABLE: 3; (twice: x + 4) - x }");
+        assertEquals(11, Compiler.compile(expression).eval(root()).<Integer>down());
+    }
+
+    @Test
+    public void shouldAnnotateErrorsWithTheirCode() throws Exception {
+        var expression = compile("{ 1; 2 foo }");
+        var error = assertThrows(MessageNotUnderstood.class, () -> Compiler.compile(expression).eval(root()));
+        assertEquals("2 foo", error.getCode().unparse(0));
+    }
+
+    @Test
+    public void shouldCompileHotMethods() throws IOException {
+        AgoraGlobals.glob.options.compileThreshold = 2;
+        var expression = compile("{ s LOCAL VARIABLE: 0; i FOR: 1 TO: 10 DO: s: s + i; s }");
+        assertEquals(55, expression.defaultEval().<Integer>down());
+    }
+
+    /**
+     * Compiled code used to send operator messages through send sites of its own, so that
+     * arithmetic in a compiled body was no longer specialised.
+     */
+    @Test
+    public void shouldKeepArithmeticSpecialised() throws Exception {
+        var expression = compile("{ x LOCAL VARIABLE: 3; (x * 4) + 1 }");
+        var code = Compiler.compile(expression);
+        code.eval(root());
+        assertEquals(13, code.eval(root()).<Integer>down());
+        assertTrue(((UserMessage) ((Block) expression).at(1)).isSpecialised());
+    }
+}
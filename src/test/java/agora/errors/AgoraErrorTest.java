@@ -0,0 +1,35 @@
+package agora.errors;
+
+import agora.tools.AgoraGlobals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static agora.AgoraTest.compile;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AgoraErrorTest {
+    @BeforeEach
+    public void setUp() {
+        AgoraGlobals.glob = new AgoraGlobals(null, null);
+    }
+
+    @Test
+    public void shouldNotRecordTheJavaStack() throws IOException {
+        var error = assertThrows(MessageNotUnderstood.class, compile("3 foo")::defaultEval);
+        assertEquals(0, error.getStackTrace().length);
+        assertEquals("foo", error.getMessage());
+        assertEquals("3 foo", error.getCode().unparse(0).trim());
+        var expression = compile("{ s LOCAL VARIABLE: 0; i FOR: 1 TO: 10 DO: (oops RAISE TRY: oops CATCH: s: s + i); s }");
+        assertEquals(55, expression.defaultEval().<Integer>down());
+    }
+
+    @Test
+    public void shouldRecordTheJavaStackWhenAsked() {
+        AgoraGlobals.glob.options.errorTraces = true;
+        assertNotEquals(0, new ProgramError("traced").getStackTrace().length);
+        var error = new PrimitiveException(new IllegalStateException("broken"), "run");
+        assertEquals("Native Java Exception: java.lang.IllegalStateException: broken\nIn the method :run", error.getMessage());
+    }
+}
@@ -0,0 +1,52 @@
+package agora.grammar;
+
+import agora.tools.AgoraGlobals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static agora.AgoraTest.compile;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FoldingTest {
+    @BeforeEach
+    public void setUp() {
+        AgoraGlobals.glob = new AgoraGlobals(null, null);
+        AgoraGlobals.glob.options.fold = true;
+    }
+
+    @Test
+    public void shouldComputeLiteralArithmetic() throws IOException {
+        var expression = assertInstanceOf(Folded.class, compile("(2 + 3) * 4"));
+        assertEquals(new Constant(20), expression.folded());
+        AgoraGlobals.glob.options.fold = false;
+        assertEquals(compile("(2 + 3) * 4").unparse(0), expression.unparse(0));
+        AgoraGlobals.glob.options.fold = true;
+        assertEquals(true, assertInstanceOf(Folded.class, compile("(2.5 * 2) > 4")).defaultEval().down());
+        assertInstanceOf(UserMessage.class, compile("5 / 0"));
+    }
+
+    @Test
+    public void shouldSimplifyConstantConditionsAndResolveClasses() throws IOException {
+        var conditional = assertInstanceOf(Folded.class, compile("(3 < 4) IFTRUE: 7 IFFALSE: 8"));
+        assertEquals(new IntegerLiteral(7), conditional.folded());
+        var java = assertInstanceOf(Folded.class, compile("\"java.lang.String\" JAVA"));
+        assertEquals(String.class, java.defaultEval().down());
+    }
+
+    @Test
+    public void shouldDropComments() throws IOException {
+        var block = assertInstanceOf(Folded.class, compile("{ 1 COMMENT; 2 }"));
+        assertEquals(1, assertInstanceOf(Block.class, block.folded()).size());
+        assertEquals(2, block.defaultEval().<Integer>down());
+    }
+
+    @Test
+    public void shouldEvaluateTheOriginalWhenTheAssumptionsNoLongerHold() throws IOException {
+        var expression = compile("(3 < 4) IFTRUE: 7 IFFALSE: 8");
+        AgoraGlobals.glob = new AgoraGlobals(null, null);
+        assertEquals(7, expression.defaultEval().<Integer>down());
+        assertInstanceOf(If.class, ((Folded) expression).current());
+    }
+}
@@ -0,0 +1,36 @@
+package agora.grammar;
+
+import agora.errors.ProgramError;
+import agora.tools.AgoraGlobals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static agora.AgoraTest.compile;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LoweringTest {
+    @BeforeEach
+    public void setUp() {
+        AgoraGlobals.glob = new AgoraGlobals(null, null);
+    }
+
+    @Test
+    public void shouldLowerBuiltinReifiers() throws IOException {
+        assertInstanceOf(If.class, compile("x IFFALSE: 1 IFTRUE: 2"));
+        assertInstanceOf(While.class, compile("x WHILETRUE: y"));
+        assertInstanceOf(ForRange.class, compile("i FOR: 1 TO: 10 DO: y"));
+        assertInstanceOf(Declare.class, compile("x LOCAL VARIABLE: 1"));
+        assertEquals(ReifierMessage.class, compile("x COMMENT").getClass());
+    }
+
+    @Test
+    public void shouldEvaluateLikeTheReifiers() throws IOException {
+        var expression = compile("{ i LOCAL VARIABLE: 0; s LOCAL VARIABLE: 0; (i < 5) WHILETRUE: { i: i + 1; (i = 3) IFFALSE: s: s + i }; s }");
+        assertEquals(12, expression.defaultEval().<Integer>down());
+        assertEquals("Boolean Expected !", assertThrows(ProgramError.class, compile("3 IFTRUE: 1")::defaultEval).getMessage());
+    }
+}
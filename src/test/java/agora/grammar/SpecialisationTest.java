@@ -0,0 +1,55 @@
+package agora.grammar;
+
+import agora.tools.AgoraGlobals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static agora.AgoraTest.compile;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SpecialisationTest {
+    @BeforeEach
+    public void setUp() {
+        AgoraGlobals.glob = new AgoraGlobals(null, null);
+    }
+
+    @Test
+    public void shouldLeaveIntegerArithmeticForOtherReceivers() throws IOException {
+        var expression = compile("{ inc: x LOCAL METHOD: x + 1; inc: 1; inc: 2; inc: 1.5 }");
+        assertEquals(2.5f, expression.defaultEval().<Float>down());
+    }
+
+    @Test
+    public void shouldSeeVariablesRedefinedAsMethods() throws IOException {
+        var expression = compile("{ x LOCAL VARIABLE: 1; f LOCAL METHOD: x; t LOCAL VARIABLE: f * 10; x LOCAL METHOD: 5; t + f }");
+        assertEquals(15, expression.defaultEval().<Integer>down());
+    }
+
+    @Test
+    public void shouldEvaluateTheSameWithoutSpecialisation() throws IOException {
+        AgoraGlobals.glob.options.specialise = false;
+        var expression = compile("{ s LOCAL VARIABLE: 0; i FOR: 1 TO: 10 DO: s: s + (i * i); s = 385 }");
+        assertEquals(true, expression.defaultEval().<Boolean>down());
+    }
+
+    @Test
+    public void shouldLeaveNestedArithmeticForOtherOperands() throws IOException {
+        var expression = compile("{ sq: x LOCAL METHOD: (x * x) + 1; sq: 2; sq: 3; sq: 0.5 }");
+        assertEquals(1.25f, expression.defaultEval().<Float>down());
+    }
+
+    @Test
+    public void shouldComputeFloatArithmetic() throws IOException {
+        var expression = compile("{ area: r LOCAL METHOD: (r * r) * 3.5; area: 2.0; (area: 2.0 + 1) > 30 }");
+        assertEquals(true, expression.defaultEval().<Boolean>down());
+    }
+
+    @Test
+    public void shouldApplyEachKindOfOperatorInItsLane() throws IOException {
+        var expression = compile("{ a LOCAL VARIABLE: 0; b LOCAL VARIABLE: 0.0; c LOCAL VARIABLE: 0; i FOR: 1 TO: 10 DO: { a: a + i; b: b + 0.5; (i < 5) IFTRUE: (c: c + 1); (b >= 2.5) IFTRUE: (c: c + 100) }; (a * 10000) + c }");
+        assertEquals(550604, expression.defaultEval().<Integer>down());
+        assertEquals(550604, expression.defaultEval().<Integer>down());
+    }
+}
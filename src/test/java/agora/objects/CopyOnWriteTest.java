@@ -0,0 +1,42 @@
+package agora.objects;
+
+import agora.errors.MessageNotUnderstood;
+import agora.tools.AgoraGlobals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static agora.AgoraTest.compile;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CopyOnWriteTest {
+    @BeforeEach
+    public void setUp() {
+        AgoraGlobals.glob = new AgoraGlobals(null, null);
+    }
+
+    @Test
+    public void shouldNotWriteThePrototypeThroughAClone() throws IOException {
+        var expression = compile("{ p LOCAL VARIABLE: [ x VARIABLE: 1; new: v CLONING: SELF x: v ]; c LOCAL VARIABLE: p new: 5; (p x * 10) + c x }");
+        assertEquals(15, expression.defaultEval().<Integer>down());
+    }
+
+    @Test
+    public void shouldKeepClonesOfClonesApart() throws IOException {
+        var expression = compile("{ p LOCAL VARIABLE: [ x LOCAL VARIABLE: 1; get METHOD: x; set: v METHOD: x: v; new: v CLONING: x: v ]; a LOCAL VARIABLE: p new: 5; b LOCAL VARIABLE: a new: 7; a set: 9; p set: 2; (p get * 100) + (a get * 10) + b get }");
+        assertEquals(297, expression.defaultEval().<Integer>down());
+    }
+
+    @Test
+    public void shouldKeepPublicLocalVariablesOneVariable() throws IOException {
+        var expression = compile("{ p LOCAL VARIABLE: [ x PUBLIC LOCAL VARIABLE: 1; get METHOD: x; new CLONING: 0 ]; a LOCAL VARIABLE: p new; a x: 4; (p get * 10) + a get }");
+        assertEquals(14, expression.defaultEval().<Integer>down());
+    }
+
+    @Test
+    public void shouldCopyTheTableOfACloneThatInstallsAMethod() throws IOException {
+        var expression = compile("{ p LOCAL VARIABLE: [ new CLONING: (extra METHOD: 1) ]; a LOCAL VARIABLE: p new; a extra; p extra }");
+        assertThrows(MessageNotUnderstood.class, expression::defaultEval);
+    }
+}
@@ -0,0 +1,42 @@
+package agora.objects;
+
+import agora.attributes.VariableGetAttribute;
+import agora.patterns.UnaryPattern;
+import agora.tools.AgoraGlobals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static agora.AgoraTest.compile;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountingFrameTest {
+    @BeforeEach
+    public void setUp() {
+        AgoraGlobals.glob = new AgoraGlobals(null, null);
+    }
+
+    @Test
+    public void shouldCountNestedLoops() throws IOException {
+        var expression = compile("{ s LOCAL VARIABLE: 0; i FOR: 1 TO: 4 DO: (j FOR: 10 DOWNTO: 1 BY: 3 DO: s: s + (i * j)); s }");
+        assertEquals(220, expression.defaultEval().<Integer>down());
+    }
+
+    @Test
+    public void shouldLetTheBodyHideTheLoopVariable() throws IOException {
+        var expression = compile("{ s LOCAL VARIABLE: 0; i FOR: 1 TO: 3 DO: { s: s + i; i LOCAL VARIABLE: 100; s: s + i }; s }");
+        assertEquals(501, expression.defaultEval().<Integer>down());
+    }
+
+    @Test
+    public void shouldShowTheLoopVariable() {
+        var i = new UnaryPattern("i");
+        var frame = new CountingFrame("FOR:TO:DO: scope", i, AgoraGlobals.glob.rootPrivate);
+        frame.count(7);
+        var attribute = assertInstanceOf(VariableGetAttribute.class, frame.getHashTable().get(i));
+        assertEquals(7, attribute.read().<Integer>down());
+        assertEquals(1, frame.getHashTable().size());
+        assertSame(attribute, frame.getHashTable().get(i));
+    }
+}
@@ -0,0 +1,74 @@
+package agora.objects;
+
+import agora.attributes.VariableContainer;
+import agora.attributes.VariableGetAttribute;
+import agora.patterns.UnaryPattern;
+import agora.tools.AgoraGlobals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static agora.AgoraTest.compile;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlatChainTest {
+    @BeforeEach
+    public void setUp() {
+        AgoraGlobals.glob = new AgoraGlobals(null, null);
+    }
+
+    private static VariableGetAttribute reader(int value) {
+        return new VariableGetAttribute(new VariableContainer(AgoraGlobals.glob.up.up(value)));
+    }
+
+    @Test
+    public void shouldLookUpThroughTheFlattenedChain() {
+        var bottom = new InternalGenerator("bottom", new MethodTable(), null, new EmptyGenerator("empty"));
+        bottom.installPattern(UnaryPattern.of("x"), reader(1));
+        Generator frame = bottom;
+        for (var i = 0; i < 10; i++) frame = new InternalGenerator("layer", new MethodTable(), null, frame);
+        var middle = (InternalGenerator) frame;
+        middle.installPattern(UnaryPattern.of("y"), reader(2));
+        var top = new InternalGenerator("top", new MethodTable(), null, middle);
+        assertFalse(top.compact(20));
+        assertTrue(top.compact(8));
+        assertSame(bottom, top.lookup(UnaryPattern.of("x"), null));
+        assertSame(middle, top.lookup(UnaryPattern.of("y"), null));
+        assertNull(top.lookup(UnaryPattern.of("z"), null));
+    }
+
+    @Test
+    public void shouldDropTheFlattenedChainWhenAFrameChanges() {
+        var bottom = new InternalGenerator("bottom", new MethodTable(), null, new EmptyGenerator("empty"));
+        bottom.installPattern(UnaryPattern.of("x"), reader(1));
+        var middle = new InternalGenerator("middle", new MethodTable(), null, bottom);
+        var top = new InternalGenerator("top", new MethodTable(), null, middle);
+        assertTrue(top.compact(0));
+        var version = top.version();
+        assertSame(bottom, top.lookup(UnaryPattern.of("x"), null));
+        middle.installPattern(UnaryPattern.of("x"), reader(2));
+        assertNotEquals(version, top.version());
+        assertSame(middle, top.lookup(UnaryPattern.of("x"), null));
+    }
+
+    @Test
+    public void shouldDropTheFlattenedChainWhenTheParentChanges() {
+        var bottom = new InternalGenerator("bottom", new MethodTable(), null, new EmptyGenerator("empty"));
+        bottom.installPattern(UnaryPattern.of("x"), reader(1));
+        var other = new InternalGenerator("other", new MethodTable(), null, new EmptyGenerator("empty"));
+        other.installPattern(UnaryPattern.of("x"), reader(2));
+        var top = new InternalGenerator("top", new MethodTable(), null, new InternalGenerator("middle", new MethodTable(), null, bottom));
+        assertTrue(top.compact(0));
+        var version = top.version();
+        top.setParent(other);
+        assertNotEquals(version, top.version());
+        assertSame(other, top.lookup(UnaryPattern.of("x"), null));
+    }
+
+    @Test
+    public void shouldAnswerObjectsWithManyMixins() throws IOException {
+        var expression = compile("{ p LOCAL VARIABLE: [ f METHOD: 1; add MIXIN: { g METHOD: 2 }; over MIXIN: { f METHOD: 10 } ]; i FOR: 1 TO: 30 DO: p add; s LOCAL VARIABLE: 0; i FOR: 1 TO: 200 DO: s: s + (p f); p over; i FOR: 1 TO: 200 DO: s: s + (p f); s }");
+        assertEquals(2200, expression.defaultEval().<Integer>down());
+    }
+}
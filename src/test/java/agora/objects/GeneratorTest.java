@@ -0,0 +1,34 @@
+package agora.objects;
+
+import agora.attributes.VariableContainer;
+import agora.attributes.VariableGetAttribute;
+import agora.patterns.UnaryPattern;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Hashtable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class GeneratorTest {
+    @Test
+    public void shouldInvalidateDependentsOnce() {
+        var top = new EmptyGenerator("top");
+        var parent = new InternalGenerator("parent", new Hashtable<>(), null, top);
+        var child = parent.funcAddLayer("child");
+        var invalidated = new ArrayList<Generator>();
+        Dependent dependent = invalidated::add;
+
+        assertNull(child.lookup(new UnaryPattern("x"), dependent));
+        var before = parent.version();
+        parent.installPattern(new UnaryPattern("x"), new VariableGetAttribute(new VariableContainer(null)));
+        parent.installPattern(new UnaryPattern("y"), new VariableGetAttribute(new VariableContainer(null)));
+
+        assertEquals(before + 2, parent.version());
+        assertEquals(1, invalidated.size());
+        assertSame(parent, invalidated.getFirst());
+        assertSame(parent, child.lookup(new UnaryPattern("x"), null));
+    }
+}
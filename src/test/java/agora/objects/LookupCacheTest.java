@@ -0,0 +1,46 @@
+package agora.objects;
+
+import agora.attributes.VariableContainer;
+import agora.attributes.VariableGetAttribute;
+import agora.patterns.UnaryPattern;
+import org.junit.jupiter.api.Test;
+
+import java.util.Hashtable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class LookupCacheTest {
+    @Test
+    public void shouldRememberMissesUntilChanged() {
+        var cache = new LookupCache(8);
+        var parent = new InternalGenerator("parent", new Hashtable<>(), null, new EmptyGenerator("top"));
+        var child = parent.funcAddLayer("child");
+        var x = new UnaryPattern("x");
+
+        assertNull(cache.holderOf(child, x));
+        assertNull(cache.holderOf(child, x));
+        assertEquals(0.5, cache.hitRate());
+
+        parent.installPattern(x, new VariableGetAttribute(new VariableContainer(null)));
+        assertEquals(0, cache.size());
+        assertSame(parent, cache.holderOf(child, x));
+        assertEquals(1, cache.hits());
+        assertEquals(2, cache.misses());
+    }
+
+    @Test
+    public void shouldKeepEntriesInUseWhenFull() {
+        var cache = new LookupCache(1);
+        var frame = new InternalGenerator("frame", new Hashtable<>(), null, new EmptyGenerator("top"));
+        var x = new UnaryPattern("x");
+
+        cache.holderOf(frame, x);
+        cache.holderOf(frame, x);
+        cache.holderOf(frame, new UnaryPattern("y"));
+        assertEquals(1, cache.size());
+        cache.holderOf(frame, x);
+        assertEquals(2, cache.hits());
+    }
+}
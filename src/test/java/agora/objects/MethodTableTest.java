@@ -0,0 +1,98 @@
+package agora.objects;
+
+import agora.attributes.Attribute;
+import agora.attributes.VariableContainer;
+import agora.attributes.VariableGetAttribute;
+import agora.patterns.KeywordPattern;
+import agora.patterns.Pattern;
+import agora.patterns.UnaryPattern;
+import agora.tools.AgoraGlobals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MethodTableTest {
+    @BeforeEach
+    public void setUp() {
+        AgoraGlobals.glob = new AgoraGlobals(null, null);
+    }
+
+    private static Attribute attribute(int value) {
+        return new VariableGetAttribute(new VariableContainer(AgoraGlobals.glob.up.up(value)));
+    }
+
+    private static void fill(Map<Pattern, Attribute> table, Map<Pattern, Attribute> expected, int count) {
+        for (var i = 0; i < count; i++) {
+            var attribute = attribute(i);
+            table.put(UnaryPattern.of("m" + i), attribute);
+            expected.put(UnaryPattern.of("m" + i), attribute);
+        }
+    }
+
+    @Test
+    public void shouldFindPatternsInSmallAndLargeTables() {
+        for (var count : List.of(0, 1, 4, 8, 9, 100)) {
+            var table = new MethodTable();
+            var expected = new LinkedHashMap<Pattern, Attribute>();
+            fill(table, expected, count);
+            assertEquals(expected, table);
+            assertEquals(count, table.size());
+            for (var i = 0; i < count; i++) {
+                assertSame(expected.get(UnaryPattern.of("m" + i)), table.get(new UnaryPattern("m" + i)));
+            }
+            assertNull(table.get(UnaryPattern.of("absent")));
+            assertFalse(table.containsKey(KeywordPattern.of(List.of("m0:"))));
+        }
+    }
+
+    @Test
+    public void shouldIterateInTheOrderOfInstalling() {
+        var table = new MethodTable();
+        var expected = new LinkedHashMap<Pattern, Attribute>();
+        fill(table, expected, 20);
+        assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(table.keySet()));
+        var replaced = attribute(-1);
+        table.put(UnaryPattern.of("m3"), replaced);
+        assertSame(replaced, table.get(UnaryPattern.of("m3")));
+        assertEquals(UnaryPattern.of("m3"), new ArrayList<>(table.keySet()).get(3));
+    }
+
+    @Test
+    public void shouldRemovePatterns() {
+        var table = new MethodTable();
+        var expected = new LinkedHashMap<Pattern, Attribute>();
+        fill(table, expected, 12);
+        for (var i = 0; i < 12; i += 2) {
+            assertSame(expected.remove(UnaryPattern.of("m" + i)), table.remove(UnaryPattern.of("m" + i)));
+        }
+        assertEquals(expected, table);
+        assertNull(table.get(UnaryPattern.of("m4")));
+        assertNotNull(table.get(UnaryPattern.of("m11")));
+    }
+
+    @Test
+    public void shouldWriteAndReadTheTable() throws IOException, ClassNotFoundException {
+        var table = new MethodTable();
+        for (var i = 0; i < 10; i++) table.put(UnaryPattern.of("m" + i), null);
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new ObjectOutputStream(bytes)) {
+            out.writeObject(table);
+        }
+        try (var in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            var read = assertInstanceOf(MethodTable.class, in.readObject());
+            assertEquals(table.keySet(), read.keySet());
+            assertTrue(read.containsKey(UnaryPattern.of("m9")));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package agora.objects;
+
+import agora.patterns.UnaryPattern;
+import agora.tools.AgoraGlobals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static agora.AgoraTest.compile;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShapeTest {
+    @BeforeEach
+    public void setUp() {
+        AgoraGlobals.glob = new AgoraGlobals(null, null);
+    }
+
+    private static Shape shape(AgoraObject object) {
+        var table = assertInstanceOf(ShapedTable.class, object.objectID().getMe().getHashTable());
+        return table.shape();
+    }
+
+    @Test
+    public void shouldShareTheShapeOfObjectsMadeByTheSameCode() throws IOException {
+        compile("mk: n METHOD: [ x VARIABLE: n; get METHOD: x ]").defaultEval();
+        var a = compile("SELF mk: 1").defaultEval();
+        var b = compile("SELF mk: 2").defaultEval();
+        var c = compile("[ get METHOD: 0; x VARIABLE: 3 ]").defaultEval();
+        assertSame(shape(a), shape(b));
+        assertNotSame(shape(a), shape(c));
+        assertEquals(3, shape(a).size());
+    }
+
+    @Test
+    public void shouldMoveToTheNextShapeOnInstall() {
+        var x = new UnaryPattern("x");
+        var y = new UnaryPattern("y");
+        var table = new ShapedTable();
+        table.put(x, null);
+        var other = new ShapedTable();
+        other.put(x, null);
+        assertSame(table.shape(), other.shape());
+        table.put(y, null);
+        assertNotSame(table.shape(), other.shape());
+        assertSame(table.shape(), other.shape().with(y));
+        assertEquals(1, table.shape().slot(y));
+        assertEquals(2, table.size());
+        assertTrue(table.containsKey(y));
+        assertFalse(other.containsKey(y));
+    }
+
+    @Test
+    public void shouldAnswerMessagesToObjectsOfOneShapeFromOneCacheEntry() throws IOException {
+        var expression = compile("{ mk: n METHOD: [ v LOCAL VARIABLE: n; get METHOD: v ]; s LOCAL VARIABLE: 0; i FOR: 1 TO: 100 DO: s: s + (SELF mk: i) get; s }");
+        assertEquals(5050, expression.defaultEval().<Integer>down());
+    }
+}
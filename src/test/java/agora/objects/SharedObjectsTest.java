@@ -0,0 +1,96 @@
+package agora.objects;
+
+import agora.attributes.Attribute;
+import agora.attributes.VariableContainer;
+import agora.attributes.VariableGetAttribute;
+import agora.patterns.UnaryPattern;
+import agora.tools.AgoraGlobals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static agora.AgoraTest.compile;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SharedObjectsTest {
+    @BeforeEach
+    public void setUp() {
+        AgoraGlobals.glob = new AgoraGlobals(null, null);
+    }
+
+    private static <T> void onThreads(int threads, Callable<T> task, T expected) throws Exception {
+        var executor = Executors.newFixedThreadPool(threads);
+        try {
+            var results = executor.invokeAll(IntStream.range(0, 4 * threads).mapToObj(i -> task).toList());
+            for (var result : results) assertEquals(expected, result.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldCatchTheExceptionsRaisedOnEachThread() throws Exception {
+        compile("sum: n METHOD: { s LOCAL VARIABLE: 0; i FOR: 1 TO: n DO: ((boom: i) RAISE TRY: (boom: k) CATCH: s: s + k); s }").defaultEval();
+        var expression = compile("SELF sum: 1000");
+        onThreads(8, () -> expression.defaultEval().<Integer>down(), 500500);
+    }
+
+    @Test
+    public void shouldSendToObjectsThatChangeOnOtherThreads() throws Exception {
+        compile("next: n METHOD: n + 1").defaultEval();
+        compile("count: n METHOD: { s LOCAL VARIABLE: 0; i FOR: 1 TO: n DO: s: (SELF next: s); s }").defaultEval();
+        var expression = compile("SELF count: 2000");
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> installing = executor.submit(() -> {
+                for (var i = 0; i < 200; i++) compile("m" + i + " METHOD: " + i).defaultEval();
+                return null;
+            });
+            onThreads(8, () -> expression.defaultEval().<Integer>down(), 2000);
+            installing.get();
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(199, compile("SELF m199").defaultEval().<Integer>down());
+    }
+
+    @Test
+    public void shouldKeepTheVariablesOfClonesApartOnEachThread() throws Exception {
+        var proto = compile("[ v LOCAL VARIABLE: 0; get METHOD: v; set: x METHOD: v: x; new CLONING: 0 ]").defaultEval();
+        AgoraGlobals.glob.rootPrivate.installPattern(UnaryPattern.of("proto"), new VariableGetAttribute(new VariableContainer(proto)));
+        compile("work: n METHOD: { c LOCAL VARIABLE: proto new; i FOR: 1 TO: n DO: c set: (c get + i); c get }").defaultEval();
+        var expression = compile("SELF work: 1000");
+        onThreads(8, () -> expression.defaultEval().<Integer>down(), 500500);
+        assertEquals(0, compile("proto get").defaultEval().<Integer>down());
+    }
+
+    @Test
+    public void shouldReadTablesWhileTheyGrow() throws Exception {
+        var table = new MethodTable();
+        var shaped = new ShapedTable();
+        Attribute attribute = new VariableGetAttribute(new VariableContainer(AgoraGlobals.glob.up.up(0)));
+        var executor = Executors.newFixedThreadPool(2);
+        try {
+            var reading = executor.submit(() -> {
+                for (var found = 0; found < 500; ) {
+                    var size = table.size();
+                    for (var i = 0; i < size; i++) assertSame(attribute, table.get(UnaryPattern.of("m" + i)));
+                    for (var i = 0; i < shaped.size(); i++) assertSame(attribute, shaped.get(UnaryPattern.of("m" + i)));
+                    found = Math.min(size, shaped.size());
+                }
+                return null;
+            });
+            for (var i = 0; i < 500; i++) {
+                table.put(UnaryPattern.of("m" + i), attribute);
+                shaped.put(UnaryPattern.of("m" + i), attribute);
+            }
+            reading.get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package agora.objects;
+
+import agora.attributes.VariableGetAttribute;
+import agora.patterns.UnaryPattern;
+import agora.runtime.Client;
+import agora.tools.AgoraGlobals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static agora.AgoraTest.compile;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlotFrameTest {
+    @BeforeEach
+    public void setUp() {
+        AgoraGlobals.glob = new AgoraGlobals(null, null);
+    }
+
+    @Test
+    public void shouldKeepFramesAliveInObjects() throws IOException {
+        var expression = compile("{ make: n LOCAL METHOD: [ get METHOD: n; set: v METHOD: n: v ]; o LOCAL VARIABLE: (make: 1); o set: 5; o get }");
+        assertEquals(5, expression.defaultEval().<Integer>down());
+    }
+
+    @Test
+    public void shouldBeTransparentForUndeclaredLocals() throws IOException {
+        var expression = compile("{ t LOCAL VARIABLE: 1; f LOCAL METHOD: { s LOCAL VARIABLE: t; t LOCAL VARIABLE: 10; s + t }; f }");
+        assertEquals(11, expression.defaultEval().<Integer>down());
+    }
+
+    @Test
+    public void shouldBindTheLastOfTwoFormalsWithTheSameName() throws IOException {
+        var expression = compile("{ f: x g: x LOCAL METHOD: x; f: 1 g: 2 }");
+        assertEquals(2, expression.defaultEval().<Integer>down());
+    }
+
+    @Test
+    public void shouldShowSlotsAsVariables() {
+        var layout = new FrameLayout(List.of("a", "b"));
+        var frame = new SlotFrame(layout, new Client(1, AgoraGlobals.glob.up.up(1), null, null, null), AgoraGlobals.glob.rootPrivate);
+        var table = frame.getHashTable();
+        assertEquals(2, table.size());
+        assertInstanceOf(VariableGetAttribute.class, table.get(new UnaryPattern("a")));
+        assertNull(table.get(new UnaryPattern("b")));
+        assertTrue(frame.declare(new UnaryPattern("b"), AgoraGlobals.glob.up.up(2)));
+        assertEquals(4, table.size());
+    }
+
+    @Test
+    public void shouldShowTheSameAttributesEachTime() {
+        var layout = new FrameLayout(List.of("a"));
+        var frame = new SlotFrame(layout, new Client(1, AgoraGlobals.glob.up.up(1), null, null, null), AgoraGlobals.glob.rootPrivate);
+        var a = new UnaryPattern("a");
+        assertSame(frame.getHashTable().get(a), frame.getHashTable().get(a));
+        assertSame(frame.getHashTable().get(a.makeWritePattern()), frame.getHashTable().get(a.makeWritePattern()));
+        assertNotSame(frame.getHashTable().get(a), frame.getHashTable().get(a.makeWritePattern()));
+    }
+}
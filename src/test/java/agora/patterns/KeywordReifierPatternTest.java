@@ -0,0 +1,27 @@
+package agora.patterns;
+
+import agora.tools.AgoraGlobals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static agora.AgoraTest.compile;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class KeywordReifierPatternTest {
+    @BeforeEach
+    public void setUp() {
+        AgoraGlobals.glob = new AgoraGlobals(null, null);
+    }
+
+    /**
+     * REIFIER:IS: only accepts reifier patterns, and keyword reifier patterns were not
+     * reifiers, so declaring this reifier raised a ReifierMisused error.
+     */
+    @Test
+    public void shouldDeclareKeywordReifiers() throws IOException {
+        var expression = compile("{ (TWICE: e) REIFIER: c IS: 7 UP; 5 TWICE: 3 }");
+        assertEquals(7, expression.defaultEval().<Integer>down());
+    }
+}
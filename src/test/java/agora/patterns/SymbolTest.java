@@ -0,0 +1,59 @@
+package agora.patterns;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymbolTest {
+    @Test
+    public void shouldGiveTheCanonicalPattern() {
+        assertSame(UnaryPattern.of("symbolTest"), UnaryPattern.of("symbolTest"));
+        assertSame(OperatorPattern.of("<~>"), OperatorPattern.of("<~>"));
+        assertSame(KeywordPattern.of(List.of("at:", "put:")), KeywordPattern.of(new LinkedList<>(List.of("at:", "put:"))));
+    }
+
+    @Test
+    public void shouldShareTheIdOfEqualPatterns() {
+        var canonical = KeywordReifierPattern.of(List.of("SYMBOL:", "TEST:"));
+        var made = new KeywordReifierPattern(new LinkedList<>(List.of("SYMBOL:", "TEST:")));
+        assertNotSame(canonical, made);
+        assertEquals(canonical, made);
+        assertEquals(canonical.id(), made.id());
+        assertEquals(canonical.hashCode(), made.hashCode());
+        assertTrue(canonical.id() < Symbol.count());
+    }
+
+    @Test
+    public void shouldTellKindsOfPatternsApart() {
+        assertNotEquals(UnaryPattern.of("SYMBOL"), UnaryReifierPattern.of("SYMBOL"));
+        assertNotEquals(KeywordPattern.of(List.of("x:")), KeywordReifierPattern.of(List.of("x:")));
+        assertNotEquals(UnaryPattern.of("x").id(), UnaryPattern.of("y").id());
+    }
+
+    @Test
+    public void shouldMakeTheWritePatternOnce() {
+        var reader = UnaryPattern.of("symbolTestVariable");
+        assertSame(reader.makeWritePattern(), reader.makeWritePattern());
+        assertSame(KeywordPattern.of(List.of("symbolTestVariable:")), reader.makeWritePattern());
+    }
+
+    @Test
+    public void shouldReadTheCanonicalPatternBack() throws IOException, ClassNotFoundException {
+        var pattern = KeywordPattern.of(List.of("read:", "back:"));
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new ObjectOutputStream(bytes)) {
+            out.writeObject(pattern);
+        }
+        try (var in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertSame(pattern, in.readObject());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package agora.reflection;
+
+import agora.errors.MessageNotUnderstood;
+import agora.errors.ProgramError;
+import agora.tools.AgoraGlobals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static agora.AgoraTest.compile;
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpTest {
+    @BeforeEach
+    public void setUp() {
+        AgoraGlobals.glob = new AgoraGlobals(null, null);
+    }
+
+    @Test
+    public void shouldUpCommonValuesToCanonicalObjects() {
+        var up = new Up(-1, 10);
+        assertSame(up.up(null), up.up(null));
+        assertSame(up.up(true), up.up(Boolean.valueOf("true")));
+        assertSame(up.up(false), up.up(false));
+        assertSame(up.up(-1), up.up(-1));
+        assertSame(up.up(10), up.up(10));
+        assertSame(up.up('a'), up.up('a'));
+        assertSame(up.up("agora"), up.up(new String("agora")));
+    }
+
+    @Test
+    public void shouldOnlyCacheIntegersInRange() {
+        var up = new Up(-1, 10);
+        assertNotSame(up.up(11), up.up(11));
+        assertNotSame(up.up(-2), up.up(-2));
+        assertNotSame(up.up(Integer.MAX_VALUE), up.up(Integer.MAX_VALUE));
+        assertEquals(11, up.up(11).<Integer>down());
+    }
+
+    /**
+     * A mixin applied to a canonical object changed the public part of every occurrence of
+     * the same value, so that a separate 5 understood the method the mixin added.
+     */
+    @Test
+    public void shouldNotLetMixinsChangeCanonicalObjects() throws IOException {
+        compile("addF MIXIN: { f METHOD: 1 }").defaultEval();
+        assertThrows(ProgramError.class, () -> compile("5 addF").defaultEval());
+        assertThrows(MessageNotUnderstood.class, () -> compile("5 f").defaultEval());
+    }
+}
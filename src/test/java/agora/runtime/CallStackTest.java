@@ -0,0 +1,50 @@
+package agora.runtime;
+
+import agora.errors.ProgramError;
+import agora.tools.AgoraGlobals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static agora.AgoraTest.compile;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CallStackTest {
+    private static final String count = "{ count: n METHOD: ((n = 0) IFTRUE: 0 IFFALSE: 1 + (SELF count: n - 1)); SELF count: %d }";
+
+    @BeforeEach
+    public void setUp() {
+        AgoraGlobals.glob = new AgoraGlobals(null, null);
+        AgoraGlobals.glob.options.heapStack = true;
+    }
+
+    @Test
+    public void shouldRecurseBeyondTheJavaStack() throws IOException {
+        var expression = compile(count.formatted(20000));
+        assertEquals(20000, expression.defaultEval().<Integer>down());
+    }
+
+    @Test
+    public void shouldBoundTheDepth() throws IOException {
+        AgoraGlobals.glob.options.maxDepth = 500;
+        var expression = compile(count.formatted(1000));
+        var error = assertThrows(ProgramError.class, expression::defaultEval);
+        assertEquals("Maximum depth of 500 nested method invocations exceeded", error.getMessage());
+        assertEquals(400, compile(count.formatted(400)).defaultEval().<Integer>down());
+    }
+
+    @Test
+    public void shouldRunSegmentsInTheSystemOfTheEvaluation() throws IOException {
+        AgoraGlobals.glob.options.heapStack = false;
+        var system = AgoraGlobals.isolated(null);
+        system.options.heapStack = true;
+        system.options.maxDepth = 100;
+        try (var ignored = system.enter()) {
+            compile("count: n METHOD: ((n = 0) IFTRUE: 0 IFFALSE: 1 + (SELF count: n - 1))").defaultEval();
+            assertEquals(90, compile("SELF count: 90").defaultEval().<Integer>down());
+            var error = assertThrows(ProgramError.class, compile("SELF count: 300")::defaultEval);
+            assertEquals("Maximum depth of 100 nested method invocations exceeded", error.getMessage());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package agora.runtime;
+
+import agora.objects.AgoraObject;
+import agora.tools.AgoraGlobals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ClientTest {
+    @BeforeEach
+    public void setUp() {
+        AgoraGlobals.glob = new AgoraGlobals(null, null);
+    }
+
+    @Test
+    public void shouldLeaveActualsUpWhenMakingNativeArguments() {
+        var up = AgoraGlobals.glob.up;
+        var client = new Client(2, up.up(1), up.up("a"), null, null);
+        assertArrayEquals(new Object[]{1, "a"}, client.makeNativeArguments());
+        assertInstanceOf(AgoraObject.class, client.actual(0));
+        assertEquals(2, client.getActuals().length);
+        assertSame(client.actual(1), client.getActuals()[1]);
+    }
+
+    @Test
+    public void shouldPassTheContextToReifiers() {
+        var context = new Context(null, null, null, Category.emptyCategory, null, null);
+        var client = context.newReifierClient(AgoraGlobals.glob.up.up(1));
+        assertEquals(2, client.nativeSize());
+        assertArrayEquals(new Object[]{context, 1}, client.makeNativeArguments());
+    }
+}
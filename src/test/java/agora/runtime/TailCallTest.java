@@ -0,0 +1,44 @@
+package agora.runtime;
+
+import agora.errors.MessageNotUnderstood;
+import agora.tools.AgoraGlobals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static agora.AgoraTest.compile;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TailCallTest {
+    @BeforeEach
+    public void setUp() {
+        AgoraGlobals.glob = new AgoraGlobals(null, null);
+    }
+
+    @Test
+    public void shouldRecurseInTailPositionWithoutGrowingTheStack() throws IOException {
+        var expression = compile("{ loop: n acc: a METHOD: ((n = 0) IFTRUE: a IFFALSE: (SELF loop: n - 1 acc: a + 1)); SELF loop: 100000 acc: 0 }");
+        assertEquals(100000, expression.defaultEval().<Integer>down());
+    }
+
+    @Test
+    public void shouldRecurseMutuallyInTailPosition() throws IOException {
+        var expression = compile("{ even: n METHOD: ((n = 0) IFTRUE: true IFFALSE: SELF odd: n - 1); odd: n METHOD: ((n = 0) IFTRUE: false IFFALSE: SELF even: n - 1); SELF even: 100001 }");
+        assertEquals(false, expression.defaultEval().down());
+    }
+
+    @Test
+    public void shouldRecurseInTailPositionWithoutSpecialisation() throws IOException {
+        AgoraGlobals.glob.options.specialise = false;
+        var expression = compile("{ f: n LOCAL METHOD: ((n = 0) IFTRUE: 0 IFFALSE: (f: n - 1)); f: 5000 }");
+        assertEquals(0, expression.defaultEval().<Integer>down());
+    }
+
+    @Test
+    public void shouldReportErrorsOfTailSends() throws IOException {
+        var expression = compile("{ f METHOD: { 1; SELF g }; SELF f }");
+        var error = assertThrows(MessageNotUnderstood.class, expression::defaultEval);
+        assertEquals("SELF g", error.getCode().unparse(0).strip());
+    }
+}
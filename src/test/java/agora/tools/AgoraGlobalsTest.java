@@ -0,0 +1,68 @@
+package agora.tools;
+
+import agora.errors.MessageNotUnderstood;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static agora.AgoraTest.compile;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AgoraGlobalsTest {
+    @BeforeEach
+    public void setUp() {
+        AgoraGlobals.glob = new AgoraGlobals(null, null);
+    }
+
+    @Test
+    public void shouldUseTheSystemTheThreadEntered() {
+        var shared = AgoraGlobals.glob;
+        var first = AgoraGlobals.isolated(null);
+        var second = AgoraGlobals.isolated(null);
+        assertSame(shared, AgoraGlobals.glob);
+        assertSame(shared, AgoraGlobals.current());
+        try (var ignored = first.enter()) {
+            assertSame(first, AgoraGlobals.current());
+            try (var nested = second.enter()) {
+                assertSame(second, AgoraGlobals.current());
+            }
+            assertSame(first, AgoraGlobals.current());
+        }
+        assertSame(shared, AgoraGlobals.current());
+    }
+
+    @Test
+    public void shouldKeepTheRootsOfSystemsApart() throws Exception {
+        var first = AgoraGlobals.isolated(null);
+        var second = AgoraGlobals.isolated(null);
+        try (var ignored = first.enter()) {
+            compile("mk: n METHOD: n * 2").defaultEval();
+            assertEquals(42, compile("SELF mk: 21").defaultEval().<Integer>down());
+        }
+        try (var ignored = second.enter()) {
+            var expression = compile("SELF mk: 21");
+            assertThrows(MessageNotUnderstood.class, expression::defaultEval);
+        }
+        assertThrows(MessageNotUnderstood.class, compile("SELF mk: 21")::defaultEval);
+    }
+
+    @Test
+    public void shouldRunSystemsOnTheirOwnThreads() throws Exception {
+        var executor = Executors.newFixedThreadPool(4);
+        try {
+            var results = executor.invokeAll(IntStream.range(0, 8).<Callable<Integer>>mapToObj(tenant -> () -> {
+                var system = AgoraGlobals.isolated(null);
+                try (var ignored = system.enter()) {
+                    compile("base METHOD: " + tenant).defaultEval();
+                    return compile("{ c LOCAL VARIABLE: SELF base; i FOR: 1 TO: 1000 DO: c: c + 1; c }").defaultEval().<Integer>down();
+                }
+            }).toList());
+            for (var tenant = 0; tenant < results.size(); tenant++) assertEquals(1000 + tenant, results.get(tenant).get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package agora.vm;
+
+import agora.errors.MessageNotUnderstood;
+import agora.errors.ProgramError;
+import agora.tools.AgoraGlobals;
+import agora.tools.Options;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static agora.AgoraTest.compile;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CodeTest {
+    @BeforeEach
+    public void setUp() {
+        AgoraGlobals.glob = new AgoraGlobals(null, null);
+        AgoraGlobals.glob.options.engine = Options.Engine.VM;
+    }
+
+    @Test
+    public void shouldTranslateSendsToInstructions() throws IOException {
+        var code = Code.of(compile("{ x: 1; 3 max: x }"));
+        assertEquals("""
+                0 EVAL 0    ; 1
+                2 DELEGATE 1 1    ; x:1
+                5 POP
+                6 EVAL 2    ; x
+                8 EVAL 3    ; 3
+                10 SEND 4 1    ; 3 max:x
+                13 RETURN
+                """, code.toString());
+    }
+
+    @Test
+    public void shouldTranslateLoweredReifiersToJumps() throws IOException {
+        var code = Code.of(compile("{ i FOR: 1 TO: 3 DO: s: s + i; (s > 5) IFTRUE: s IFFALSE: 0 }"));
+        assertEquals("""
+                0 LOWERED 0 19    ; i FOR:1 TO:3 DO:s:s + i
+                3 ENTER 0 0    ; i FOR:1 TO:3 DO:s:s + i
+                6 NEXT 0 17
+                9 POP
+                10 EVAL 1    ; s + i
+                12 DELEGATE 2 1    ; s:s + i
+                15 JUMP 6
+                17 LEAVE 0
+                19 POP
+                20 LOWERED 3 32    ; s > 5 IFTRUE:s IFFALSE:0
+                23 IFFALSE 3 30    ; s > 5 IFTRUE:s IFFALSE:0
+                26 EVAL 4    ; s
+                28 JUMP 32
+                30 EVAL 5    ; 0
+                32 RETURN
+                """, code.toString());
+    }
+
+    @Test
+    public void shouldRunLoweredReifiers() throws IOException {
+        compile("sum: n METHOD: { s LOCAL VARIABLE: 0; i FOR: n DOWNTO: 1 BY: 2 DO: (j FOR: 1 TO: i DO: s: s + j); k LOCAL VARIABLE: 0; (k > 3) WHILEFALSE: k: k + 1; (s > 0) IFFALSE: 0 IFTRUE: s + k }").defaultEval();
+        assertEquals(26, compile("SELF sum: 5").defaultEval().<Integer>down());
+        assertEquals(0, compile("SELF sum: 0").defaultEval().<Integer>down());
+        compile("test: x METHOD: (x IFTRUE: 1)").defaultEval();
+        var error = assertThrows(ProgramError.class, () -> compile("SELF test: 3").defaultEval());
+        assertEquals("x IFTRUE:1", error.getCode().unparse(0));
+    }
+
+    @Test
+    public void shouldRunMethods() throws IOException {
+        var expression = compile("{ twice: n LOCAL METHOD: n * 2; x LOCAL VARIABLE: 3; s LOCAL VARIABLE: 0; i FOR: 1 TO: 10 DO: s: s + (twice: i); s - x }");
+        assertEquals(107, expression.defaultEval().<Integer>down());
+    }
+
+    @Test
+    public void shouldAnnotateErrorsWithTheirCode() throws IOException {
+        var expression = compile("{ 1; 2 foo }");
+        var error = assertThrows(MessageNotUnderstood.class, expression::defaultEval);
+        assertEquals("2 foo", error.getCode().unparse(0));
+    }
+}